@@ -0,0 +1,67 @@
+#!/bin/sh
+# Startup time and memory of each way of running the API: plain JVM, AppCDS, Spring AOT, AOT + AppCDS
+# and, if it was built, the native image.
+#
+# Usage, from backend/ with the database up (docker compose up -d db):
+#   mvn -Dproduction -Paot package -DskipTests
+#   mvn -Dproduction -Pnative native:compile -DskipTests    # optional, needs GraalVM
+#   scripts/measure-startup.sh [runs]
+#
+# The datasource comes from application.properties or the SPRING_DATASOURCE_* environment variables;
+# JAVA_OPTS is passed to every variant.
+set -eu
+
+RUNS=${1:-5}
+MAIN=com.moneycontrol.api.MoneyControlApplication
+OUT=target/fast-start
+JAR=$(cd target && ls -1 api-*.jar | grep -v plain | head -1)
+
+# Same layout as the Docker image: dependencies and application classes as plain jars on the class
+# path, because CDS only archives classes loaded from jars
+rm -rf "$OUT" && mkdir -p "$OUT/exploded"
+(cd "$OUT/exploded" && jar -xf "../../$JAR")
+mv "$OUT/exploded/BOOT-INF/lib" "$OUT/lib"
+jar -cf "$OUT/app.jar" -C "$OUT/exploded/BOOT-INF/classes" .
+rm -rf "$OUT/exploded"
+CP="app.jar:lib/*"
+OPTS=${JAVA_OPTS:-}
+
+# Training runs: refresh the context, exit before serving and write the archive on exit
+TRAINING="-Dspring.context.exit=onRefresh -Dspring.jpa.hibernate.ddl-auto=none
+ -Dspring.jpa.properties.hibernate.boot.allow_jdbc_metadata_access=false"
+(cd "$OUT" && java $OPTS -XX:ArchiveClassesAtExit=app.jsa $TRAINING -cp "$CP" $MAIN > training.log 2>&1)
+(cd "$OUT" && java $OPTS -XX:ArchiveClassesAtExit=app-aot.jsa -Dspring.aot.enabled=true $TRAINING -cp "$CP" $MAIN > training-aot.log 2>&1)
+
+# Prints "<seconds> <rss kB>" once the application logged that it started
+measure() {
+    (cd "$OUT" && exec "$@" > run.log 2>&1) &
+    pid=$!
+    for i in $(seq 1 1200); do
+        grep -q "Started MoneyControlApplication" "$OUT/run.log" 2>/dev/null && break
+        sleep 0.1
+    done
+    seconds=$(sed -n 's/.*Started MoneyControlApplication in \([0-9.]*\) seconds.*/\1/p' "$OUT/run.log")
+    rss=$(awk '/VmRSS/ {print $2}' /proc/$pid/status)
+    kill $pid
+    wait $pid 2>/dev/null || true
+    echo "${seconds:-nan} ${rss:-0}"
+}
+
+report() {
+    name=$1
+    shift
+    results=""
+    for run in $(seq 1 "$RUNS"); do
+        results="$results$(measure "$@")\n"
+    done
+    printf "$results" | awk -v name="$name" '{ t += $1; m += $2; n++ }
+        END { printf "%-14s startup %6.2f s   rss %6.0f MB\n", name, t / n, m / n / 1024 }'
+}
+
+report "jvm" java $OPTS -cp "$CP" $MAIN
+report "cds" java $OPTS -XX:SharedArchiveFile=app.jsa -cp "$CP" $MAIN
+report "aot" java $OPTS -Dspring.aot.enabled=true -cp "$CP" $MAIN
+report "aot+cds" java $OPTS -XX:SharedArchiveFile=app-aot.jsa -Dspring.aot.enabled=true -cp "$CP" $MAIN
+if [ -x target/api ]; then
+    report "native" ../api $OPTS
+fi
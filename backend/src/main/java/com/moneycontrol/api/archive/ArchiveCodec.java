@@ -0,0 +1,215 @@
+package com.moneycontrol.api.archive;
+
+import com.moneycontrol.api.model.Transaction;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+// Columnar segment of one user's archived transactions, sorted by date and id:
+//   "MCA1", row count, then per column its offset, compressed and raw length and CRC32,
+//   followed by the deflated columns.
+// Ids and dates (kept to the second) are delta encoded varints and amounts varint cents, so a year of
+// rows shrinks to a few bytes each. Reads only inflate the columns a scan asks for; descriptions are
+// skipped by the totals
+final class ArchiveCodec {
+
+    private static final int MAGIC = 0x4D434131;
+    private static final int ID = 0;
+    private static final int DATE = 1;
+    private static final int AMOUNT = 2;
+    private static final int TYPE = 3;
+    private static final int CURRENCY = 4;
+    private static final int CATEGORY = 5;
+    private static final int DESCRIPTION = 6;
+    private static final int COLUMNS = 7;
+    private static final int HEADER_SIZE = 8 + COLUMNS * 20;
+
+    private static final Transaction.TransactionType[] TYPES = Transaction.TransactionType.values();
+
+    private ArchiveCodec() {
+    }
+
+    static byte[] encode(List<ArchivedRow> rows) {
+        ByteArrayOutputStream[] columns = new ByteArrayOutputStream[COLUMNS];
+        for (int i = 0; i < COLUMNS; i++) {
+            columns[i] = new ByteArrayOutputStream();
+        }
+        long previousId = 0;
+        long previousDate = 0;
+        for (ArchivedRow row : rows) {
+            writeVarLong(columns[ID], zigZag(row.id() - previousId));
+            long date = row.date().toEpochSecond(ZoneOffset.UTC);
+            writeVarLong(columns[DATE], zigZag(date - previousDate));
+            writeVarLong(columns[AMOUNT], zigZag(row.amount()));
+            columns[TYPE].write(row.type().ordinal());
+            columns[CURRENCY].writeBytes(row.currency().getBytes(StandardCharsets.US_ASCII));
+            writeVarLong(columns[CATEGORY], row.categoryId() == null ? 0 : row.categoryId() + 1);
+            byte[] description = row.description().getBytes(StandardCharsets.UTF_8);
+            writeVarLong(columns[DESCRIPTION], description.length);
+            columns[DESCRIPTION].writeBytes(description);
+            previousId = row.id();
+            previousDate = date;
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(rows.size());
+        List<byte[]> compressed = new ArrayList<>(COLUMNS);
+        long offset = HEADER_SIZE;
+        for (ByteArrayOutputStream column : columns) {
+            byte[] raw = column.toByteArray();
+            byte[] deflated = deflate(raw);
+            CRC32 crc = new CRC32();
+            crc.update(raw);
+            header.putLong(offset).putInt(deflated.length).putInt(raw.length).putInt((int) crc.getValue());
+            compressed.add(deflated);
+            offset += deflated.length;
+        }
+
+        ByteBuffer segment = ByteBuffer.allocate((int) offset);
+        segment.put(header.array());
+        for (byte[] column : compressed) {
+            segment.put(column);
+        }
+        return segment.array();
+    }
+
+    // Rows with from <= date < to; the segment is sorted by date, so the scan stops at the first row past the range
+    static List<ArchivedRow> decode(byte[] data, LocalDateTime from, LocalDateTime to, boolean withDescriptions)
+            throws IOException {
+        ByteBuffer segment = ByteBuffer.wrap(data);
+        if (data.length < HEADER_SIZE || segment.getInt(0) != MAGIC) {
+            throw new IOException("Not an archive segment");
+        }
+        int rowCount = segment.getInt(4);
+        ByteBuffer ids = column(segment, ID);
+        ByteBuffer dates = column(segment, DATE);
+        ByteBuffer amounts = column(segment, AMOUNT);
+        ByteBuffer types = column(segment, TYPE);
+        ByteBuffer currencies = column(segment, CURRENCY);
+        ByteBuffer categories = column(segment, CATEGORY);
+        ByteBuffer descriptions = withDescriptions ? column(segment, DESCRIPTION) : null;
+
+        long fromSecond = ceilSecond(from);
+        long toSecond = ceilSecond(to);
+        List<ArchivedRow> rows = new ArrayList<>();
+        long id = 0;
+        long date = 0;
+        byte[] currency = new byte[3];
+        for (int i = 0; i < rowCount; i++) {
+            id += unZigZag(readVarLong(ids));
+            date += unZigZag(readVarLong(dates));
+            if (date >= toSecond) {
+                break;
+            }
+            long amount = unZigZag(readVarLong(amounts));
+            Transaction.TransactionType type = TYPES[types.get()];
+            currencies.get(currency);
+            long category = readVarLong(categories);
+            String description = null;
+            if (descriptions != null) {
+                byte[] text = new byte[(int) readVarLong(descriptions)];
+                descriptions.get(text);
+                description = new String(text, StandardCharsets.UTF_8);
+            }
+            if (date >= fromSecond) {
+                rows.add(new ArchivedRow(id, LocalDateTime.ofEpochSecond(date, 0, ZoneOffset.UTC), amount, type,
+                        new String(currency, StandardCharsets.US_ASCII), category == 0 ? null : category - 1,
+                        description));
+            }
+        }
+        return rows;
+    }
+
+    // Stored dates have no fraction, so comparing with the bound rounded up gives the same result
+    private static long ceilSecond(LocalDateTime bound) {
+        return bound.toEpochSecond(ZoneOffset.UTC) + (bound.getNano() > 0 ? 1 : 0);
+    }
+
+    private static ByteBuffer column(ByteBuffer segment, int column) throws IOException {
+        int entry = 8 + column * 20;
+        long offset = segment.getLong(entry);
+        int compressedLength = segment.getInt(entry + 8);
+        int rawLength = segment.getInt(entry + 12);
+        int checksum = segment.getInt(entry + 16);
+        if (offset + compressedLength > segment.capacity()) {
+            throw new IOException("Archive segment is truncated in column " + column);
+        }
+
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(segment.slice((int) offset, compressedLength));
+            byte[] raw = new byte[rawLength];
+            int inflated = 0;
+            while (inflated < rawLength && !inflater.finished()) {
+                int count = inflater.inflate(raw, inflated, rawLength - inflated);
+                if (count == 0 && inflater.needsInput()) {
+                    break;
+                }
+                inflated += count;
+            }
+            CRC32 crc = new CRC32();
+            crc.update(raw);
+            if (inflated != rawLength || (int) crc.getValue() != checksum) {
+                throw new IOException("Archive segment is corrupt in column " + column);
+            }
+            return ByteBuffer.wrap(raw);
+        } catch (DataFormatException ex) {
+            throw new IOException("Archive segment is corrupt in column " + column, ex);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static byte[] deflate(byte[] raw) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, raw.length / 4));
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
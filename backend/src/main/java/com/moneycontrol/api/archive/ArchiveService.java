@@ -0,0 +1,268 @@
+package com.moneycontrol.api.archive;
+
+import com.moneycontrol.api.currency.Money;
+import com.moneycontrol.api.model.ArchiveSegment;
+import com.moneycontrol.api.model.ArchiveSegmentData;
+import com.moneycontrol.api.model.Category;
+import com.moneycontrol.api.model.Transaction;
+import com.moneycontrol.api.model.User;
+import com.moneycontrol.api.report.ReportLine;
+import com.moneycontrol.api.repository.ArchiveSegmentDataRepository;
+import com.moneycontrol.api.repository.ArchiveSegmentRepository;
+import com.moneycontrol.api.repository.CategoryRepository;
+import com.moneycontrol.api.repository.TransactionRepository;
+import com.moneycontrol.api.repository.UserRepository;
+import com.moneycontrol.api.service.JobLockService;
+import com.moneycontrol.api.service.UserService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Moves closed years out of the hot transactions table into compressed columnar segments, one or more
+// per user and year, listed in archive_segments with their bytes in archive_segment_data, so every node
+// reads the same archive. Archived rows are read-only: date range listings, summaries, reports and rollup
+// rebuilds combine them with the live rows
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ArchiveService {
+
+    private static final int DELETE_CHUNK = 1000;
+    private static final int READ_CHUNK = 20;
+
+    private final ArchiveSegmentRepository segmentRepository;
+    private final ArchiveSegmentDataRepository segmentDataRepository;
+    private final TransactionRepository transactionRepository;
+    private final CategoryRepository categoryRepository;
+    private final UserRepository userRepository;
+    private final UserService userService;
+    private final JobLockService jobLockService;
+    private final TransactionTemplate transactionTemplate;
+
+    // Segments never change once written, so their all-time totals are computed once
+    private final Map<Long, List<Object[]>> totalsBySegment = new ConcurrentHashMap<>();
+
+    @Value("${app.archive.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.archive.hot-years:2}")
+    private int hotYears;
+
+    @Value("${app.archive.lock-hours:6}")
+    private long lockHours;
+
+    // Keeps the current year and the hotYears - 1 before it in the table; one node runs it per round
+    @Scheduled(cron = "${app.archive.cron:0 0 4 * * SUN}")
+    public void archiveClosedYears() {
+        if (!enabled) {
+            return;
+        }
+        jobLockService.runExclusively("archive", Duration.ofHours(lockHours), this::archiveAll);
+    }
+
+    private void archiveAll() {
+        LocalDateTime cutoff = Year.now().minusYears(hotYears - 1L).atDay(1).atStartOfDay();
+        long archived = 0;
+        for (Long userId : userRepository.findAllIds()) {
+            for (Integer year : transactionRepository.findYearsBefore(userId, cutoff)) {
+                try {
+                    archived += transactionTemplate.execute(status -> archiveYear(userId, year));
+                } catch (Exception ex) {
+                    log.error("Could not archive {} transactions of user {}", year, userId, ex);
+                }
+            }
+        }
+        log.info("Archived {} transactions dated before {}", archived, cutoff.toLocalDate());
+    }
+
+    @Transactional
+    public int archiveYear(Long userId, int year) {
+        LocalDateTime from = Year.of(year).atDay(1).atStartOfDay();
+        List<Transaction> rows = transactionRepository.lockForArchive(userId, from, from.plusYears(1));
+        if (rows.isEmpty()) {
+            return 0;
+        }
+
+        int segment = segmentRepository.countByUserIdAndYear(userId, year) + 1;
+        byte[] data = ArchiveCodec.encode(rows.stream().map(ArchiveService::toRow).toList());
+        ArchiveSegment saved = segmentRepository.save(new ArchiveSegment(null, userId, year, segment, rows.size(),
+                (long) data.length, rows.get(0).getDate(), rows.get(rows.size() - 1).getDate(), LocalDateTime.now()));
+        segmentDataRepository.save(new ArchiveSegmentData(saved.getId(), data));
+        List<Long> ids = rows.stream().map(Transaction::getId).toList();
+        for (int i = 0; i < ids.size(); i += DELETE_CHUNK) {
+            transactionRepository.deleteArchived(ids.subList(i, Math.min(i + DELETE_CHUNK, ids.size())));
+        }
+        return rows.size();
+    }
+
+    public List<ArchiveSegment> getSegments(String email) {
+        User user = userService.getCurrentUser(email);
+        return segmentRepository.findByUserIdOrderByYearAscSegmentAsc(user.getId());
+    }
+
+    public boolean hasArchived(Long userId, LocalDateTime from, LocalDateTime to) {
+        return !segmentRepository.findOverlapping(userId, from, to).isEmpty();
+    }
+
+    // Rows with from <= date < to, ordered by date and id
+    public List<ArchivedRow> scan(Long userId, LocalDateTime from, LocalDateTime to, boolean withDescriptions) {
+        List<ArchiveSegment> segments = segmentRepository.findOverlapping(userId, from, to);
+        List<ArchivedRow> rows = new ArrayList<>();
+        for (ArchiveSegment segment : segments) {
+            rows.addAll(read(segment, from, to, withDescriptions));
+        }
+        if (segments.size() > 1) {
+            rows.sort(Comparator.comparing(ArchivedRow::date).thenComparingLong(ArchivedRow::id));
+        }
+        return rows;
+    }
+
+    // Every archived row of the user, in segment order
+    public List<ArchivedRow> scanAll(Long userId, boolean withDescriptions) {
+        List<ArchivedRow> rows = new ArrayList<>();
+        for (ArchiveSegment segment : segmentRepository.findByUserIdOrderByYearAscSegmentAsc(userId)) {
+            rows.addAll(read(segment, LocalDateTime.MIN, LocalDateTime.MAX, withDescriptions));
+        }
+        return rows;
+    }
+
+    // Same shape as TransactionRepository.sumByTypeAndCurrencyBetween: type, currency, sum, count
+    public List<Object[]> sumByTypeAndCurrency(Long userId, LocalDateTime from, LocalDateTime to) {
+        return sum(scan(userId, from, to, false));
+    }
+
+    public List<Object[]> sumByTypeAndCurrency(Long userId) {
+        return sumByTypeAndCurrency(List.of(userId)).getOrDefault(userId, List.of());
+    }
+
+    // All-time totals of several users at once, for the forecast batch: one query lists their segments and
+    // the bytes of segments without cached totals are loaded a chunk at a time
+    public Map<Long, List<Object[]>> sumByTypeAndCurrency(Collection<Long> userIds) {
+        List<ArchiveSegment> segments = segmentRepository.findByUserIdInOrderByYearAscSegmentAsc(userIds);
+        List<Long> missing = segments.stream().map(ArchiveSegment::getId)
+                .filter(id -> !totalsBySegment.containsKey(id)).toList();
+        for (int i = 0; i < missing.size(); i += READ_CHUNK) {
+            for (ArchiveSegmentData data : segmentDataRepository.findAllById(
+                    missing.subList(i, Math.min(i + READ_CHUNK, missing.size())))) {
+                totalsBySegment.put(data.getSegmentId(), sum(decode(data, LocalDateTime.MIN, LocalDateTime.MAX, false)));
+            }
+        }
+
+        Map<Long, Map<List<Object>, long[]>> totals = new LinkedHashMap<>();
+        for (ArchiveSegment segment : segments) {
+            List<Object[]> segmentTotals = totalsBySegment.get(segment.getId());
+            if (segmentTotals == null) {
+                throw new IllegalStateException("Archive segment " + segment.getId() + " has no data");
+            }
+            Map<List<Object>, long[]> userTotals = totals.computeIfAbsent(segment.getUserId(), id -> new LinkedHashMap<>());
+            for (Object[] row : segmentTotals) {
+                add(userTotals, row[0], row[1], Money.toMinorUnits((BigDecimal) row[2]), (Long) row[3]);
+            }
+        }
+        Map<Long, List<Object[]>> rows = new HashMap<>();
+        totals.forEach((userId, userTotals) -> rows.put(userId, toRows(userTotals)));
+        return rows;
+    }
+
+    // Read-only Transaction views, flagged as archived, for merging into listings
+    public List<Transaction> findTransactions(User user, LocalDateTime from, LocalDateTime to) {
+        List<ArchivedRow> rows = scan(user.getId(), from, to, true);
+        Map<Long, Category> categories = categories(rows);
+        return rows.stream().map(row -> {
+            Transaction transaction = new Transaction();
+            transaction.setId(row.id());
+            transaction.setDescription(row.description());
+            transaction.setAmount(Money.toBigDecimal(row.amount()));
+            transaction.setCurrency(row.currency());
+            transaction.setDate(row.date());
+            transaction.setType(row.type());
+            transaction.setCategory(row.categoryId() == null ? null : categories.get(row.categoryId()));
+            transaction.setUser(user);
+            transaction.setArchived(true);
+            return transaction;
+        }).toList();
+    }
+
+    public List<ReportLine> findReportLines(Long userId, LocalDateTime from, LocalDateTime to) {
+        List<ArchivedRow> rows = scan(userId, from, to, true);
+        Map<Long, Category> categories = categories(rows);
+        return rows.stream().map(row -> new ReportLine(row.date(), row.description(),
+                row.categoryId() == null || !categories.containsKey(row.categoryId())
+                        ? null : categories.get(row.categoryId()).getName(),
+                row.type(), row.currency(), Money.toBigDecimal(row.amount()))).toList();
+    }
+
+    private Map<Long, Category> categories(List<ArchivedRow> rows) {
+        List<Long> ids = rows.stream().map(ArchivedRow::categoryId).filter(Objects::nonNull).distinct().toList();
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        return categoryRepository.findAllById(ids).stream().collect(Collectors.toMap(Category::getId, Function.identity()));
+    }
+
+    private static List<Object[]> sum(List<ArchivedRow> rows) {
+        Map<List<Object>, long[]> totals = new LinkedHashMap<>();
+        for (ArchivedRow row : rows) {
+            add(totals, row.type(), row.currency(), row.amount(), 1);
+        }
+        return toRows(totals);
+    }
+
+    private static void add(Map<List<Object>, long[]> totals, Object type, Object currency, long amount, long count) {
+        long[] total = totals.computeIfAbsent(List.of(type, currency), key -> new long[2]);
+        total[0] = Money.add(total[0], amount);
+        total[1] += count;
+    }
+
+    private static List<Object[]> toRows(Map<List<Object>, long[]> totals) {
+        return totals.entrySet().stream()
+                .map(entry -> new Object[]{entry.getKey().get(0), entry.getKey().get(1),
+                        Money.toBigDecimal(entry.getValue()[0]), entry.getValue()[1]})
+                .toList();
+    }
+
+    private List<ArchivedRow> read(ArchiveSegment segment, LocalDateTime from, LocalDateTime to,
+                                   boolean withDescriptions) {
+        ArchiveSegmentData data = segmentDataRepository.findById(segment.getId())
+                .orElseThrow(() -> new IllegalStateException("Archive segment " + segment.getId() + " has no data"));
+        return decode(data, from, to, withDescriptions);
+    }
+
+    private static List<ArchivedRow> decode(ArchiveSegmentData data, LocalDateTime from, LocalDateTime to,
+                                            boolean withDescriptions) {
+        try {
+            return ArchiveCodec.decode(data.getData(), from, to, withDescriptions);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not read archive segment " + data.getSegmentId(), ex);
+        }
+    }
+
+    private static ArchivedRow toRow(Transaction transaction) {
+        return new ArchivedRow(transaction.getId(), transaction.getDate(), Money.toMinorUnits(transaction.getAmount()),
+                transaction.getType(), transaction.getCurrency(),
+                transaction.getCategory() != null ? transaction.getCategory().getId() : null,
+                transaction.getDescription());
+    }
+}
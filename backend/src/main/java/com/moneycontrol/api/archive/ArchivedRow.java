@@ -0,0 +1,10 @@
+package com.moneycontrol.api.archive;
+
+import com.moneycontrol.api.model.Transaction;
+
+import java.time.LocalDateTime;
+
+// Amount in cents; description is null when the scan skipped that column
+public record ArchivedRow(long id, LocalDateTime date, long amount, Transaction.TransactionType type,
+                          String currency, Long categoryId, String description) {
+}
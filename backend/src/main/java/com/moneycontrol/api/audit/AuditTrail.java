@@ -0,0 +1,280 @@
+package com.moneycontrol.api.audit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.moneycontrol.api.model.AuditLog;
+import com.moneycontrol.api.model.OutboxEvent;
+import com.moneycontrol.api.model.User;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Audit events are queued in a bounded buffer and stored by one background writer in batched inserts,
+// so a request only pays for building the entry and a non-blocking offer.
+// When the buffer is full the new event is dropped and counted; the writer then stores a DROPPED row
+// with the count so the gap shows up in the trail. Batches the database keeps rejecting after the
+// retries, and whatever is still buffered when the shutdown timeout runs out, go to the fallback file
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AuditTrail {
+
+    private static final String INSERT = "INSERT INTO audit_log (occurred_at, action, user_id, principal, "
+            + "entity_type, entity_id, remote_address, detail) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    private final AtomicLong dropped = new AtomicLong();
+    // Offers hold it shared while checking running and queuing, shutdown exclusively while clearing running,
+    // so nothing is queued after the writer may have seen the buffer empty for the last time
+    private final ReadWriteLock state = new ReentrantReadWriteLock();
+    private BlockingQueue<AuditLog> buffer;
+    private Thread writer;
+    private volatile boolean running;
+
+    @Value("${app.audit.buffer-size:8192}")
+    private int bufferSize;
+
+    @Value("${app.audit.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.audit.flush-interval-ms:200}")
+    private long flushIntervalMs;
+
+    @Value("${app.audit.max-retries:3}")
+    private int maxRetries;
+
+    @Value("${app.audit.retry-delay-ms:1000}")
+    private long retryDelayMs;
+
+    @Value("${app.audit.shutdown-timeout-ms:5000}")
+    private long shutdownTimeoutMs;
+
+    @Value("${app.audit.fallback-file:audit-log.jsonl}")
+    private Path fallbackFile;
+
+    @PostConstruct
+    void init() {
+        buffer = new ArrayBlockingQueue<>(bufferSize);
+        running = true;
+        writer = new Thread(this::drain, "audit-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    // Stops taking events, gives the writer the timeout to store the buffer and saves the rest to the file
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        state.writeLock().lock();
+        try {
+            running = false;
+        } finally {
+            state.writeLock().unlock();
+        }
+        writer.join(shutdownTimeoutMs);
+        if (writer.isAlive()) {
+            List<AuditLog> remaining = new ArrayList<>();
+            buffer.drainTo(remaining);
+            addDroppedMarker(remaining);
+            log.warn("Audit writer did not finish within {} ms, appending {} events to {}",
+                    shutdownTimeoutMs, remaining.size(), fallbackFile);
+            append(remaining);
+        }
+    }
+
+    // Acting user and address come from the current request
+    public void record(AuditLog.Action action, OutboxEvent.AggregateType entityType, Long entityId) {
+        User user = currentUser();
+        enqueue(List.of(entry(action, user == null ? null : user.getId(), user == null ? null : user.getEmail(),
+                entityType, entityId, null)));
+    }
+
+    public void recordAll(AuditLog.Action action, OutboxEvent.AggregateType entityType, List<Long> entityIds) {
+        User user = currentUser();
+        recordAll(action, user == null ? null : user.getId(), user == null ? null : user.getEmail(),
+                entityType, entityIds, "bulk");
+    }
+
+    // Writes made by background jobs, imports and purges, where there is no request to take the user from
+    public void recordAllFor(Long userId, AuditLog.Action action, OutboxEvent.AggregateType entityType,
+                             List<Long> entityIds, String detail) {
+        recordAll(action, userId, null, entityType, entityIds, detail);
+    }
+
+    // Logins and registrations, where the request is not authenticated yet
+    public void recordAuth(AuditLog.Action action, Long userId, String email, String detail) {
+        enqueue(List.of(entry(action, userId, email, null, null, detail)));
+    }
+
+    private void recordAll(AuditLog.Action action, Long userId, String principal,
+                           OutboxEvent.AggregateType entityType, List<Long> entityIds, String detail) {
+        if (entityIds.isEmpty()) {
+            return;
+        }
+        List<AuditLog> entries = new ArrayList<>(entityIds.size());
+        for (Long entityId : entityIds) {
+            entries.add(entry(action, userId, principal, entityType, entityId, detail));
+        }
+        enqueue(entries);
+    }
+
+    // Inside a transaction the events wait for the commit, so rolled back changes leave no trace
+    private void enqueue(List<AuditLog> entries) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    offer(entries);
+                }
+            });
+        } else {
+            offer(entries);
+        }
+    }
+
+    private void offer(List<AuditLog> entries) {
+        state.readLock().lock();
+        try {
+            if (running) {
+                for (AuditLog entry : entries) {
+                    if (!buffer.offer(entry)) {
+                        dropped.incrementAndGet();
+                    }
+                }
+                return;
+            }
+        } finally {
+            state.readLock().unlock();
+        }
+        append(entries);
+    }
+
+    private void drain() {
+        List<AuditLog> batch = new ArrayList<>(batchSize + 1);
+        while (running || !buffer.isEmpty()) {
+            try {
+                AuditLog first = buffer.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    buffer.drainTo(batch, batchSize - 1);
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            addDroppedMarker(batch);
+            if (!batch.isEmpty()) {
+                write(batch);
+                batch.clear();
+            }
+        }
+        // Drops counted after the last marker of the loop
+        addDroppedMarker(batch);
+        if (!batch.isEmpty()) {
+            write(batch);
+        }
+    }
+
+    private void addDroppedMarker(List<AuditLog> batch) {
+        long count = dropped.getAndSet(0);
+        if (count > 0) {
+            log.warn("Audit buffer was full, {} events were dropped", count);
+            batch.add(entry(AuditLog.Action.DROPPED, null, null, null, null, count + " events dropped, buffer full"));
+        }
+    }
+
+    private void write(List<AuditLog> batch) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                transactionTemplate.executeWithoutResult(status ->
+                        jdbcTemplate.batchUpdate(INSERT, batch, batch.size(), AuditTrail::bind));
+                return;
+            } catch (DataAccessException ex) {
+                if (attempt > maxRetries || !running) {
+                    log.error("Could not store {} audit events, appending them to {}", batch.size(), fallbackFile, ex);
+                    append(batch);
+                    return;
+                }
+                log.warn("Could not store {} audit events, attempt {} of {}", batch.size(), attempt, maxRetries + 1, ex);
+                try {
+                    Thread.sleep(retryDelayMs * attempt);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    append(batch);
+                    return;
+                }
+            }
+        }
+    }
+
+    private synchronized void append(List<AuditLog> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        try (BufferedWriter out = Files.newBufferedWriter(fallbackFile, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            for (AuditLog entry : entries) {
+                out.write(objectMapper.writeValueAsString(entry));
+                out.newLine();
+            }
+        } catch (IOException ex) {
+            log.error("Could not append {} audit events to {}, they are lost", entries.size(), fallbackFile, ex);
+        }
+    }
+
+    private static User currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getPrincipal() instanceof User user ? user : null;
+    }
+
+    private static AuditLog entry(AuditLog.Action action, Long userId, String principal,
+                                  OutboxEvent.AggregateType entityType, Long entityId, String detail) {
+        String remoteAddress = RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes request
+                ? request.getRequest().getRemoteAddr() : null;
+        return new AuditLog(null, LocalDateTime.now(), action, userId, principal, entityType, entityId,
+                remoteAddress, detail);
+    }
+
+    private static void bind(PreparedStatement ps, AuditLog entry) throws SQLException {
+        ps.setObject(1, entry.getOccurredAt());
+        ps.setString(2, entry.getAction().name());
+        ps.setObject(3, entry.getUserId(), Types.BIGINT);
+        ps.setString(4, entry.getPrincipal());
+        ps.setString(5, entry.getEntityType() == null ? null : entry.getEntityType().name());
+        ps.setObject(6, entry.getEntityId(), Types.BIGINT);
+        ps.setString(7, entry.getRemoteAddress());
+        ps.setString(8, entry.getDetail());
+    }
+}
@@ -0,0 +1,26 @@
+package com.moneycontrol.api.cache;
+
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Local caches of each node, kept consistent across replicas by CacheInvalidationBus. Keys are always
+// strings, so an eviction received from another node finds the entry
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String USERS = "users";
+    public static final String CATEGORIES = "categories";
+    public static final String SUMMARIES = "summaries";
+    public static final String CATEGORY_RULES = "category-rules";
+
+    @Bean
+    public CacheManager cacheManager() {
+        ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager(USERS, CATEGORIES, SUMMARIES, CATEGORY_RULES);
+        cacheManager.setAllowNullValues(false);
+        return cacheManager;
+    }
+}
@@ -0,0 +1,70 @@
+package com.moneycontrol.api.cache;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Objects;
+import java.util.concurrent.Callable;
+
+// Entry point of the mutating services into the caches: evictions apply on this node once the change
+// commits and are passed to the other nodes through PostgresCacheNotifier when it is enabled
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CacheInvalidationBus {
+
+    private final CacheManager cacheManager;
+    private final ObjectProvider<PostgresCacheNotifier> notifier;
+
+    public <T> T get(String cacheName, Object key, Callable<T> loader) {
+        return cache(cacheName).get(key.toString(), loader);
+    }
+
+    // Deferred to after commit, so no node reloads the old value while the change is still in flight
+    public void evict(String cacheName, Object key) {
+        String cacheKey = key.toString();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evictNow(cacheName, cacheKey);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evictNow(cacheName, cacheKey);
+            }
+        });
+    }
+
+    // Bounds how long an entry can outlive a notification that got lost, e.g. while the listener reconnected
+    @Scheduled(fixedDelayString = "${app.cache.max-age-ms:600000}", initialDelayString = "${app.cache.max-age-ms:600000}")
+    public void clearAll() {
+        cacheManager.getCacheNames().forEach(name -> cache(name).clear());
+    }
+
+    void evictLocally(String cacheName, String key) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache == null) {
+            log.debug("Ignoring eviction for unknown cache {}", cacheName);
+        } else if (PostgresCacheNotifier.ALL_KEYS.equals(key)) {
+            cache.clear();
+        } else {
+            cache.evict(key);
+        }
+    }
+
+    private void evictNow(String cacheName, String key) {
+        evictLocally(cacheName, key);
+        notifier.ifAvailable(publisher -> publisher.publish(cacheName, key));
+    }
+
+    private Cache cache(String cacheName) {
+        return Objects.requireNonNull(cacheManager.getCache(cacheName), "Unknown cache " + cacheName);
+    }
+}
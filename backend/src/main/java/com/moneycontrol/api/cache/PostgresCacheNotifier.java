@@ -0,0 +1,189 @@
+package com.moneycontrol.api.cache;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Cache evictions shared between replicas over PostgreSQL LISTEN/NOTIFY. Evictions are collected and sent
+// every app.cache.invalidation.flush-interval-ms, so a burst of writes to the same rows costs one
+// notification; each node listens on its own connection and evicts what the others changed.
+// Payload: the sending node's id, then one "cache:key" per line, "cache:*" clearing a whole cache
+@Component
+@ConditionalOnProperty(name = "app.cache.invalidation.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class PostgresCacheNotifier {
+
+    static final String ALL_KEYS = "*";
+    // PostgreSQL rejects payloads of 8000 bytes or more
+    private static final int MAX_PAYLOAD_BYTES = 7900;
+
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSourceProperties dataSourceProperties;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+    private volatile boolean running = true;
+    private Thread listener;
+
+    @Value("${app.cache.invalidation.channel:moneycontrol_cache}")
+    private String channel;
+
+    @Value("${app.cache.invalidation.max-keys-per-cache:200}")
+    private int maxKeysPerCache;
+
+    @Value("${app.cache.invalidation.poll-timeout-ms:1000}")
+    private int pollTimeoutMs;
+
+    @Value("${app.cache.invalidation.reconnect-delay-ms:5000}")
+    private long reconnectDelayMs;
+
+    @PostConstruct
+    void start() {
+        // LISTEN takes an identifier, not a parameter
+        if (!channel.matches("[a-z_][a-z0-9_]*")) {
+            throw new IllegalStateException("Invalid app.cache.invalidation.channel: " + channel);
+        }
+        listener = new Thread(this::listen, "cache-invalidation-listener");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        listener.interrupt();
+    }
+
+    void publish(String cacheName, String key) {
+        pending.add(cacheName + ":" + key);
+    }
+
+    @Scheduled(fixedDelayString = "${app.cache.invalidation.flush-interval-ms:100}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<String> entries = new ArrayList<>(pending);
+        pending.removeAll(entries);
+        try {
+            for (String payload : payloads(nodeId, entries, maxKeysPerCache)) {
+                jdbcTemplate.queryForList("SELECT pg_notify(?, ?)", channel, payload);
+            }
+        } catch (RuntimeException ex) {
+            // The other nodes catch up on their next periodic clear
+            log.error("Could not send {} cache evictions", entries.size(), ex);
+        }
+    }
+
+    // Coalesced per cache: past maxKeysPerCache keys the whole cache is cleared instead
+    static List<String> payloads(String nodeId, List<String> entries, int maxKeysPerCache) {
+        Map<String, Set<String>> keysByCache = new LinkedHashMap<>();
+        for (String entry : entries) {
+            int separator = entry.indexOf(':');
+            keysByCache.computeIfAbsent(entry.substring(0, separator), name -> new LinkedHashSet<>())
+                    .add(entry.substring(separator + 1));
+        }
+
+        List<String> payloads = new ArrayList<>();
+        int headerBytes = nodeId.getBytes(StandardCharsets.UTF_8).length;
+        StringBuilder payload = new StringBuilder(nodeId);
+        int payloadBytes = headerBytes;
+        for (Map.Entry<String, Set<String>> cache : keysByCache.entrySet()) {
+            Set<String> keys = cache.getValue().size() > maxKeysPerCache || cache.getValue().contains(ALL_KEYS)
+                    ? Set.of(ALL_KEYS) : cache.getValue();
+            for (String key : keys) {
+                String line = "\n" + cache.getKey() + ":" + key;
+                int lineBytes = line.getBytes(StandardCharsets.UTF_8).length;
+                if (payloadBytes + lineBytes > MAX_PAYLOAD_BYTES) {
+                    payloads.add(payload.toString());
+                    payload = new StringBuilder(nodeId);
+                    payloadBytes = headerBytes;
+                }
+                payload.append(line);
+                payloadBytes += lineBytes;
+            }
+        }
+        if (payloadBytes > headerBytes) {
+            payloads.add(payload.toString());
+        }
+        return payloads;
+    }
+
+    // Entries of a payload from another node, empty for the node's own notifications
+    static List<String[]> parse(String ownNodeId, String payload) {
+        String[] lines = payload.split("\n");
+        List<String[]> evictions = new ArrayList<>();
+        if (lines[0].equals(ownNodeId)) {
+            return evictions;
+        }
+        for (int i = 1; i < lines.length; i++) {
+            int separator = lines[i].indexOf(':');
+            if (separator > 0) {
+                evictions.add(new String[]{lines[i].substring(0, separator), lines[i].substring(separator + 1)});
+            }
+        }
+        return evictions;
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                // Whatever changed while no connection was listening is unknown
+                cacheInvalidationBus.clearAll();
+                log.info("Listening for cache evictions on channel {}", channel);
+
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(pollTimeoutMs);
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        for (String[] eviction : parse(nodeId, notification.getParameter())) {
+                            cacheInvalidationBus.evictLocally(eviction[0], eviction[1]);
+                        }
+                    }
+                }
+            } catch (SQLException ex) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Cache invalidation listener lost its connection, retrying in {} ms", reconnectDelayMs, ex);
+                try {
+                    Thread.sleep(reconnectDelayMs);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.moneycontrol.api.config;
+
+import com.moneycontrol.api.event.BudgetAlert;
+import com.moneycontrol.api.event.ChangeEvent;
+import com.moneycontrol.api.event.LiveUpdate;
+import com.moneycontrol.api.report.ReportLine;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.util.ClassUtils;
+
+import java.util.List;
+
+// Reflection and resource hints for the native image (-Pnative), evaluated at build time by Spring AOT.
+// Controllers mostly return ResponseEntity<?>, so the JSON types can't be inferred from the signatures
+@Configuration
+@ImportRuntimeHints(NativeHints.class)
+public class NativeHints implements RuntimeHintsRegistrar {
+
+    private static final List<String> JSON_PACKAGES = List.of("com.moneycontrol.api.dto", "com.moneycontrol.api.model");
+
+    // jjwt 0.11 creates its implementation classes by name and finds the Jackson serializer with ServiceLoader
+    private static final List<String> JJWT_CLASSES = List.of(
+            "io.jsonwebtoken.impl.DefaultJwtBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtParser",
+            "io.jsonwebtoken.impl.DefaultJwtParserBuilder",
+            "io.jsonwebtoken.impl.DefaultClaims",
+            "io.jsonwebtoken.impl.DefaultHeader",
+            "io.jsonwebtoken.impl.DefaultJwsHeader",
+            "io.jsonwebtoken.impl.compression.DefaultCompressionCodecResolver",
+            "io.jsonwebtoken.jackson.io.JacksonSerializer",
+            "io.jsonwebtoken.jackson.io.JacksonDeserializer");
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        BindingReflectionHintsRegistrar bindings = new BindingReflectionHintsRegistrar();
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false);
+        scanner.addIncludeFilter((reader, factory) -> true);
+        for (String basePackage : JSON_PACKAGES) {
+            for (BeanDefinition candidate : scanner.findCandidateComponents(basePackage)) {
+                bindings.registerReflectionHints(hints.reflection(),
+                        ClassUtils.resolveClassName(candidate.getBeanClassName(), classLoader));
+            }
+        }
+        bindings.registerReflectionHints(hints.reflection(), ChangeEvent.class, LiveUpdate.class, BudgetAlert.class);
+        // Built by a JPQL constructor expression
+        bindings.registerReflectionHints(hints.reflection(), ReportLine.class);
+
+        for (String className : JJWT_CLASSES) {
+            hints.reflection().registerType(TypeReference.of(className),
+                    MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+        }
+        hints.resources().registerPattern("META-INF/services/io.jsonwebtoken.*");
+
+        hints.resources().registerPattern("exchange-rates.properties");
+    }
+}
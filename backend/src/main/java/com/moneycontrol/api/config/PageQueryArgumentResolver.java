@@ -0,0 +1,52 @@
+package com.moneycontrol.api.config;
+
+import com.moneycontrol.api.dto.PageQuery;
+import com.moneycontrol.api.service.PaginationPolicy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.MethodParameter;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+@Component
+@RequiredArgsConstructor
+public class PageQueryArgumentResolver implements HandlerMethodArgumentResolver {
+
+    private final PaginationPolicy paginationPolicy;
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return PageQuery.class.equals(parameter.getParameterType())
+                && parameter.hasParameterAnnotation(PageQueryDefaults.class);
+    }
+
+    @Override
+    public PageQuery resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                     NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+        PageQueryDefaults defaults = parameter.getParameterAnnotation(PageQueryDefaults.class);
+
+        int pageNo = intParameter(webRequest, "pageNo", 0);
+        int pageSize = intParameter(webRequest, "pageSize", defaults.pageSize());
+        String sortBy = stringParameter(webRequest, "sortBy", defaults.sortBy());
+        String sortDir = stringParameter(webRequest, "sortDir", defaults.sortDir());
+        PageQuery.Mode mode = PageQuery.Mode.valueOf(stringParameter(webRequest, "mode", "page").toUpperCase());
+
+        if (pageSize <= 0) {
+            return new PageQuery(null, mode);
+        }
+        return new PageQuery(paginationPolicy.pageable(defaults.resource(), pageNo, pageSize, sortBy, sortDir), mode);
+    }
+
+    private static int intParameter(NativeWebRequest webRequest, String name, int defaultValue) {
+        String value = webRequest.getParameter(name);
+        return StringUtils.hasText(value) ? Integer.parseInt(value) : defaultValue;
+    }
+
+    private static String stringParameter(NativeWebRequest webRequest, String name, String defaultValue) {
+        String value = webRequest.getParameter(name);
+        return StringUtils.hasText(value) ? value : defaultValue;
+    }
+}
@@ -0,0 +1,21 @@
+package com.moneycontrol.api.config;
+
+import com.moneycontrol.api.service.PaginationPolicy;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface PageQueryDefaults {
+
+    PaginationPolicy.Resource resource();
+
+    int pageSize() default 10;
+
+    String sortBy();
+
+    String sortDir() default "asc";
+}
@@ -0,0 +1,49 @@
+package com.moneycontrol.api.controller;
+
+import com.moneycontrol.api.dto.CashFlowForecast;
+import com.moneycontrol.api.dto.CategoryBreakdown;
+import com.moneycontrol.api.model.Transaction;
+import com.moneycontrol.api.service.AnalyticsService;
+import com.moneycontrol.api.service.ForecastService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.YearMonth;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/analytics")
+@RequiredArgsConstructor
+public class AnalyticsController {
+
+    private final AnalyticsService analyticsService;
+    private final ForecastService forecastService;
+
+    @GetMapping("/category-breakdown")
+    public ResponseEntity<CategoryBreakdown> getCategoryBreakdown(
+            @RequestParam(defaultValue = "EXPENSE") Transaction.TransactionType type,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth from,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth to,
+            @RequestParam(defaultValue = "5") int top,
+            @RequestParam(required = false) String currency,
+            Authentication authentication) {
+        YearMonth end = to != null ? to : YearMonth.now();
+        YearMonth start = from != null ? from : end;
+        return ResponseEntity.ok(analyticsService.getCategoryBreakdown(authentication.getName(), type, start, end, top, currency));
+    }
+
+    @PostMapping("/category-breakdown/rebuild")
+    public ResponseEntity<?> rebuildCategoryBreakdown(Authentication authentication) {
+        int buckets = analyticsService.rebuildCategoryRollups(authentication.getName());
+        return ResponseEntity.ok(Map.of("buckets", buckets));
+    }
+
+    @GetMapping("/forecast")
+    public ResponseEntity<CashFlowForecast> getForecast(@RequestParam(defaultValue = "false") boolean refresh,
+                                                        Authentication authentication) {
+        return ResponseEntity.ok(forecastService.getForecast(authentication.getName(), refresh));
+    }
+}
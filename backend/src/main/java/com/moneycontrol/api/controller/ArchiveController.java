@@ -0,0 +1,23 @@
+package com.moneycontrol.api.controller;
+
+import com.moneycontrol.api.archive.ArchiveService;
+import com.moneycontrol.api.model.ArchiveSegment;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/archive")
+@RequiredArgsConstructor
+public class ArchiveController {
+
+    private final ArchiveService archiveService;
+
+    @GetMapping
+    public ResponseEntity<List<ArchiveSegment>> getSegments(Authentication authentication) {
+        return ResponseEntity.ok(archiveService.getSegments(authentication.getName()));
+    }
+}
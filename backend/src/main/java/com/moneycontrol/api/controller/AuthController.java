@@ -1,8 +1,10 @@
 package com.moneycontrol.api.controller;
 
+import com.moneycontrol.api.audit.AuditTrail;
 import com.moneycontrol.api.dto.AuthRequest;
 import com.moneycontrol.api.dto.JwtResponse;
 import com.moneycontrol.api.dto.RegisterRequest;
+import com.moneycontrol.api.model.AuditLog;
 import com.moneycontrol.api.model.User;
 import com.moneycontrol.api.security.JwtTokenProvider;
 import com.moneycontrol.api.service.UserService;
@@ -12,6 +14,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -26,21 +29,29 @@ public class AuthController {
     private final AuthenticationManager authenticationManager;
     private final UserService userService;
     private final JwtTokenProvider tokenProvider;
+    private final AuditTrail auditTrail;
 
     @PostMapping("/login")
     public ResponseEntity<?> authenticateUser(@Valid @RequestBody AuthRequest loginRequest) {
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(
-                        loginRequest.getEmail(),
-                        loginRequest.getPassword()
-                )
-        );
+        Authentication authentication;
+        try {
+            authentication = authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(
+                            loginRequest.getEmail(),
+                            loginRequest.getPassword()
+                    )
+            );
+        } catch (AuthenticationException ex) {
+            auditTrail.recordAuth(AuditLog.Action.LOGIN_FAILED, null, loginRequest.getEmail(), ex.getClass().getSimpleName());
+            throw ex;
+        }
 
         SecurityContextHolder.getContext().setAuthentication(authentication);
         String jwt = tokenProvider.generateToken(authentication);
         
         User userDetails = (User) authentication.getPrincipal();
-        
+        auditTrail.recordAuth(AuditLog.Action.LOGIN, userDetails.getId(), userDetails.getEmail(), null);
+
         return ResponseEntity.ok(new JwtResponse(jwt,
                 userDetails.getId(),
                 userDetails.getName(),
@@ -50,7 +61,8 @@ public class AuthController {
     @PostMapping("/register")
     public ResponseEntity<?> registerUser(@Valid @RequestBody RegisterRequest registerRequest) {
         User user = userService.registerUser(registerRequest);
-        
+        auditTrail.recordAuth(AuditLog.Action.REGISTER, user.getId(), user.getEmail(), null);
+
         return ResponseEntity.ok("User registered successfully!");
     }
 }
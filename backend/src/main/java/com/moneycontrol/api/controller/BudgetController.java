@@ -0,0 +1,63 @@
+package com.moneycontrol.api.controller;
+
+import com.moneycontrol.api.config.PageQueryDefaults;
+import com.moneycontrol.api.dto.BudgetDto;
+import com.moneycontrol.api.dto.BudgetStatus;
+import com.moneycontrol.api.dto.PageQuery;
+import com.moneycontrol.api.dto.PageResult;
+import com.moneycontrol.api.model.Budget;
+import com.moneycontrol.api.service.BudgetService;
+import com.moneycontrol.api.service.PaginationPolicy;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.YearMonth;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/budgets")
+@RequiredArgsConstructor
+public class BudgetController {
+
+    private final BudgetService budgetService;
+
+    @GetMapping
+    public ResponseEntity<PageResult<Budget>> getAllBudgets(
+            Authentication authentication,
+            @PageQueryDefaults(resource = PaginationPolicy.Resource.BUDGETS, sortBy = "id", sortDir = "asc") PageQuery pageQuery) {
+        return ResponseEntity.ok(budgetService.getAllBudgetsByUser(authentication.getName(), pageQuery));
+    }
+
+    @GetMapping("/status")
+    public ResponseEntity<List<BudgetStatus>> getBudgetStatus(
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth month,
+            Authentication authentication) {
+        return ResponseEntity.ok(budgetService.getBudgetStatus(month != null ? month : YearMonth.now(), authentication.getName()));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<Budget> getBudgetById(@PathVariable Long id, Authentication authentication) {
+        return ResponseEntity.ok(budgetService.getBudgetById(id, authentication.getName()));
+    }
+
+    @PostMapping
+    public ResponseEntity<Budget> createBudget(@Valid @RequestBody BudgetDto budgetDto, Authentication authentication) {
+        return ResponseEntity.ok(budgetService.createBudget(budgetDto, authentication.getName()));
+    }
+
+    @PutMapping("/{id}")
+    public ResponseEntity<Budget> updateBudget(@PathVariable Long id, @Valid @RequestBody BudgetDto budgetDto,
+                                              Authentication authentication) {
+        return ResponseEntity.ok(budgetService.updateBudget(id, budgetDto, authentication.getName()));
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<?> deleteBudget(@PathVariable Long id, Authentication authentication) {
+        budgetService.deleteBudget(id, authentication.getName());
+        return ResponseEntity.ok("Budget deleted successfully");
+    }
+}
@@ -1,16 +1,18 @@
 package com.moneycontrol.api.controller;
 
+import com.moneycontrol.api.config.PageQueryDefaults;
 import com.moneycontrol.api.dto.CategoryDto;
-import com.moneycontrol.api.dto.PageResponse;
+import com.moneycontrol.api.dto.PageQuery;
+import com.moneycontrol.api.dto.PageResult;
 import com.moneycontrol.api.model.Category;
 import com.moneycontrol.api.service.CategoryService;
+import com.moneycontrol.api.service.PaginationPolicy;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-
 @RestController
 @RequestMapping("/api/categories")
 @RequiredArgsConstructor
@@ -19,22 +21,15 @@ public class CategoryController {
     private final CategoryService categoryService;
 
     @GetMapping
-    public ResponseEntity<?> getAllCategories(
-            @RequestParam(value = "pageNo", defaultValue = "0", required = false) int pageNo,
-            @RequestParam(value = "pageSize", defaultValue = "10", required = false) int pageSize,
-            @RequestParam(value = "sortBy", defaultValue = "name", required = false) String sortBy,
-            @RequestParam(value = "sortDir", defaultValue = "asc", required = false) String sortDir) {
-
-        if (pageSize > 0) {
-            return ResponseEntity.ok(categoryService.getAllCategories(pageNo, pageSize, sortBy, sortDir));
-        } else {
-            return ResponseEntity.ok(categoryService.getAllCategories());
-        }
+    public ResponseEntity<PageResult<Category>> getAllCategories(
+            @PageQueryDefaults(resource = PaginationPolicy.Resource.CATEGORIES, sortBy = "name", sortDir = "asc") PageQuery pageQuery) {
+        return ResponseEntity.ok(categoryService.getAllCategories(pageQuery));
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<Category> getCategoryById(@PathVariable Long id) {
-        return ResponseEntity.ok(categoryService.getCategoryById(id));
+        Category category = categoryService.getCategoryById(id);
+        return ResponseEntity.ok().eTag(ETags.of(category.getVersion())).body(category);
     }
 
     @PostMapping
@@ -43,8 +38,13 @@ public class CategoryController {
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<Category> updateCategory(@PathVariable Long id, @Valid @RequestBody CategoryDto categoryDto) {
-        return ResponseEntity.ok(categoryService.updateCategory(id, categoryDto));
+    public ResponseEntity<Category> updateCategory(@PathVariable Long id, @Valid @RequestBody CategoryDto categoryDto,
+                                                   @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long expectedVersion = ETags.parse(ifMatch);
+        Category category = ETags.update(expectedVersion,
+                () -> categoryService.updateCategory(id, categoryDto, expectedVersion),
+                () -> categoryService.getCategoryById(id), Category::getVersion);
+        return ResponseEntity.ok().eTag(ETags.of(category.getVersion())).body(category);
     }
 
     @DeleteMapping("/{id}")
@@ -0,0 +1,51 @@
+package com.moneycontrol.api.controller;
+
+import com.moneycontrol.api.exception.PreconditionFailedException;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// Entity versions travel as strong ETags, e.g. "3"
+final class ETags {
+
+    private ETags() {
+    }
+
+    static String of(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    // Null means the client didn't ask for a check (no header or "*"). If-Match compares strongly, so a weak
+    // validator can never match and is rejected instead of being treated as the version it wraps
+    static Long parse(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            throw new IllegalArgumentException("Weak ETags can't be used in If-Match, send the strong ETag like \"3\"");
+        }
+        tag = tag.replace("\"", "");
+        try {
+            return Long.parseLong(tag);
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Invalid If-Match header, expected a version like \"3\"");
+        }
+    }
+
+    // A write that passed the If-Match check and then lost the race to another commit still failed the client's
+    // precondition, so it gets the same 412 with the version that won. Without If-Match the conflict stays a 409
+    static <T> T update(Long expectedVersion, Supplier<T> update, Supplier<T> current, Function<T, Long> version) {
+        try {
+            return update.get();
+        } catch (OptimisticLockingFailureException ex) {
+            if (expectedVersion == null) {
+                throw ex;
+            }
+            T latest = current.get();
+            throw new PreconditionFailedException("Modified concurrently, current version is " + version.apply(latest),
+                    latest, version.apply(latest));
+        }
+    }
+}
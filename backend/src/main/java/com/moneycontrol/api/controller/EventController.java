@@ -0,0 +1,38 @@
+package com.moneycontrol.api.controller;
+
+import com.moneycontrol.api.dto.StreamTicketResponse;
+import com.moneycontrol.api.event.EventStreamService;
+import com.moneycontrol.api.security.StreamTicketService;
+import com.moneycontrol.api.service.UserService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/events")
+@RequiredArgsConstructor
+public class EventController {
+
+    private final EventStreamService eventStreamService;
+    private final UserService userService;
+    private final StreamTicketService streamTicketService;
+
+    @PostMapping("/ticket")
+    public ResponseEntity<StreamTicketResponse> issueTicket(Authentication authentication) {
+        return ResponseEntity.ok(streamTicketService.issue(userService.getCurrentUser(authentication.getName())));
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamEvents(Authentication authentication,
+                                   @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        Long userId = userService.getCurrentUser(authentication.getName()).getId();
+        return eventStreamService.subscribe(userId, lastEventId);
+    }
+}
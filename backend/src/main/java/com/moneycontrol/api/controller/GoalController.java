@@ -1,11 +1,15 @@
 package com.moneycontrol.api.controller;
 
+import com.moneycontrol.api.config.PageQueryDefaults;
 import com.moneycontrol.api.dto.GoalDto;
-import com.moneycontrol.api.dto.PageResponse;
+import com.moneycontrol.api.dto.PageQuery;
+import com.moneycontrol.api.dto.PageResult;
 import com.moneycontrol.api.model.Goal;
 import com.moneycontrol.api.service.GoalService;
+import com.moneycontrol.api.service.PaginationPolicy;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
@@ -20,24 +24,21 @@ public class GoalController {
     private final GoalService goalService;
 
     @GetMapping
-    public ResponseEntity<?> getAllGoals(
+    public ResponseEntity<PageResult<Goal>> getAllGoals(
             Authentication authentication,
-            @RequestParam(value = "pageNo", defaultValue = "0", required = false) int pageNo,
-            @RequestParam(value = "pageSize", defaultValue = "10", required = false) int pageSize,
-            @RequestParam(value = "sortBy", defaultValue = "targetDate", required = false) String sortBy,
-            @RequestParam(value = "sortDir", defaultValue = "asc", required = false) String sortDir) {
-
-        if (pageSize > 0) {
-            return ResponseEntity.ok(goalService.getAllGoalsByUser(
-                    authentication.getName(), pageNo, pageSize, sortBy, sortDir));
-        } else {
-            return ResponseEntity.ok(goalService.getAllGoalsByUser(authentication.getName()));
-        }
+            @PageQueryDefaults(resource = PaginationPolicy.Resource.GOALS, sortBy = "targetDate", sortDir = "asc") PageQuery pageQuery) {
+        return ResponseEntity.ok(goalService.getAllGoalsByUser(authentication.getName(), pageQuery));
+    }
+
+    @GetMapping("/trash")
+    public ResponseEntity<List<Goal>> getDeletedGoals(Authentication authentication) {
+        return ResponseEntity.ok(goalService.getDeletedGoals(authentication.getName()));
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<Goal> getGoalById(@PathVariable Long id, Authentication authentication) {
-        return ResponseEntity.ok(goalService.getGoalById(id, authentication.getName()));
+        Goal goal = goalService.getGoalById(id, authentication.getName());
+        return ResponseEntity.ok().eTag(ETags.of(goal.getVersion())).body(goal);
     }
 
     @PostMapping
@@ -47,8 +48,13 @@ public class GoalController {
 
     @PutMapping("/{id}")
     public ResponseEntity<Goal> updateGoal(@PathVariable Long id, @Valid @RequestBody GoalDto goalDto,
-                                          Authentication authentication) {
-        return ResponseEntity.ok(goalService.updateGoal(id, goalDto, authentication.getName()));
+                                          Authentication authentication,
+                                          @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long expectedVersion = ETags.parse(ifMatch);
+        Goal goal = ETags.update(expectedVersion,
+                () -> goalService.updateGoal(id, goalDto, authentication.getName(), expectedVersion),
+                () -> goalService.getGoalById(id, authentication.getName()), Goal::getVersion);
+        return ResponseEntity.ok().eTag(ETags.of(goal.getVersion())).body(goal);
     }
 
     @DeleteMapping("/{id}")
@@ -56,4 +62,9 @@ public class GoalController {
         goalService.deleteGoal(id, authentication.getName());
         return ResponseEntity.ok("Goal deleted successfully");
     }
+
+    @PostMapping("/{id}/restore")
+    public ResponseEntity<Goal> restoreGoal(@PathVariable Long id, Authentication authentication) {
+        return ResponseEntity.ok(goalService.restoreGoal(id, authentication.getName()));
+    }
 }
@@ -0,0 +1,66 @@
+package com.moneycontrol.api.controller;
+
+import com.moneycontrol.api.dto.CategoryRuleDto;
+import com.moneycontrol.api.importer.ImportService;
+import com.moneycontrol.api.importer.StatementFormat;
+import com.moneycontrol.api.model.CategoryRule;
+import com.moneycontrol.api.model.ImportJob;
+import com.moneycontrol.api.service.CategoryRuleService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/imports")
+@RequiredArgsConstructor
+public class ImportController {
+
+    private final ImportService importService;
+    private final CategoryRuleService categoryRuleService;
+
+    // The raw file is the request body; poll GET /api/imports/{id} for progress
+    @PostMapping
+    public ResponseEntity<ImportJob> importStatement(@RequestParam StatementFormat format,
+                                                     @RequestParam(required = false) String currency,
+                                                     @RequestParam(required = false) Long categoryId,
+                                                     HttpServletRequest request,
+                                                     Authentication authentication) throws IOException {
+        ImportJob job = importService.submit(request.getInputStream(), format, currency, categoryId,
+                authentication.getName());
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+    }
+
+    @GetMapping
+    public ResponseEntity<List<ImportJob>> getImports(Authentication authentication) {
+        return ResponseEntity.ok(importService.getJobs(authentication.getName()));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<ImportJob> getImport(@PathVariable Long id, Authentication authentication) {
+        return ResponseEntity.ok(importService.getJob(id, authentication.getName()));
+    }
+
+    @GetMapping("/rules")
+    public ResponseEntity<List<CategoryRule>> getRules(Authentication authentication) {
+        return ResponseEntity.ok(categoryRuleService.getRules(authentication.getName()));
+    }
+
+    @PostMapping("/rules")
+    public ResponseEntity<CategoryRule> createRule(@Valid @RequestBody CategoryRuleDto ruleDto,
+                                                   Authentication authentication) {
+        return ResponseEntity.ok(categoryRuleService.createRule(ruleDto, authentication.getName()));
+    }
+
+    @DeleteMapping("/rules/{id}")
+    public ResponseEntity<?> deleteRule(@PathVariable Long id, Authentication authentication) {
+        categoryRuleService.deleteRule(id, authentication.getName());
+        return ResponseEntity.ok("Category rule deleted successfully");
+    }
+}
@@ -0,0 +1,58 @@
+package com.moneycontrol.api.controller;
+
+import com.moneycontrol.api.dto.ReportRequest;
+import com.moneycontrol.api.model.ReportJob;
+import com.moneycontrol.api.report.ReportService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/reports")
+@RequiredArgsConstructor
+public class ReportController {
+
+    private final ReportService reportService;
+
+    // 202 while the report is generated, 200 when an identical report over unchanged data is ready
+    @PostMapping
+    public ResponseEntity<ReportJob> submitReport(@Valid @RequestBody ReportRequest request, Authentication authentication) {
+        ReportJob job = reportService.submit(request, authentication.getName());
+        HttpStatus status = job.getStatus() == ReportJob.Status.DONE ? HttpStatus.OK : HttpStatus.ACCEPTED;
+        return ResponseEntity.status(status).body(job);
+    }
+
+    @GetMapping
+    public ResponseEntity<List<ReportJob>> getReports(Authentication authentication) {
+        return ResponseEntity.ok(reportService.getJobs(authentication.getName()));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<ReportJob> getReport(@PathVariable Long id, Authentication authentication) {
+        return ResponseEntity.ok(reportService.getJob(id, authentication.getName()));
+    }
+
+    @GetMapping("/{id}/download")
+    public ResponseEntity<Resource> downloadReport(@PathVariable Long id, Authentication authentication) {
+        ReportJob job = reportService.getFinishedJob(id, authentication.getName());
+        String extension = job.getFormat().name().toLowerCase();
+        MediaType mediaType = job.getFormat() == ReportJob.Format.CSV
+                ? new MediaType("text", "csv") : MediaType.APPLICATION_PDF;
+        return ResponseEntity.ok()
+                .contentType(mediaType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("statement-" + job.getYear() + "-" + job.getCurrency() + "." + extension)
+                        .build().toString())
+                .body(new FileSystemResource(job.getFilePath()));
+    }
+}
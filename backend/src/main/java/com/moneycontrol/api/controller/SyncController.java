@@ -0,0 +1,23 @@
+package com.moneycontrol.api.controller;
+
+import com.moneycontrol.api.dto.SyncResponse;
+import com.moneycontrol.api.service.SyncService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/sync")
+@RequiredArgsConstructor
+public class SyncController {
+
+    private final SyncService syncService;
+
+    @GetMapping
+    public ResponseEntity<SyncResponse> sync(@RequestParam(required = false) String since,
+                                             @RequestParam(required = false) Integer limit,
+                                             Authentication authentication) {
+        return ResponseEntity.ok(syncService.sync(authentication.getName(), since, limit));
+    }
+}
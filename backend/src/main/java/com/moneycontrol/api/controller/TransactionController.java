@@ -1,16 +1,29 @@
 package com.moneycontrol.api.controller;
 
-import com.moneycontrol.api.dto.PageResponse;
+import com.moneycontrol.api.config.PageQueryDefaults;
+import com.moneycontrol.api.dto.BalanceAt;
+import com.moneycontrol.api.dto.BulkTransactionRequest;
+import com.moneycontrol.api.dto.DuplicateGroupDto;
+import com.moneycontrol.api.dto.PageQuery;
+import com.moneycontrol.api.dto.PageResult;
 import com.moneycontrol.api.dto.TransactionDto;
+import com.moneycontrol.api.dto.TransactionSummary;
 import com.moneycontrol.api.model.Transaction;
+import com.moneycontrol.api.service.BalanceCheckpointService;
+import com.moneycontrol.api.service.DuplicateDetectionService;
+import com.moneycontrol.api.service.IdempotencyService;
+import com.moneycontrol.api.service.PaginationPolicy;
+import com.moneycontrol.api.service.TransactionBulkService;
 import com.moneycontrol.api.service.TransactionService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -20,39 +33,69 @@ import java.util.List;
 public class TransactionController {
 
     private final TransactionService transactionService;
+    private final IdempotencyService idempotencyService;
+    private final TransactionBulkService transactionBulkService;
+    private final DuplicateDetectionService duplicateDetectionService;
+    private final BalanceCheckpointService balanceCheckpointService;
 
     @GetMapping
-    public ResponseEntity<?> getAllTransactions(
+    public ResponseEntity<PageResult<Transaction>> getAllTransactions(
             Authentication authentication,
-            @RequestParam(value = "pageNo", defaultValue = "0", required = false) int pageNo,
-            @RequestParam(value = "pageSize", defaultValue = "10", required = false) int pageSize,
-            @RequestParam(value = "sortBy", defaultValue = "date", required = false) String sortBy,
-            @RequestParam(value = "sortDir", defaultValue = "desc", required = false) String sortDir) {
-
-        if (pageSize > 0) {
-            return ResponseEntity.ok(transactionService.getAllTransactionsByUser(
-                    authentication.getName(), pageNo, pageSize, sortBy, sortDir));
-        } else {
-            return ResponseEntity.ok(transactionService.getAllTransactionsByUser(authentication.getName()));
-        }
+            @PageQueryDefaults(resource = PaginationPolicy.Resource.TRANSACTIONS, sortBy = "date", sortDir = "desc") PageQuery pageQuery) {
+        return ResponseEntity.ok(transactionService.getAllTransactionsByUser(authentication.getName(), pageQuery));
+    }
+
+    @GetMapping("/summary")
+    public ResponseEntity<TransactionSummary> getSummary(@RequestParam(required = false) String currency,
+                                                         Authentication authentication) {
+        return ResponseEntity.ok(transactionService.getSummary(authentication.getName(), currency));
+    }
+
+    @GetMapping("/balance")
+    public ResponseEntity<BalanceAt> getBalanceAt(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(required = false) String currency,
+            Authentication authentication) {
+        return ResponseEntity.ok(balanceCheckpointService.balanceAt(authentication.getName(), date, currency));
+    }
+
+    @GetMapping("/trash")
+    public ResponseEntity<List<Transaction>> getDeletedTransactions(Authentication authentication) {
+        return ResponseEntity.ok(transactionService.getDeletedTransactions(authentication.getName()));
+    }
+
+    @GetMapping("/duplicates")
+    public ResponseEntity<List<DuplicateGroupDto>> getDuplicates(Authentication authentication) {
+        return ResponseEntity.ok(duplicateDetectionService.getReport(authentication.getName()));
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<Transaction> getTransactionById(@PathVariable Long id, Authentication authentication) {
-        return ResponseEntity.ok(transactionService.getTransactionById(id, authentication.getName()));
+        Transaction transaction = transactionService.getTransactionById(id, authentication.getName());
+        return ResponseEntity.ok().eTag(ETags.of(transaction.getVersion())).body(transaction);
     }
 
     @PostMapping
-    public ResponseEntity<Transaction> createTransaction(@Valid @RequestBody TransactionDto transactionDto,
-                                                        Authentication authentication) {
-        return ResponseEntity.ok(transactionService.createTransaction(transactionDto, authentication.getName()));
+    public ResponseEntity<?> createTransaction(@Valid @RequestBody TransactionDto transactionDto,
+                                               Authentication authentication,
+                                               @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return ResponseEntity.ok(transactionService.createTransaction(transactionDto, authentication.getName()));
+        }
+        return idempotencyService.execute(authentication.getName(), idempotencyKey, transactionDto,
+                () -> transactionService.createTransaction(transactionDto, authentication.getName()));
     }
 
     @PutMapping("/{id}")
     public ResponseEntity<Transaction> updateTransaction(@PathVariable Long id,
                                                         @Valid @RequestBody TransactionDto transactionDto,
-                                                        Authentication authentication) {
-        return ResponseEntity.ok(transactionService.updateTransaction(id, transactionDto, authentication.getName()));
+                                                        Authentication authentication,
+                                                        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long expectedVersion = ETags.parse(ifMatch);
+        Transaction transaction = ETags.update(expectedVersion,
+                () -> transactionService.updateTransaction(id, transactionDto, authentication.getName(), expectedVersion),
+                () -> transactionService.getTransactionById(id, authentication.getName()), Transaction::getVersion);
+        return ResponseEntity.ok().eTag(ETags.of(transaction.getVersion())).body(transaction);
     }
 
     @DeleteMapping("/{id}")
@@ -61,55 +104,55 @@ public class TransactionController {
         return ResponseEntity.ok("Transaction deleted successfully");
     }
 
+    @PostMapping("/{id}/restore")
+    public ResponseEntity<Transaction> restoreTransaction(@PathVariable Long id, Authentication authentication) {
+        return ResponseEntity.ok(transactionService.restoreTransaction(id, authentication.getName()));
+    }
+
+    @PostMapping("/bulk/recategorize")
+    public ResponseEntity<?> bulkRecategorize(@Valid @RequestBody BulkTransactionRequest request,
+                                              Authentication authentication,
+                                              @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return ResponseEntity.ok(transactionBulkService.recategorize(request, authentication.getName()));
+        }
+        return idempotencyService.execute(authentication.getName(), idempotencyKey, request,
+                () -> transactionBulkService.recategorize(request, authentication.getName()));
+    }
+
+    @PostMapping("/bulk/delete")
+    public ResponseEntity<?> bulkDelete(@Valid @RequestBody BulkTransactionRequest request,
+                                        Authentication authentication,
+                                        @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return ResponseEntity.ok(transactionBulkService.delete(request, authentication.getName()));
+        }
+        return idempotencyService.execute(authentication.getName(), idempotencyKey, request,
+                () -> transactionBulkService.delete(request, authentication.getName()));
+    }
+
     @GetMapping("/date-range")
-    public ResponseEntity<?> getTransactionsByDateRange(
+    public ResponseEntity<PageResult<Transaction>> getTransactionsByDateRange(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
             Authentication authentication,
-            @RequestParam(value = "pageNo", defaultValue = "0", required = false) int pageNo,
-            @RequestParam(value = "pageSize", defaultValue = "10", required = false) int pageSize,
-            @RequestParam(value = "sortBy", defaultValue = "date", required = false) String sortBy,
-            @RequestParam(value = "sortDir", defaultValue = "desc", required = false) String sortDir) {
-
-        if (pageSize > 0) {
-            return ResponseEntity.ok(transactionService.getTransactionsByDateRange(
-                    start, end, authentication.getName(), pageNo, pageSize, sortBy, sortDir));
-        } else {
-            return ResponseEntity.ok(transactionService.getTransactionsByDateRange(start, end, authentication.getName()));
-        }
+            @PageQueryDefaults(resource = PaginationPolicy.Resource.TRANSACTIONS, sortBy = "date", sortDir = "desc") PageQuery pageQuery) {
+        return ResponseEntity.ok(transactionService.getTransactionsByDateRange(start, end, authentication.getName(), pageQuery));
     }
 
     @GetMapping("/type/{type}")
-    public ResponseEntity<?> getTransactionsByType(
+    public ResponseEntity<PageResult<Transaction>> getTransactionsByType(
             @PathVariable Transaction.TransactionType type,
             Authentication authentication,
-            @RequestParam(value = "pageNo", defaultValue = "0", required = false) int pageNo,
-            @RequestParam(value = "pageSize", defaultValue = "10", required = false) int pageSize,
-            @RequestParam(value = "sortBy", defaultValue = "date", required = false) String sortBy,
-            @RequestParam(value = "sortDir", defaultValue = "desc", required = false) String sortDir) {
-
-        if (pageSize > 0) {
-            return ResponseEntity.ok(transactionService.getTransactionsByType(
-                    type, authentication.getName(), pageNo, pageSize, sortBy, sortDir));
-        } else {
-            return ResponseEntity.ok(transactionService.getTransactionsByType(type, authentication.getName()));
-        }
+            @PageQueryDefaults(resource = PaginationPolicy.Resource.TRANSACTIONS, sortBy = "date", sortDir = "desc") PageQuery pageQuery) {
+        return ResponseEntity.ok(transactionService.getTransactionsByType(type, authentication.getName(), pageQuery));
     }
 
     @GetMapping("/category/{categoryId}")
-    public ResponseEntity<?> getTransactionsByCategory(
+    public ResponseEntity<PageResult<Transaction>> getTransactionsByCategory(
             @PathVariable Long categoryId,
             Authentication authentication,
-            @RequestParam(value = "pageNo", defaultValue = "0", required = false) int pageNo,
-            @RequestParam(value = "pageSize", defaultValue = "10", required = false) int pageSize,
-            @RequestParam(value = "sortBy", defaultValue = "date", required = false) String sortBy,
-            @RequestParam(value = "sortDir", defaultValue = "desc", required = false) String sortDir) {
-
-        if (pageSize > 0) {
-            return ResponseEntity.ok(transactionService.getTransactionsByCategory(
-                    categoryId, authentication.getName(), pageNo, pageSize, sortBy, sortDir));
-        } else {
-            return ResponseEntity.ok(transactionService.getTransactionsByCategory(categoryId, authentication.getName()));
-        }
+            @PageQueryDefaults(resource = PaginationPolicy.Resource.TRANSACTIONS, sortBy = "date", sortDir = "desc") PageQuery pageQuery) {
+        return ResponseEntity.ok(transactionService.getTransactionsByCategory(categoryId, authentication.getName(), pageQuery));
     }
 }
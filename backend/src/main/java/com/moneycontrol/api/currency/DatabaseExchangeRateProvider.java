@@ -0,0 +1,25 @@
+package com.moneycontrol.api.currency;
+
+import com.moneycontrol.api.model.ExchangeRate;
+import com.moneycontrol.api.repository.ExchangeRateRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.currency.provider", havingValue = "db", matchIfMissing = true)
+public class DatabaseExchangeRateProvider implements ExchangeRateProvider {
+
+    private final ExchangeRateRepository exchangeRateRepository;
+
+    @Override
+    public Map<String, BigDecimal> loadRates() {
+        return exchangeRateRepository.findAll().stream()
+                .collect(Collectors.toMap(ExchangeRate::getCurrency, ExchangeRate::getRate));
+    }
+}
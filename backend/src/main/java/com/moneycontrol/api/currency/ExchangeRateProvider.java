@@ -0,0 +1,10 @@
+package com.moneycontrol.api.currency;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+public interface ExchangeRateProvider {
+
+    // Rates keyed by ISO currency code, as units of the base currency for one unit of the currency
+    Map<String, BigDecimal> loadRates() throws Exception;
+}
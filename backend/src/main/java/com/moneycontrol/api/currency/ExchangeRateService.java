@@ -0,0 +1,121 @@
+package com.moneycontrol.api.currency;
+
+import com.moneycontrol.api.exception.ExchangeRateUnavailableException;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.Currency;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ExchangeRateService {
+
+    private final ExchangeRateProvider exchangeRateProvider;
+
+    @Value("${app.currency.base:BRL}")
+    private String baseCurrency;
+
+    // Swapped as a whole on refresh so readers never see a half-loaded table
+    private volatile RateTable rateTable = new RateTable(Map.of());
+
+    @PostConstruct
+    void init() {
+        baseCurrency = normalize(baseCurrency);
+        refresh();
+    }
+
+    @Scheduled(fixedDelayString = "${app.currency.refresh-ms:3600000}", initialDelayString = "${app.currency.refresh-ms:3600000}")
+    public void refresh() {
+        try {
+            Map<String, BigDecimal> rates = new HashMap<>();
+            exchangeRateProvider.loadRates().forEach((currency, rate) -> {
+                try {
+                    rates.put(normalize(currency), rate);
+                } catch (IllegalArgumentException ex) {
+                    log.warn("Ignoring exchange rate: {}", ex.getMessage());
+                }
+            });
+            rates.put(baseCurrency, BigDecimal.ONE);
+            rateTable = new RateTable(rates);
+            log.info("Loaded {} exchange rates against {}", rates.size(), baseCurrency);
+        } catch (Exception ex) {
+            // Keep serving the previous rates
+            log.error("Could not load exchange rates", ex);
+        }
+    }
+
+    public String getBaseCurrency() {
+        return baseCurrency;
+    }
+
+    public String normalize(String currency) {
+        if (currency == null || currency.isBlank()) {
+            return baseCurrency;
+        }
+        String code = currency.trim().toUpperCase(Locale.ROOT);
+        Currency instance;
+        try {
+            instance = Currency.getInstance(code);
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Unknown currency: " + currency);
+        }
+        if (!Money.supports(instance)) {
+            throw new IllegalArgumentException("Unsupported currency " + code + ": only currencies with "
+                    + Money.SCALE + " decimals are accepted");
+        }
+        return instance.getCurrencyCode();
+    }
+
+    // For values being stored: a currency without a rate would make every aggregate of the user fail
+    public String normalizeConvertible(String currency) {
+        String code = normalize(currency);
+        if (!rateTable.rates.containsKey(code)) {
+            throw new IllegalArgumentException("No exchange rate available for " + code);
+        }
+        return code;
+    }
+
+    // Factor converting an amount in "from" into "to"; cross rates are computed once per rate table
+    public BigDecimal rate(String from, String to) {
+        if (from.equals(to)) {
+            return BigDecimal.ONE;
+        }
+        RateTable table = rateTable;
+        return table.crossRates.computeIfAbsent(from + to,
+                key -> table.toBase(from).divide(table.toBase(to), MathContext.DECIMAL64));
+    }
+
+    // Converts a per-currency total, rounding once to whole minor units
+    public Money convert(Money amount, String from, String to) {
+        return from.equals(to) ? amount : amount.times(rate(from, to));
+    }
+
+    private static final class RateTable {
+
+        private final Map<String, BigDecimal> rates;
+        private final Map<String, BigDecimal> crossRates = new ConcurrentHashMap<>();
+
+        private RateTable(Map<String, BigDecimal> rates) {
+            this.rates = Map.copyOf(rates);
+        }
+
+        private BigDecimal toBase(String currency) {
+            BigDecimal rate = rates.get(currency);
+            if (rate == null) {
+                throw new ExchangeRateUnavailableException("No exchange rate available for " + currency);
+            }
+            return rate;
+        }
+    }
+}
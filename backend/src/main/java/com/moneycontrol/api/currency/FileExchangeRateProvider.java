@@ -0,0 +1,36 @@
+package com.moneycontrol.api.currency;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+// Reads "USD=5.0123" lines, handy for offline development
+@Component
+@ConditionalOnProperty(name = "app.currency.provider", havingValue = "file")
+public class FileExchangeRateProvider implements ExchangeRateProvider {
+
+    @Value("${app.currency.rates-file:classpath:exchange-rates.properties}")
+    private Resource ratesFile;
+
+    @Override
+    public Map<String, BigDecimal> loadRates() throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = new InputStreamReader(ratesFile.getInputStream(), StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+
+        Map<String, BigDecimal> rates = new HashMap<>();
+        properties.forEach((currency, rate) -> rates.put(currency.toString().trim(), new BigDecimal(rate.toString().trim())));
+        return rates;
+    }
+}
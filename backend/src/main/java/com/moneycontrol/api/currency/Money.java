@@ -0,0 +1,80 @@
+package com.moneycontrol.api.currency;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Currency;
+
+// Amount in minor units (cents) of a two-decimal currency, for summing many values without
+// allocating a BigDecimal per row. Amounts are persisted with two decimals, so every stored value
+// converts exactly; anything finer or out of range is rejected instead of silently rounded.
+public record Money(long minorUnits) implements Comparable<Money> {
+
+    public static final int SCALE = 2;
+    public static final Money ZERO = new Money(0);
+
+    // Only currencies whose minor unit is a cent: the others (JPY, KWD, ...) could be neither stored
+    // in the numeric(_, 2) columns nor totalled here without rounding
+    public static boolean supports(Currency currency) {
+        return currency.getDefaultFractionDigits() == SCALE;
+    }
+
+    public static Money of(BigDecimal amount) {
+        return new Money(toMinorUnits(amount));
+    }
+
+    public static long toMinorUnits(BigDecimal amount) {
+        // Values read from the numeric(_, 2) columns already have the right scale
+        if (amount.scale() == SCALE && amount.precision() < 19) {
+            return amount.unscaledValue().longValue();
+        }
+        try {
+            return amount.setScale(SCALE, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+        } catch (ArithmeticException ex) {
+            throw new ArithmeticException("Amount " + amount.toPlainString() + " does not fit in " + SCALE + " decimals");
+        }
+    }
+
+    public static BigDecimal toBigDecimal(long minorUnits) {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    // Hot-path helper for accumulating into a primitive long
+    public static long add(long total, long minorUnits) {
+        return Math.addExact(total, minorUnits);
+    }
+
+    public Money plus(Money other) {
+        return new Money(Math.addExact(minorUnits, other.minorUnits));
+    }
+
+    public Money minus(Money other) {
+        return new Money(Math.subtractExact(minorUnits, other.minorUnits));
+    }
+
+    public Money negate() {
+        return new Money(Math.negateExact(minorUnits));
+    }
+
+    // Rounds half-even to a whole minor unit, once per converted total
+    public Money times(BigDecimal factor) {
+        BigDecimal result = BigDecimal.valueOf(minorUnits).multiply(factor).setScale(0, RoundingMode.HALF_EVEN);
+        try {
+            return new Money(result.longValueExact());
+        } catch (ArithmeticException ex) {
+            throw new ArithmeticException("Money overflow multiplying " + toBigDecimal().toPlainString() + " by " + factor);
+        }
+    }
+
+    public int signum() {
+        return Long.signum(minorUnits);
+    }
+
+    public BigDecimal toBigDecimal() {
+        return toBigDecimal(minorUnits);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+}
@@ -0,0 +1,17 @@
+package com.moneycontrol.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+public class BalanceAt {
+    private LocalDate date;
+    private String currency;
+    private BigDecimal balance;
+    private Map<String, BigDecimal> balancesByCurrency;
+}
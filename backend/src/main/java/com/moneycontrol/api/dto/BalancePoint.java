@@ -0,0 +1,16 @@
+package com.moneycontrol.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BalancePoint {
+    private YearMonth month;
+    private BigDecimal balance;
+}
@@ -0,0 +1,22 @@
+package com.moneycontrol.api.dto;
+
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+public class BudgetDto {
+
+    private Long id;
+
+    @NotNull
+    @Positive(message = "Amount must be greater than zero")
+    @Digits(integer = 16, fraction = 2, message = "Amount must have at most 16 integer digits and 2 decimal places")
+    private BigDecimal amount;
+
+    @NotNull
+    private Long categoryId;
+}
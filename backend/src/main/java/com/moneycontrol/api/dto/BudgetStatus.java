@@ -0,0 +1,19 @@
+package com.moneycontrol.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+
+@Data
+@AllArgsConstructor
+public class BudgetStatus {
+    private Long budgetId;
+    private Long categoryId;
+    private String categoryName;
+    private YearMonth month;
+    private BigDecimal amount;
+    private BigDecimal spent;
+    private BigDecimal percentage;
+}
@@ -0,0 +1,14 @@
+package com.moneycontrol.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class BulkResult {
+    private int affected;
+    // Requested ids that don't exist or belong to someone else
+    private List<Long> notFound;
+}
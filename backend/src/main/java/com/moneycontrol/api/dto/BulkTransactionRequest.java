@@ -0,0 +1,27 @@
+package com.moneycontrol.api.dto;
+
+import com.moneycontrol.api.model.Transaction;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Selects the current user's transactions by id, by filter, or both (combined with AND)
+@Data
+public class BulkTransactionRequest {
+
+    @Size(max = 5000)
+    private List<Long> ids;
+
+    private LocalDateTime start;
+
+    private LocalDateTime end;
+
+    private Long categoryId;
+
+    private Transaction.TransactionType type;
+
+    // Only for recategorize
+    private Long targetCategoryId;
+}
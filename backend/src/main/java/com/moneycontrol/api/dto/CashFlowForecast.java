@@ -0,0 +1,25 @@
+package com.moneycontrol.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CashFlowForecast {
+    private String currency;
+    private LocalDateTime computedAt;
+    // Complete months the rates were averaged over
+    private int historyMonths;
+    private BigDecimal monthlyIncome;
+    private BigDecimal monthlyExpense;
+    private BigDecimal monthlyNet;
+    private BigDecimal balance;
+    private List<BalancePoint> projection;
+    private List<GoalForecast> goals;
+}
@@ -0,0 +1,20 @@
+package com.moneycontrol.api.dto;
+
+import com.moneycontrol.api.model.Transaction;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class CategoryBreakdown {
+    private Transaction.TransactionType type;
+    private YearMonth from;
+    private YearMonth to;
+    private String currency;
+    private BigDecimal total;
+    private List<CategorySpend> categories;
+}
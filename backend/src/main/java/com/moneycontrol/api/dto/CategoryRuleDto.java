@@ -0,0 +1,21 @@
+package com.moneycontrol.api.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryRuleDto {
+
+    @NotBlank
+    @Size(max = 100)
+    private String pattern;
+
+    @NotNull
+    private Long categoryId;
+}
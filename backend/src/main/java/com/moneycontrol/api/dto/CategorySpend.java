@@ -0,0 +1,17 @@
+package com.moneycontrol.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+@AllArgsConstructor
+public class CategorySpend {
+    // null for the "Other" bucket
+    private Long categoryId;
+    private String categoryName;
+    private BigDecimal total;
+    private long count;
+    private BigDecimal percentage;
+}
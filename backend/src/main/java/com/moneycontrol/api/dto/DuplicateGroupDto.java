@@ -0,0 +1,15 @@
+package com.moneycontrol.api.dto;
+
+import com.moneycontrol.api.model.Transaction;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class DuplicateGroupDto {
+    private LocalDateTime detectedAt;
+    private List<Transaction> transactions;
+}
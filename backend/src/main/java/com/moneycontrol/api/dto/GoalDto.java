@@ -1,5 +1,6 @@
 package com.moneycontrol.api.dto;
 
+import jakarta.validation.constraints.Digits;
 import jakarta.validation.constraints.Future;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -21,10 +22,12 @@ public class GoalDto {
     
     @NotNull
     @Positive(message = "Target amount must be greater than zero")
+    @Digits(integer = 16, fraction = 2, message = "Target amount must have at most 16 integer digits and 2 decimal places")
     private BigDecimal targetAmount;
     
     @NotNull
     @Positive(message = "Current amount must be greater than zero")
+    @Digits(integer = 16, fraction = 2, message = "Current amount must have at most 16 integer digits and 2 decimal places")
     private BigDecimal currentAmount;
     
     @NotNull
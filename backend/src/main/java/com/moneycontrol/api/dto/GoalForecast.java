@@ -0,0 +1,25 @@
+package com.moneycontrol.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GoalForecast {
+    private Long goalId;
+    private String name;
+    private BigDecimal targetAmount;
+    private BigDecimal currentAmount;
+    private LocalDate targetDate;
+    // Monthly saving needed to reach the target on time
+    private BigDecimal requiredMonthly;
+    // Null when the current net rate never gets there
+    private YearMonth projectedCompletion;
+    private boolean onTrack;
+}
@@ -0,0 +1,17 @@
+package com.moneycontrol.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Unpaged answer, serialized as the plain array the endpoints returned before paging existed
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ListResponse<T> implements PageResult<T> {
+    @JsonValue
+    private List<T> content;
+}
@@ -0,0 +1,22 @@
+package com.moneycontrol.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.data.domain.Pageable;
+
+@Getter
+@AllArgsConstructor
+public class PageQuery {
+
+    public enum Mode {
+        PAGE, SLICE
+    }
+
+    // Null when the client asked for the whole list (pageSize <= 0)
+    private final Pageable pageable;
+    private final Mode mode;
+
+    public boolean isUnpaged() {
+        return pageable == null;
+    }
+}
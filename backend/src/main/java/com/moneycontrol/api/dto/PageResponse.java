@@ -1,29 +1,34 @@
 package com.moneycontrol.api.dto;
 
-import lombok.AllArgsConstructor;
 import lombok.Data;
-import org.springframework.data.domain.Page;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Slice;
 
 import java.util.List;
 
 @Data
-@AllArgsConstructor
-public class PageResponse<T> {
-    private List<T> content;
-    private int pageNo;
-    private int pageSize;
+@NoArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+public class PageResponse<T> extends SliceResponse<T> {
     private long totalElements;
     private int totalPages;
-    private boolean last;
-    
-    public static <T> PageResponse<T> of(Page<T> page) {
+
+    public PageResponse(List<T> content, int pageNo, int pageSize, long totalElements, int totalPages, boolean last) {
+        super(content, pageNo, pageSize, last);
+        this.totalElements = totalElements;
+        this.totalPages = totalPages;
+    }
+
+    public static <T> PageResponse<T> of(Slice<T> slice, long totalElements) {
+        int totalPages = (int) ((totalElements + slice.getSize() - 1) / slice.getSize());
         return new PageResponse<>(
-            page.getContent(),
-            page.getNumber(),
-            page.getSize(),
-            page.getTotalElements(),
-            page.getTotalPages(),
-            page.isLast()
+            slice.getContent(),
+            slice.getNumber(),
+            slice.getSize(),
+            totalElements,
+            totalPages,
+            slice.isLast()
         );
     }
 }
@@ -0,0 +1,8 @@
+package com.moneycontrol.api.dto;
+
+import java.util.List;
+
+// Answer of a list endpoint: every row (ListResponse), a slice or a page, see PaginationPolicy
+public interface PageResult<T> {
+    List<T> getContent();
+}
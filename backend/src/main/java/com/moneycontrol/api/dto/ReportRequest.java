@@ -0,0 +1,24 @@
+package com.moneycontrol.api.dto;
+
+import com.moneycontrol.api.model.ReportJob;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import lombok.Data;
+
+@Data
+public class ReportRequest {
+
+    @NotNull
+    @Min(1900)
+    @Max(2100)
+    private Integer year;
+
+    @NotNull
+    private ReportJob.Format format;
+
+    // Amounts are converted into it, defaults to app.currency.base
+    @Pattern(regexp = "[A-Za-z]{3}", message = "Currency must be an ISO 4217 code")
+    private String currency;
+}
@@ -0,0 +1,27 @@
+package com.moneycontrol.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SliceResponse<T> implements PageResult<T> {
+    private List<T> content;
+    private int pageNo;
+    private int pageSize;
+    private boolean last;
+
+    public static <T> SliceResponse<T> of(Slice<T> slice) {
+        return new SliceResponse<>(
+            slice.getContent(),
+            slice.getNumber(),
+            slice.getSize(),
+            slice.isLast()
+        );
+    }
+}
@@ -0,0 +1,23 @@
+package com.moneycontrol.api.dto;
+
+import com.moneycontrol.api.model.Goal;
+import com.moneycontrol.api.model.Transaction;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class SyncResponse {
+    // Pass as since on the next call
+    private String nextToken;
+    // More changes are waiting, call again right away with nextToken
+    private boolean hasMore;
+    // The token was too old, drop the local copy and treat this as a fresh download
+    private boolean reset;
+    private List<Transaction> transactions;
+    private List<Goal> goals;
+    private List<Long> deletedTransactionIds;
+    private List<Long> deletedGoalIds;
+}
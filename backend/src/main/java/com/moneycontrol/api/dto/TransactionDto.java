@@ -1,8 +1,10 @@
 package com.moneycontrol.api.dto;
 
 import com.moneycontrol.api.model.Transaction;
+import jakarta.validation.constraints.Digits;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Positive;
 import lombok.Data;
 
@@ -19,8 +21,13 @@ public class TransactionDto {
     
     @NotNull
     @Positive(message = "Amount must be greater than zero")
+    @Digits(integer = 16, fraction = 2, message = "Amount must have at most 16 integer digits and 2 decimal places")
     private BigDecimal amount;
     
+    // Defaults to the base currency
+    @Pattern(regexp = "[A-Za-z]{3}", message = "Currency must be an ISO 4217 code")
+    private String currency;
+    
     @NotNull
     private LocalDateTime date;
     
@@ -0,0 +1,15 @@
+package com.moneycontrol.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+@AllArgsConstructor
+public class TransactionSummary {
+    private String currency;
+    private BigDecimal income;
+    private BigDecimal expense;
+    private BigDecimal balance;
+}
@@ -0,0 +1,14 @@
+package com.moneycontrol.api.event;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+
+public record BudgetAlert(
+        Long budgetId,
+        Long userId,
+        Long categoryId,
+        YearMonth month,
+        int threshold,
+        BigDecimal amount,
+        BigDecimal spent) {
+}
@@ -0,0 +1,8 @@
+package com.moneycontrol.api.event;
+
+public interface BudgetAlertNotifier {
+
+    // Called inside the transaction that crossed the threshold, so anything written to the
+    // database commits or rolls back with the change; external side effects should wait for the commit
+    void notify(BudgetAlert alert);
+}
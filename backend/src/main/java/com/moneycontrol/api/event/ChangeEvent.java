@@ -0,0 +1,33 @@
+package com.moneycontrol.api.event;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import com.moneycontrol.api.model.OutboxEvent;
+
+import java.time.LocalDateTime;
+
+public record ChangeEvent(
+        Long id,
+        Long streamSeq,
+        OutboxEvent.AggregateType aggregateType,
+        Long aggregateId,
+        OutboxEvent.EventType eventType,
+        Long userId,
+        @JsonRawValue String payload,
+        LocalDateTime createdAt) {
+
+    public static ChangeEvent of(OutboxEvent event) {
+        return new ChangeEvent(
+                event.getId(),
+                event.getStreamSeq(),
+                event.getAggregateType(),
+                event.getAggregateId(),
+                event.getEventType(),
+                event.getUserId(),
+                event.getPayload(),
+                event.getCreatedAt());
+    }
+
+    public boolean isVisibleTo(Long userId) {
+        return this.userId == null || this.userId.equals(userId);
+    }
+}
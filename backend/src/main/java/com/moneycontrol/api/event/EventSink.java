@@ -0,0 +1,8 @@
+package com.moneycontrol.api.event;
+
+import java.util.List;
+
+public interface EventSink {
+
+    void publish(List<ChangeEvent> events) throws Exception;
+}
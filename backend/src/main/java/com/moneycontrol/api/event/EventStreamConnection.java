@@ -0,0 +1,115 @@
+package com.moneycontrol.api.event;
+
+import com.moneycontrol.api.dto.TransactionSummary;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Writes are queued and drained by one dispatcher task at a time, so a slow client
+// never blocks the relay and events keep their order
+@Slf4j
+class EventStreamConnection {
+
+    private final SseEmitter emitter;
+    private final Executor dispatcher;
+    private final Queue<SseEmitter.SseEventBuilder> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private volatile boolean closed;
+
+    // Live events received while the missed ones are still being replayed
+    private final List<Runnable> pending = new ArrayList<>();
+    private boolean replaying = true;
+    // Stream positions are given in commit order, so anything at or below the last one sent was sent already
+    private long lastQueuedSeq;
+
+    EventStreamConnection(SseEmitter emitter, Executor dispatcher) {
+        this.emitter = emitter;
+        this.dispatcher = dispatcher;
+    }
+
+    SseEmitter getEmitter() {
+        return emitter;
+    }
+
+    synchronized void push(List<ChangeEvent> events, TransactionSummary summary) {
+        if (replaying) {
+            pending.add(() -> enqueue(events, summary));
+        } else {
+            enqueue(events, summary);
+        }
+    }
+
+    synchronized void finishReplay(List<ChangeEvent> missed, TransactionSummary summary) {
+        enqueue(missed, summary);
+        pending.forEach(Runnable::run);
+        pending.clear();
+        replaying = false;
+    }
+
+    synchronized void reset(long latestStreamSeq, TransactionSummary summary) {
+        lastQueuedSeq = latestStreamSeq;
+        send(SseEmitter.event().id(String.valueOf(latestStreamSeq)).name("reset").data("resync"));
+        finishReplay(List.of(), summary);
+    }
+
+    void heartbeat() {
+        send(SseEmitter.event().comment("heartbeat"));
+    }
+
+    void close() {
+        closed = true;
+        queue.clear();
+    }
+
+    private void enqueue(List<ChangeEvent> events, TransactionSummary summary) {
+        for (ChangeEvent event : events) {
+            if (event.streamSeq() <= lastQueuedSeq) {
+                continue;
+            }
+            lastQueuedSeq = event.streamSeq();
+            send(SseEmitter.event()
+                    .id(String.valueOf(event.streamSeq()))
+                    .name("change")
+                    .data(LiveUpdate.of(event), MediaType.APPLICATION_JSON));
+        }
+        if (summary != null) {
+            send(SseEmitter.event().name("summary").data(summary, MediaType.APPLICATION_JSON));
+        }
+    }
+
+    private void send(SseEmitter.SseEventBuilder event) {
+        if (closed) {
+            return;
+        }
+        queue.add(event);
+        if (draining.compareAndSet(false, true)) {
+            dispatcher.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        try {
+            SseEmitter.SseEventBuilder event;
+            while (!closed && (event = queue.poll()) != null) {
+                emitter.send(event);
+            }
+        } catch (IOException | IllegalStateException ex) {
+            log.debug("Dropping closed event stream", ex);
+            close();
+            emitter.completeWithError(ex);
+        } finally {
+            draining.set(false);
+            if (!closed && !queue.isEmpty() && draining.compareAndSet(false, true)) {
+                dispatcher.execute(this::drain);
+            }
+        }
+    }
+}
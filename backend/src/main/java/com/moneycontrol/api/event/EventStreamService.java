@@ -0,0 +1,145 @@
+package com.moneycontrol.api.event;
+
+import com.moneycontrol.api.dto.TransactionSummary;
+import com.moneycontrol.api.model.OutboxEvent;
+import com.moneycontrol.api.repository.OutboxEventRepository;
+import com.moneycontrol.api.service.TransactionService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Component
+@RequiredArgsConstructor
+public class EventStreamService {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final TransactionService transactionService;
+
+    private final Map<Long, Set<EventStreamConnection>> connectionsByUser = new ConcurrentHashMap<>();
+    private ExecutorService dispatcher;
+    private long lastStreamSeq;
+
+    @Value("${app.events.stream-timeout-ms:1800000}")
+    private long streamTimeout;
+
+    @Value("${app.events.dispatch-threads:4}")
+    private int dispatchThreads;
+
+    @Value("${app.events.replay-limit:500}")
+    private int replayLimit;
+
+    @Value("${app.events.poll-batch-size:200}")
+    private int pollBatchSize;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        dispatcher = Executors.newFixedThreadPool(dispatchThreads, runnable -> {
+            Thread thread = new Thread(runnable, "event-stream-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        lastStreamSeq = outboxEventRepository.findLastStreamSeq().orElse(0L);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        connectionsByUser.values().forEach(connections -> connections.forEach(connection -> {
+            connection.close();
+            connection.getEmitter().complete();
+        }));
+        dispatcher.shutdownNow();
+    }
+
+    // lastEventId is the stream position of the last event the client got, see OutboxEvent.streamSeq
+    public SseEmitter subscribe(Long userId, Long lastEventId) {
+        EventStreamConnection connection = new EventStreamConnection(new SseEmitter(streamTimeout), dispatcher);
+        Set<EventStreamConnection> connections = connectionsByUser.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet());
+        connections.add(connection);
+
+        Runnable remove = () -> {
+            connection.close();
+            connections.remove(connection);
+            connectionsByUser.computeIfPresent(userId, (id, set) -> set.isEmpty() ? null : set);
+        };
+        connection.getEmitter().onCompletion(remove);
+        connection.getEmitter().onTimeout(remove);
+        connection.getEmitter().onError(ex -> remove.run());
+
+        // Registered first, so nothing published while replaying is lost
+        replay(userId, lastEventId, connection);
+        return connection.getEmitter();
+    }
+
+    // Each node reads the events the relay positioned, on whichever node it ran, so clients get them
+    // whatever replica they are connected to. Positions become visible in order, none is skipped
+    @Scheduled(fixedDelayString = "${app.events.poll-interval-ms:500}")
+    public synchronized void poll() {
+        if (connectionsByUser.isEmpty()) {
+            lastStreamSeq = outboxEventRepository.findLastStreamSeq().orElse(lastStreamSeq);
+            return;
+        }
+        List<OutboxEvent> positioned;
+        do {
+            positioned = outboxEventRepository.findPositionedAfter(lastStreamSeq, PageRequest.of(0, pollBatchSize));
+            if (!positioned.isEmpty()) {
+                push(positioned.stream().map(ChangeEvent::of).toList());
+                lastStreamSeq = positioned.get(positioned.size() - 1).getStreamSeq();
+            }
+        } while (positioned.size() == pollBatchSize);
+    }
+
+    private void push(List<ChangeEvent> events) {
+        connectionsByUser.forEach((userId, connections) -> {
+            List<ChangeEvent> visible = events.stream()
+                    .filter(event -> event.isVisibleTo(userId))
+                    .toList();
+            if (visible.isEmpty()) {
+                return;
+            }
+
+            boolean transactionsChanged = visible.stream()
+                    .anyMatch(event -> event.aggregateType() == OutboxEvent.AggregateType.TRANSACTION);
+            TransactionSummary summary = transactionsChanged ? transactionService.getSummaryByUserId(userId) : null;
+            connections.forEach(connection -> connection.push(visible, summary));
+        });
+    }
+
+    @Scheduled(fixedRateString = "${app.events.heartbeat-ms:15000}")
+    public void heartbeat() {
+        connectionsByUser.values().forEach(connections -> connections.forEach(EventStreamConnection::heartbeat));
+    }
+
+    private void replay(Long userId, Long lastEventId, EventStreamConnection connection) {
+        TransactionSummary summary = transactionService.getSummaryByUserId(userId);
+        if (lastEventId == null) {
+            connection.finishReplay(List.of(), summary);
+            return;
+        }
+
+        // The client missed more than we still keep, it has to reload everything
+        Long oldestSeq = outboxEventRepository.findFirstStreamSeq().orElse(null);
+        List<OutboxEvent> missed = outboxEventRepository.findAfter(
+                lastEventId, userId, PageRequest.of(0, replayLimit + 1));
+        if ((oldestSeq != null && oldestSeq > lastEventId + 1) || missed.size() > replayLimit) {
+            long latestSeq = outboxEventRepository.findLastStreamSeq().orElse(lastEventId);
+            connection.reset(latestSeq, summary);
+            return;
+        }
+
+        connection.finishReplay(missed.stream().map(ChangeEvent::of).toList(), summary);
+    }
+}
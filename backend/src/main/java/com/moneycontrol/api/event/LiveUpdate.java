@@ -0,0 +1,13 @@
+package com.moneycontrol.api.event;
+
+import com.moneycontrol.api.model.OutboxEvent;
+
+public record LiveUpdate(
+        OutboxEvent.AggregateType entity,
+        OutboxEvent.EventType change,
+        Long id) {
+
+    public static LiveUpdate of(ChangeEvent event) {
+        return new LiveUpdate(event.aggregateType(), event.eventType(), event.aggregateId());
+    }
+}
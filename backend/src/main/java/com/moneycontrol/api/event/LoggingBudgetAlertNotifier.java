@@ -0,0 +1,22 @@
+package com.moneycontrol.api.event;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@Component
+@Slf4j
+public class LoggingBudgetAlertNotifier implements BudgetAlertNotifier {
+
+    @Override
+    public void notify(BudgetAlert alert) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                log.info("Budget {} of user {} reached {}% in {}: spent {} of {}", alert.budgetId(), alert.userId(),
+                        alert.threshold(), alert.month(), alert.spent(), alert.amount());
+            }
+        });
+    }
+}
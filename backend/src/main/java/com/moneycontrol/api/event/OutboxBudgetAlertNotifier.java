@@ -0,0 +1,22 @@
+package com.moneycontrol.api.event;
+
+import com.moneycontrol.api.model.OutboxEvent;
+import com.moneycontrol.api.service.OutboxService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+// Alerts travel with the other change events, reaching the event sinks and the live stream
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.budgets.outbox-alerts.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxBudgetAlertNotifier implements BudgetAlertNotifier {
+
+    private final OutboxService outboxService;
+
+    @Override
+    public void notify(BudgetAlert alert) {
+        outboxService.record(OutboxEvent.AggregateType.BUDGET, alert.budgetId(),
+                OutboxEvent.EventType.THRESHOLD_CROSSED, alert.userId(), alert);
+    }
+}
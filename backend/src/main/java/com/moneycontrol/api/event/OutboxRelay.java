@@ -0,0 +1,107 @@
+package com.moneycontrol.api.event;
+
+import com.moneycontrol.api.model.OutboxEvent;
+import com.moneycontrol.api.repository.OutboxEventRepository;
+import com.moneycontrol.api.service.JobLockService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OutboxRelay {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final List<EventSink> sinks;
+    private final TransactionTemplate transactionTemplate;
+    private final JobLockService jobLockService;
+
+    @Value("${app.outbox.batch-size:200}")
+    private int batchSize;
+
+    @Value("${app.outbox.retention-hours:24}")
+    private long retentionHours;
+
+    @Value("${app.outbox.claim-timeout-ms:60000}")
+    private long claimTimeoutMs;
+
+    // One relay at a time across the nodes, so stream positions are handed out without contention;
+    // the event streams of every node read what it positioned from the table
+    @Scheduled(fixedDelayString = "${app.outbox.relay-interval-ms:500}",
+            initialDelayString = "${app.outbox.relay-interval-ms:500}")
+    public void relay() {
+        jobLockService.runExclusively("outbox-relay", Duration.ofMillis(claimTimeoutMs), this::relayAll);
+    }
+
+    private void relayAll() {
+        try {
+            int published;
+            do {
+                published = relayBatch();
+            } while (published == batchSize);
+        } catch (Exception ex) {
+            // Events stay unpublished and are retried on the next run
+            log.error("Could not relay outbox events", ex);
+        }
+    }
+
+    @Scheduled(cron = "${app.outbox.cleanup-cron:0 0 * * * *}")
+    public void purgePublished() {
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(retentionHours);
+        Integer deleted = transactionTemplate.execute(status -> outboxEventRepository.deletePublishedBefore(cutoff));
+        log.info("Purged {} published outbox events", deleted);
+    }
+
+    // Claiming and marking are short transactions of their own, so no row lock or connection is held
+    // while the sinks publish; a relay that dies in between leaves claims that expire after claim-timeout-ms
+    private int relayBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxEvent> batch = transactionTemplate.execute(status -> {
+            List<OutboxEvent> claimable = outboxEventRepository.findClaimable(now, PageRequest.of(0, batchSize));
+            if (!claimable.isEmpty()) {
+                claim(claimable, now.plusNanos(claimTimeoutMs * 1_000_000));
+            }
+            return claimable;
+        });
+        if (batch == null || batch.isEmpty()) {
+            return 0;
+        }
+
+        List<Long> ids = batch.stream().map(OutboxEvent::getId).toList();
+        List<ChangeEvent> events = batch.stream().map(ChangeEvent::of).toList();
+        for (EventSink sink : sinks) {
+            try {
+                sink.publish(events);
+            } catch (Exception ex) {
+                // Free the batch for the next run instead of waiting for the claim to expire
+                transactionTemplate.execute(status -> outboxEventRepository.release(ids));
+                throw new RuntimeException("Event sink " + sink.getClass().getSimpleName() + " failed", ex);
+            }
+        }
+
+        transactionTemplate.execute(status -> outboxEventRepository.markPublished(ids, LocalDateTime.now()));
+        return batch.size();
+    }
+
+    // Only committed events are claimable, so positions handed out here follow commit order; the unique
+    // index on stream_seq turns two relays positioning at once into a failed run that is retried
+    private void claim(List<OutboxEvent> claimable, LocalDateTime claimedUntil) {
+        long streamSeq = outboxEventRepository.findLastStreamSeq().orElse(0L);
+        for (OutboxEvent event : claimable) {
+            event.setClaimedUntil(claimedUntil);
+            if (event.getStreamSeq() == null) {
+                event.setStreamSeq(++streamSeq);
+            }
+        }
+        outboxEventRepository.flush();
+    }
+}
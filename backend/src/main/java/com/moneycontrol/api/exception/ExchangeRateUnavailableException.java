@@ -0,0 +1,11 @@
+package com.moneycontrol.api.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class ExchangeRateUnavailableException extends RuntimeException {
+    public ExchangeRateUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package com.moneycontrol.api.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class ListLimitExceededException extends RuntimeException {
+    public ListLimitExceededException(String message) {
+        super(message);
+    }
+}
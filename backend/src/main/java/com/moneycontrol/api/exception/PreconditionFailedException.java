@@ -0,0 +1,20 @@
+package com.moneycontrol.api.exception;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+@Getter
+public class PreconditionFailedException extends RuntimeException {
+
+    // Sent back so the client can merge its change and retry without another GET
+    private final Object current;
+    private final Long currentVersion;
+
+    public PreconditionFailedException(String message, Object current, Long currentVersion) {
+        super(message);
+        this.current = current;
+        this.currentVersion = currentVersion;
+    }
+}
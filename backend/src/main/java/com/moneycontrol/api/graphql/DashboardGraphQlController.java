@@ -0,0 +1,146 @@
+package com.moneycontrol.api.graphql;
+
+import com.moneycontrol.api.dto.BudgetStatus;
+import com.moneycontrol.api.dto.CashFlowForecast;
+import com.moneycontrol.api.dto.CategoryBreakdown;
+import com.moneycontrol.api.dto.CategorySpend;
+import com.moneycontrol.api.dto.GoalForecast;
+import com.moneycontrol.api.dto.TransactionSummary;
+import com.moneycontrol.api.model.Category;
+import com.moneycontrol.api.model.Goal;
+import com.moneycontrol.api.model.Transaction;
+import com.moneycontrol.api.model.User;
+import com.moneycontrol.api.service.AnalyticsService;
+import com.moneycontrol.api.service.BudgetService;
+import com.moneycontrol.api.service.CategoryService;
+import com.moneycontrol.api.service.ForecastService;
+import com.moneycontrol.api.service.GoalService;
+import com.moneycontrol.api.service.TransactionService;
+import com.moneycontrol.api.service.UserService;
+import graphql.GraphQLContext;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.dataloader.DataLoader;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.QueryMapping;
+import org.springframework.graphql.data.method.annotation.SchemaMapping;
+import org.springframework.graphql.execution.BatchLoaderRegistry;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Controller;
+import reactor.core.publisher.Mono;
+
+import java.time.YearMonth;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Read side of the dashboard over the existing services. Categories and goals referenced by id go through
+// one DataLoader each, so every lookup made while resolving a level of the query becomes a single IN query
+@Controller
+@RequiredArgsConstructor
+public class DashboardGraphQlController {
+
+    private final UserService userService;
+    private final TransactionService transactionService;
+    private final CategoryService categoryService;
+    private final GoalService goalService;
+    private final AnalyticsService analyticsService;
+    private final BudgetService budgetService;
+    private final ForecastService forecastService;
+    private final BatchLoaderRegistry batchLoaderRegistry;
+
+    @Value("${app.graphql.max-limit:100}")
+    private int maxLimit;
+
+    @PostConstruct
+    void registerLoaders() {
+        batchLoaderRegistry.forTypePair(Long.class, Category.class).registerMappedBatchLoader((ids, environment) ->
+                Mono.fromCallable(() -> categoryService.getCategoriesByIds(ids).stream()
+                        .collect(Collectors.toMap(Category::getId, Function.identity()))));
+        batchLoaderRegistry.forTypePair(Long.class, Goal.class).registerMappedBatchLoader((ids, environment) -> {
+            Long userId = ((GraphQLContext) environment.getContext()).get(GraphQlConfig.USER_ID);
+            return Mono.fromCallable(() -> goalService.getGoalsByIds(userId, ids).stream()
+                    .collect(Collectors.toMap(Goal::getId, Function.identity())));
+        });
+        // One forecast read for all the goals in the response
+        batchLoaderRegistry.forTypePair(Long.class, GoalForecast.class).registerMappedBatchLoader((ids, environment) -> {
+            String email = ((GraphQLContext) environment.getContext()).get(GraphQlConfig.EMAIL);
+            return Mono.fromCallable(() -> forecastService.getForecast(email, false).getGoals().stream()
+                    .filter(forecast -> ids.contains(forecast.getGoalId()))
+                    .collect(Collectors.toMap(GoalForecast::getGoalId, Function.identity())));
+        });
+    }
+
+    @QueryMapping
+    public User me(Authentication authentication) {
+        return userService.getCurrentUser(authentication.getName());
+    }
+
+    @QueryMapping
+    public TransactionSummary summary(@Argument String currency, Authentication authentication) {
+        return transactionService.getSummary(authentication.getName(), currency);
+    }
+
+    @QueryMapping
+    public List<Transaction> transactions(@Argument int limit, Authentication authentication) {
+        return transactionService.getRecentTransactions(authentication.getName(), checkLimit(limit));
+    }
+
+    @QueryMapping
+    public List<Goal> goals(@Argument int limit, Authentication authentication) {
+        return goalService.getGoals(authentication.getName(), checkLimit(limit));
+    }
+
+    @QueryMapping
+    public List<Category> categories(@Argument int limit) {
+        return categoryService.getCategories(checkLimit(limit));
+    }
+
+    @QueryMapping
+    public CategoryBreakdown categoryBreakdown(@Argument Transaction.TransactionType type, @Argument YearMonth from,
+                                              @Argument YearMonth to, @Argument int top, @Argument String currency,
+                                              Authentication authentication) {
+        YearMonth end = to != null ? to : YearMonth.now();
+        YearMonth start = from != null ? from : end;
+        return analyticsService.getCategoryBreakdown(authentication.getName(), type, start, end, top, currency);
+    }
+
+    @QueryMapping
+    public List<BudgetStatus> budgets(@Argument YearMonth month, Authentication authentication) {
+        return budgetService.getBudgetStatus(month != null ? month : YearMonth.now(), authentication.getName());
+    }
+
+    @QueryMapping
+    public CashFlowForecast forecast(Authentication authentication) {
+        return forecastService.getForecast(authentication.getName(), false);
+    }
+
+    @SchemaMapping
+    public CompletableFuture<Category> category(CategorySpend spend, DataLoader<Long, Category> loader) {
+        return spend.getCategoryId() == null ? CompletableFuture.completedFuture(null) : loader.load(spend.getCategoryId());
+    }
+
+    @SchemaMapping
+    public CompletableFuture<Category> category(BudgetStatus status, DataLoader<Long, Category> loader) {
+        return loader.load(status.getCategoryId());
+    }
+
+    @SchemaMapping
+    public CompletableFuture<Goal> goal(GoalForecast forecast, DataLoader<Long, Goal> loader) {
+        return loader.load(forecast.getGoalId());
+    }
+
+    @SchemaMapping
+    public CompletableFuture<GoalForecast> forecast(Goal goal, DataLoader<Long, GoalForecast> loader) {
+        return loader.load(goal.getId());
+    }
+
+    private int checkLimit(int limit) {
+        if (limit < 1 || limit > maxLimit) {
+            throw new IllegalArgumentException("limit must be between 1 and " + maxLimit);
+        }
+        return limit;
+    }
+}
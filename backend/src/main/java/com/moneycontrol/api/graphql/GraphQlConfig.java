@@ -0,0 +1,155 @@
+package com.moneycontrol.api.graphql;
+
+import com.moneycontrol.api.exception.ListLimitExceededException;
+import com.moneycontrol.api.exception.ResourceNotFoundException;
+import com.moneycontrol.api.model.User;
+import graphql.GraphQLContext;
+import graphql.GraphQLError;
+import graphql.GraphqlErrorBuilder;
+import graphql.analysis.MaxQueryComplexityInstrumentation;
+import graphql.analysis.MaxQueryDepthInstrumentation;
+import graphql.execution.CoercedVariables;
+import graphql.execution.instrumentation.Instrumentation;
+import graphql.execution.preparsed.persisted.ApolloPersistedQuerySupport;
+import graphql.language.FloatValue;
+import graphql.language.IntValue;
+import graphql.language.StringValue;
+import graphql.schema.Coercing;
+import graphql.schema.CoercingParseLiteralException;
+import graphql.schema.CoercingParseValueException;
+import graphql.schema.CoercingSerializeException;
+import graphql.schema.DataFetchingEnvironment;
+import graphql.schema.GraphQLScalarType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.graphql.GraphQlSourceBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.graphql.execution.DataFetcherExceptionResolver;
+import org.springframework.graphql.execution.DataFetcherExceptionResolverAdapter;
+import org.springframework.graphql.execution.ErrorType;
+import org.springframework.graphql.execution.RuntimeWiringConfigurer;
+import org.springframework.graphql.server.WebGraphQlInterceptor;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+
+@Configuration
+public class GraphQlConfig {
+
+    // GraphQLContext keys of the authenticated user, read by the batch loaders
+    public static final String USER_ID = "userId";
+    public static final String EMAIL = "email";
+
+    @Value("${app.graphql.max-depth:8}")
+    private int maxDepth;
+
+    @Value("${app.graphql.max-complexity:2000}")
+    private int maxComplexity;
+
+    @Bean
+    public RuntimeWiringConfigurer scalars() {
+        return wiring -> wiring
+                .scalar(scalar("Decimal", BigDecimal.class, BigDecimal::new))
+                .scalar(scalar("Date", LocalDate.class, LocalDate::parse))
+                .scalar(scalar("DateTime", LocalDateTime.class, LocalDateTime::parse))
+                .scalar(scalar("YearMonth", YearMonth.class, YearMonth::parse));
+    }
+
+    @Bean
+    public Instrumentation maxQueryDepth() {
+        return new MaxQueryDepthInstrumentation(maxDepth);
+    }
+
+    // A field costs 1 plus its selection, and list fields pay for their selection once per requested row,
+    // so the cost of a query follows the rows it can load rather than the size of the document
+    @Bean
+    public Instrumentation maxQueryComplexity() {
+        return new MaxQueryComplexityInstrumentation(maxComplexity, (environment, childComplexity) ->
+                1 + (environment.getArguments().get("limit") instanceof Integer limit ? limit : 1) * childComplexity);
+    }
+
+    @Bean
+    public GraphQlSourceBuilderCustomizer persistedQuerySupport(PersistedQueries persistedQueries) {
+        return builder -> builder.configureGraphQl(graphQl ->
+                graphQl.preparsedDocumentProvider(new ApolloPersistedQuerySupport(persistedQueries)));
+    }
+
+    // The user is resolved once by the JWT filter; batch loaders don't see the security context
+    @Bean
+    public WebGraphQlInterceptor userInterceptor() {
+        return (request, chain) -> {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            if (authentication != null && authentication.getPrincipal() instanceof User user) {
+                request.configureExecutionInput((input, builder) ->
+                        builder.graphQLContext(Map.of(USER_ID, user.getId(), EMAIL, user.getEmail())).build());
+            }
+            return chain.next(request);
+        };
+    }
+
+    // Same mapping as GlobalExceptionHandler, anything else stays an INTERNAL_ERROR without details
+    @Bean
+    public DataFetcherExceptionResolver exceptionResolver() {
+        return new DataFetcherExceptionResolverAdapter() {
+            @Override
+            protected GraphQLError resolveToSingleError(Throwable ex, DataFetchingEnvironment environment) {
+                if (ex instanceof ResourceNotFoundException) {
+                    return error(ErrorType.NOT_FOUND, ex, environment);
+                }
+                if (ex instanceof IllegalArgumentException || ex instanceof ListLimitExceededException) {
+                    return error(ErrorType.BAD_REQUEST, ex, environment);
+                }
+                return null;
+            }
+        };
+    }
+
+    private static GraphQLError error(ErrorType type, Throwable ex, DataFetchingEnvironment environment) {
+        return GraphqlErrorBuilder.newError(environment).errorType(type).message(ex.getMessage()).build();
+    }
+
+    // Values travel as strings in ISO format, decimals in plain notation so no precision is lost
+    private static <T> GraphQLScalarType scalar(String name, Class<T> type, Function<String, T> parse) {
+        return GraphQLScalarType.newScalar().name(name).coercing(new Coercing<T, String>() {
+            @Override
+            public String serialize(Object value, GraphQLContext context, Locale locale) {
+                if (value instanceof BigDecimal decimal) {
+                    return decimal.toPlainString();
+                }
+                if (type.isInstance(value)) {
+                    return value.toString();
+                }
+                throw new CoercingSerializeException("Expected a " + type.getSimpleName() + " but got " + value);
+            }
+
+            @Override
+            public T parseValue(Object input, GraphQLContext context, Locale locale) {
+                try {
+                    return parse.apply(input.toString());
+                } catch (RuntimeException ex) {
+                    throw new CoercingParseValueException("Invalid " + name + ": " + input, ex);
+                }
+            }
+
+            @Override
+            public T parseLiteral(graphql.language.Value<?> input, CoercedVariables variables, GraphQLContext context,
+                                  Locale locale) {
+                String text = input instanceof StringValue value ? value.getValue()
+                        : input instanceof IntValue value ? value.getValue().toString()
+                        : input instanceof FloatValue value ? value.getValue().toString() : null;
+                try {
+                    return parse.apply(text);
+                } catch (RuntimeException ex) {
+                    throw new CoercingParseLiteralException("Invalid " + name + ": " + input, ex);
+                }
+            }
+        }).build();
+    }
+}
@@ -0,0 +1,98 @@
+package com.moneycontrol.api.graphql;
+
+import graphql.ExecutionInput;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.execution.preparsed.persisted.PersistedQueryCache;
+import graphql.execution.preparsed.persisted.PersistedQueryCacheMiss;
+import graphql.execution.preparsed.persisted.PersistedQueryNotFound;
+import graphql.execution.preparsed.persisted.PersistedQuerySupport;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Parsed and validated documents by their SHA-256, for Apollo style persisted queries. The documents under
+// graphql/persisted/ are known up front, so clients can send just the hash, and stay cached; other queries
+// share an LRU of max-entries, so a client sending many one-off hashes only evicts the least used ones
+@Component
+@Slf4j
+public class PersistedQueries implements PersistedQueryCache {
+
+    private final Map<String, String> known = new ConcurrentHashMap<>();
+    private final Map<Object, PreparsedDocumentEntry> knownDocuments = new ConcurrentHashMap<>();
+    private Map<Object, PreparsedDocumentEntry> adHocDocuments;
+
+    @Value("${app.graphql.persisted-queries.location:classpath:graphql/persisted/*.graphql}")
+    private String location;
+
+    @Value("${app.graphql.persisted-queries.max-entries:500}")
+    private int maxEntries;
+
+    @PostConstruct
+    void load() throws IOException {
+        adHocDocuments = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Object, PreparsedDocumentEntry> eldest) {
+                return size() > maxEntries;
+            }
+        });
+        for (Resource resource : new PathMatchingResourcePatternResolver().getResources(location)) {
+            String query = resource.getContentAsString(StandardCharsets.UTF_8);
+            String hash = sha256(query);
+            known.put(hash, query);
+            log.info("Persisted query {} has hash {}", resource.getFilename(), hash);
+        }
+    }
+
+    @Override
+    public CompletableFuture<PreparsedDocumentEntry> getPersistedQueryDocumentAsync(Object persistedQueryId,
+                                                                               ExecutionInput executionInput,
+                                                                               PersistedQueryCacheMiss onCacheMiss)
+            throws PersistedQueryNotFound {
+        String knownQuery = known.get(persistedQueryId.toString());
+        Map<Object, PreparsedDocumentEntry> documents = knownQuery != null ? knownDocuments : adHocDocuments;
+        PreparsedDocumentEntry entry = documents.get(persistedQueryId);
+        if (entry != null) {
+            return CompletableFuture.completedFuture(entry);
+        }
+        String query = knownQuery != null ? knownQuery : executionInput.getQuery();
+        if (query == null || query.isBlank() || query.equals(PersistedQuerySupport.PERSISTED_QUERY_MARKER)) {
+            throw new PersistedQueryNotFound(persistedQueryId);
+        }
+        entry = onCacheMiss.apply(query);
+        if (!entry.hasErrors()) {
+            documents.putIfAbsent(persistedQueryId, entry);
+        }
+        return CompletableFuture.completedFuture(entry);
+    }
+
+    // Still the one PersistedQuerySupport calls in this graphql-java version; the lookup never blocks
+    @Deprecated
+    @Override
+    public PreparsedDocumentEntry getPersistedQueryDocument(Object persistedQueryId, ExecutionInput executionInput,
+                                                            PersistedQueryCacheMiss onCacheMiss)
+            throws PersistedQueryNotFound {
+        return getPersistedQueryDocumentAsync(persistedQueryId, executionInput, onCacheMiss).join();
+    }
+
+    static String sha256(String query) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(query.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+}
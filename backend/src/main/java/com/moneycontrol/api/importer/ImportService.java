@@ -0,0 +1,437 @@
+package com.moneycontrol.api.importer;
+
+import com.moneycontrol.api.audit.AuditTrail;
+import com.moneycontrol.api.cache.CacheConfig;
+import com.moneycontrol.api.cache.CacheInvalidationBus;
+import com.moneycontrol.api.currency.ExchangeRateService;
+import com.moneycontrol.api.currency.Money;
+import com.moneycontrol.api.exception.ResourceNotFoundException;
+import com.moneycontrol.api.exception.TooManyImportJobsException;
+import com.moneycontrol.api.model.AuditLog;
+import com.moneycontrol.api.model.Category;
+import com.moneycontrol.api.model.ImportJob;
+import com.moneycontrol.api.model.OutboxEvent;
+import com.moneycontrol.api.model.Transaction;
+import com.moneycontrol.api.model.User;
+import com.moneycontrol.api.repository.CategoryRepository;
+import com.moneycontrol.api.repository.ImportJobRepository;
+import com.moneycontrol.api.repository.TransactionRepository;
+import com.moneycontrol.api.repository.UserRepository;
+import com.moneycontrol.api.service.BalanceCheckpointService;
+import com.moneycontrol.api.service.CategoryRollupService;
+import com.moneycontrol.api.service.CategoryRuleService;
+import com.moneycontrol.api.service.CategoryService;
+import com.moneycontrol.api.service.DuplicateDetectionService;
+import com.moneycontrol.api.service.OutboxService;
+import com.moneycontrol.api.service.SyncService;
+import com.moneycontrol.api.service.UserService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Bank statement imports: the upload is streamed to a temporary file, which a background job maps and
+// parses entry by entry. Rows are stored in batches of app.imports.batch-size, each its own transaction
+// with the same side effects as a bulk write (rollups, checkpoints, outbox), and the job's progress is
+// saved after every batch
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ImportService {
+
+    private static final List<ImportJob.Status> UNFINISHED = List.of(ImportJob.Status.PENDING, ImportJob.Status.RUNNING);
+    private static final int DESCRIPTION_LENGTH = 255;
+    private static final int ERROR_LENGTH = 2000;
+
+    private final ImportJobRepository importJobRepository;
+    private final TransactionRepository transactionRepository;
+    private final CategoryRepository categoryRepository;
+    private final UserRepository userRepository;
+    private final UserService userService;
+    private final CategoryService categoryService;
+    private final CategoryRuleService categoryRuleService;
+    private final CategoryRollupService categoryRollupService;
+    private final BalanceCheckpointService balanceCheckpointService;
+    private final OutboxService outboxService;
+    private final AuditTrail auditTrail;
+    private final SyncService syncService;
+    private final ExchangeRateService exchangeRateService;
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<Long, Semaphore> activeJobsByUser = new ConcurrentHashMap<>();
+    private final String nodeId = UUID.randomUUID().toString();
+    private ExecutorService jobExecutor;
+    private Path directory;
+
+    @Value("${app.imports.dir:${java.io.tmpdir}/moneycontrol-imports}")
+    private String importsDir;
+
+    @Value("${app.imports.job-threads:2}")
+    private int jobThreads;
+
+    @Value("${app.imports.max-active-per-user:1}")
+    private int maxActivePerUser;
+
+    // One mapping covers the whole file, so this stays below 2 GB
+    @Value("${app.imports.max-bytes:536870912}")
+    private long maxBytes;
+
+    @Value("${app.imports.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.imports.qif-date-pattern:d/M/yyyy}")
+    private String qifDatePattern;
+
+    @Value("${app.imports.list-limit:20}")
+    private int listLimit;
+
+    @Value("${app.imports.stale-after-ms:120000}")
+    private long staleAfterMs;
+
+    @Value("${app.dedupe.min-similarity:0.5}")
+    private double minSimilarity;
+
+    @PostConstruct
+    void init() throws IOException {
+        directory = Files.createDirectories(Path.of(importsDir));
+        AtomicInteger threadCount = new AtomicInteger();
+        jobExecutor = Executors.newFixedThreadPool(jobThreads, runnable -> {
+            Thread thread = new Thread(runnable, "import-job-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobExecutor.shutdownNow();
+    }
+
+    // Keeps this node's jobs alive and fails the ones whose node stopped touching them, which were
+    // interrupted by a restart or a crash; jobs still running on other replicas are left alone
+    @Scheduled(fixedDelayString = "${app.imports.heartbeat-ms:30000}")
+    public void heartbeat() {
+        LocalDateTime now = LocalDateTime.now();
+        Integer failed = transactionTemplate.execute(status -> {
+            importJobRepository.touch(nodeId, UNFINISHED, now);
+            return importJobRepository.failStale(UNFINISHED, ImportJob.Status.FAILED,
+                    "Interrupted by a restart, upload the statement again", now, now.minusNanos(staleAfterMs * 1_000_000));
+        });
+        if (failed != null && failed > 0) {
+            log.warn("Marked {} interrupted import jobs as failed", failed);
+        }
+        deleteOrphanedFiles(now);
+    }
+
+    // Uploads no unfinished job reads anymore. Files younger than the stale timeout are kept, their job
+    // may not be saved yet
+    private void deleteOrphanedFiles(LocalDateTime now) {
+        Set<Path> inUse = importJobRepository.findFilePaths(UNFINISHED).stream().map(Path::of).collect(Collectors.toSet());
+        long cutoff = now.minusNanos(staleAfterMs * 1_000_000).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                if (!inUse.contains(file) && Files.getLastModifiedTime(file).toMillis() < cutoff) {
+                    deleteQuietly(file);
+                }
+            }
+        } catch (IOException ex) {
+            log.warn("Could not clean {}", directory, ex);
+        }
+    }
+
+    // currency overrides the one in the file (OFX CURDEF), categoryId is used for rows no rule matches
+    public ImportJob submit(InputStream body, StatementFormat format, String currency, Long categoryId, String email)
+            throws IOException {
+        User user = userService.getCurrentUser(email);
+        String fixedCurrency = currency == null || currency.isBlank() ? null : exchangeRateService.normalizeConvertible(currency);
+        if (categoryId != null) {
+            categoryService.getCategoryById(categoryId);
+        }
+
+        Semaphore slots = activeJobsByUser.computeIfAbsent(user.getId(), id -> new Semaphore(maxActivePerUser));
+        if (!slots.tryAcquire()) {
+            throw new TooManyImportJobsException(
+                    "At most " + maxActivePerUser + " imports run at a time, wait for the running one");
+        }
+        Path file = null;
+        try {
+            file = Files.createTempFile(directory, "import-", "." + format.name().toLowerCase());
+            long size = copy(body, file);
+            ImportJob job = importJobRepository.save(new ImportJob(null, user.getId(), format, ImportJob.Status.PENDING,
+                    size, 0, 0, 0, 0, null, file.toString(), nodeId, LocalDateTime.now(), LocalDateTime.now(), null));
+            Path upload = file;
+            jobExecutor.execute(() -> run(job.getId(), upload, fixedCurrency, categoryId, slots));
+            return job;
+        } catch (IOException | RuntimeException ex) {
+            if (file != null) {
+                deleteQuietly(file);
+            }
+            slots.release();
+            throw ex;
+        }
+    }
+
+    public List<ImportJob> getJobs(String email) {
+        User user = userService.getCurrentUser(email);
+        return importJobRepository.findByUserIdOrderByIdDesc(user.getId(), Limit.of(listLimit));
+    }
+
+    public ImportJob getJob(Long id, String email) {
+        User user = userService.getCurrentUser(email);
+        return importJobRepository.findByIdAndUserId(id, user.getId())
+                .orElseThrow(() -> new ResourceNotFoundException("Import not found with id: " + id));
+    }
+
+    private long copy(InputStream body, Path file) throws IOException {
+        try (ReadableByteChannel in = Channels.newChannel(body);
+             FileChannel out = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            long size = 0;
+            long transferred;
+            while ((transferred = out.transferFrom(in, size, 1 << 20)) > 0) {
+                size += transferred;
+                if (size > maxBytes) {
+                    throw new IllegalArgumentException("Statement larger than " + maxBytes + " bytes, split it");
+                }
+            }
+            return size;
+        }
+    }
+
+    private void run(Long jobId, Path file, String fixedCurrency, Long defaultCategoryId, Semaphore slots) {
+        ImportJob job = importJobRepository.findById(jobId).orElseThrow();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            job.setStatus(ImportJob.Status.RUNNING);
+            job.setHeartbeatAt(LocalDateTime.now());
+            importJobRepository.save(job);
+
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            StatementReader reader = StatementReader.of(job.getFormat(), mapped, qifDatePattern);
+            Batch batch = new Batch(job, fixedCurrency, defaultCategoryId, categoryRuleService.matcher(job.getUserId()));
+            while (true) {
+                StatementRow row;
+                try {
+                    row = reader.next();
+                } catch (IllegalArgumentException ex) {
+                    reject(job, ex.getMessage());
+                    continue;
+                }
+                if (row == null) {
+                    break;
+                }
+                batch.rows.add(row);
+                if (batch.rows.size() >= batchSize) {
+                    store(batch);
+                    job.setBytesRead(reader.position());
+                    importJobRepository.save(job);
+                }
+            }
+            store(batch);
+            job.setBytesRead(job.getFileSize());
+            job.setStatus(ImportJob.Status.DONE);
+        } catch (Exception ex) {
+            log.error("Import job {} failed", job.getId(), ex);
+            job.setStatus(ImportJob.Status.FAILED);
+            job.setError(truncate(ex.getMessage()));
+        } finally {
+            // The slot and the file go first, a failing save below must not keep the user locked out
+            slots.release();
+            deleteQuietly(file);
+            job.setFinishedAt(LocalDateTime.now());
+            importJobRepository.save(job);
+        }
+    }
+
+    private void store(Batch batch) {
+        if (batch.rows.isEmpty()) {
+            return;
+        }
+        Long stored = transactionTemplate.execute(status -> storeRows(batch));
+        batch.job.setImported(batch.job.getImported() + Objects.requireNonNull(stored).intValue());
+        batch.rows.clear();
+    }
+
+    private long storeRows(Batch batch) {
+        ImportJob job = batch.job;
+        // Loaded rather than a reference: the rows are serialized into their outbox events
+        User user = userRepository.findById(job.getUserId()).orElseThrow();
+        long changeSeq = syncService.nextChangeSeq(job.getUserId());
+
+        List<Long> categoryIds = batch.rows.stream().map(batch::categoryId).toList();
+        List<Long> distinctIds = categoryIds.stream().filter(Objects::nonNull).distinct().toList();
+        // A rule's category may have been deleted since, its rows are then left without one
+        Map<Long, Category> categories = categoryRepository.findAllById(distinctIds).stream()
+                .collect(Collectors.toMap(Category::getId, Function.identity()));
+
+        List<Transaction> transactions = new ArrayList<>(batch.rows.size());
+        for (int i = 0; i < batch.rows.size(); i++) {
+            StatementRow row = batch.rows.get(i);
+            try {
+                transactions.add(toTransaction(row, categories.get(categoryIds.get(i)), batch, user, changeSeq));
+            } catch (IllegalArgumentException | ArithmeticException ex) {
+                reject(job, ex.getMessage());
+            }
+        }
+        List<Transaction> fresh = withoutStored(transactions, batch);
+        job.setSkipped(job.getSkipped() + transactions.size() - fresh.size());
+        if (fresh.isEmpty()) {
+            return 0;
+        }
+
+        List<Transaction> saved = transactionRepository.saveAll(fresh);
+        if (batch.firstId == null) {
+            batch.firstId = saved.get(0).getId();
+        }
+        List<CategoryRollupService.Snapshot> snapshots = saved.stream().map(categoryRollupService::snapshot).toList();
+        categoryRollupService.addedAll(snapshots);
+        balanceCheckpointService.addedAll(snapshots);
+        List<Long> ids = saved.stream().map(Transaction::getId).toList();
+        outboxService.recordTransactions(job.getUserId(), saved, OutboxEvent.EventType.CREATED);
+        auditTrail.recordAllFor(job.getUserId(), AuditLog.Action.CREATE, OutboxEvent.AggregateType.TRANSACTION, ids,
+                "import " + job.getId());
+        cacheInvalidationBus.evict(CacheConfig.SUMMARIES, job.getUserId());
+        return saved.size();
+    }
+
+    private Transaction toTransaction(StatementRow row, Category category, Batch batch, User user, long changeSeq) {
+        if (row.amount().signum() == 0) {
+            throw new IllegalArgumentException("Entry of " + row.date().toLocalDate() + " has a zero amount");
+        }
+        Transaction transaction = new Transaction();
+        transaction.setDescription(description(row, batch.job.getFormat()));
+        transaction.setAmount(Money.toBigDecimal(Money.toMinorUnits(row.amount().abs())));
+        transaction.setType(row.amount().signum() < 0 ? Transaction.TransactionType.EXPENSE : Transaction.TransactionType.INCOME);
+        transaction.setCurrency(batch.currency(row.currency()));
+        transaction.setDate(row.date());
+        transaction.setCategory(category);
+        transaction.setUser(user);
+        transaction.setChangeSeq(changeSeq);
+        transaction.setFingerprint(DuplicateDetectionService.fingerprint(transaction));
+        return transaction;
+    }
+
+    // Re-importing an overlapping statement must not double the rows: entries matching a stored row the way
+    // the duplicate detection does are skipped. Rows this job stored (ids from firstId on) don't count,
+    // a statement can legitimately list two identical entries
+    private List<Transaction> withoutStored(List<Transaction> transactions, Batch batch) {
+        if (transactions.isEmpty()) {
+            return transactions;
+        }
+        Map<Long, List<Transaction>> stored = new HashMap<>();
+        for (Transaction existing : transactionRepository.findByFingerprintIn(batch.job.getUserId(),
+                transactions.stream().map(Transaction::getFingerprint).distinct().toList())) {
+            if (batch.firstId == null || existing.getId() < batch.firstId) {
+                stored.computeIfAbsent(existing.getFingerprint(), key -> new ArrayList<>()).add(existing);
+            }
+        }
+        return transactions.stream()
+                .filter(transaction -> stored.getOrDefault(transaction.getFingerprint(), List.of()).stream()
+                        .noneMatch(existing -> DuplicateDetectionService.similarity(existing.getDescription(),
+                                transaction.getDescription()) >= minSimilarity))
+                .toList();
+    }
+
+    private static String description(StatementRow row, StatementFormat format) {
+        String description = row.payee() != null && !row.payee().isBlank() ? row.payee()
+                : row.memo() != null && !row.memo().isBlank() ? row.memo()
+                : format.name() + " import";
+        return description.length() > DESCRIPTION_LENGTH ? description.substring(0, DESCRIPTION_LENGTH) : description;
+    }
+
+    private static void reject(ImportJob job, String reason) {
+        job.setRejected(job.getRejected() + 1);
+        if (job.getError() == null) {
+            job.setError(truncate(reason));
+        }
+    }
+
+    private static String truncate(String error) {
+        return error != null && error.length() > ERROR_LENGTH ? error.substring(0, ERROR_LENGTH) : error;
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ex) {
+            log.warn("Could not delete {}", path, ex);
+        }
+    }
+
+    // State carried from one batch to the next
+    private final class Batch {
+
+        private final List<StatementRow> rows = new ArrayList<>();
+        private final String fixedCurrency;
+        private final Long defaultCategoryId;
+        private final CategoryRuleService.Matcher matcher;
+        private final Map<String, Optional<Long>> categoryIdsByName = new HashMap<>();
+        private final Map<String, String> currencies = new HashMap<>();
+        private final ImportJob job;
+        private Long firstId;
+
+        private Batch(ImportJob job, String fixedCurrency, Long defaultCategoryId, CategoryRuleService.Matcher matcher) {
+            this.job = job;
+            this.fixedCurrency = fixedCurrency;
+            this.defaultCategoryId = defaultCategoryId;
+            this.matcher = matcher;
+        }
+
+        // Rule on the payee or memo, then the file's own category (QIF L) by name, then the upload's default
+        private Long categoryId(StatementRow row) {
+            Long categoryId = matcher.match(row.payee(), row.memo());
+            if (categoryId == null && row.category() != null) {
+                categoryId = categoryIdsByName.computeIfAbsent(row.category().toLowerCase(),
+                        name -> categoryRepository.findFirstByNameIgnoreCase(row.category()).map(Category::getId))
+                        .orElse(null);
+            }
+            return categoryId != null ? categoryId : defaultCategoryId;
+        }
+
+        private String currency(String fromFile) {
+            if (fixedCurrency != null) {
+                return fixedCurrency;
+            }
+            String code = fromFile == null ? "" : fromFile;
+            String normalized = currencies.get(code);
+            if (normalized == null) {
+                normalized = code.isEmpty() ? exchangeRateService.getBaseCurrency()
+                        : exchangeRateService.normalizeConvertible(code);
+                currencies.put(code, normalized);
+            }
+            return normalized;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.moneycontrol.api.importer;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Locale;
+
+// OFX 1.x (SGML, leaf elements not closed) and 2.x (XML) read as a flat stream of tags and the text after
+// them. Only the fields of STMTTRN and the statement's CURDEF are kept, everything else is skipped
+final class OfxReader extends StatementReader {
+
+    private String currency;
+
+    OfxReader(ByteBuffer buffer) {
+        super(buffer);
+    }
+
+    @Override
+    public StatementRow next() {
+        boolean inTransaction = false;
+        String date = null;
+        String amount = null;
+        String name = null;
+        String payee = null;
+        String memo = null;
+        String tag;
+        while ((tag = nextTag()) != null) {
+            switch (tag) {
+                case "CURDEF" -> currency = text();
+                case "STMTTRN" -> {
+                    inTransaction = true;
+                    date = amount = name = payee = memo = null;
+                }
+                case "DTPOSTED" -> date = inTransaction ? text() : date;
+                case "TRNAMT" -> amount = inTransaction ? text() : amount;
+                case "NAME" -> name = inTransaction ? text() : name;
+                case "PAYEE" -> payee = inTransaction ? text() : payee;
+                case "MEMO" -> memo = inTransaction ? text() : memo;
+                case "/STMTTRN" -> {
+                    if (inTransaction) {
+                        return toRow(date, amount, name != null ? name : payee, memo);
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+        return null;
+    }
+
+    private StatementRow toRow(String date, String amount, String payee, String memo) {
+        if (date == null || date.length() < 8 || amount == null || amount.isEmpty()) {
+            throw new IllegalArgumentException("Transaction without DTPOSTED or TRNAMT before byte " + position());
+        }
+        return new StatementRow(parseDate(date), parseAmount(amount), unescape(payee), unescape(memo), null, currency);
+    }
+
+    // YYYYMMDD[HHMMSS[.XXX]][[offset:TZ]]; the time is kept as written, the offset ignored
+    static LocalDateTime parseDate(String value) {
+        try {
+            LocalDate day = LocalDate.of(Integer.parseInt(value.substring(0, 4)),
+                    Integer.parseInt(value.substring(4, 6)), Integer.parseInt(value.substring(6, 8)));
+            LocalTime time = value.length() >= 14 && Character.isDigit(value.charAt(13))
+                    ? LocalTime.of(Integer.parseInt(value.substring(8, 10)), Integer.parseInt(value.substring(10, 12)),
+                    Integer.parseInt(value.substring(12, 14)))
+                    : LocalTime.MIDNIGHT;
+            return day.atTime(time);
+        } catch (RuntimeException ex) {
+            throw new IllegalArgumentException("Invalid OFX date: " + value);
+        }
+    }
+
+    // Name of the next tag, upper case, with "/" for closing ones; null at the end of the file
+    private String nextTag() {
+        while (buffer.hasRemaining()) {
+            if (buffer.get() == '<') {
+                int start = buffer.position();
+                while (buffer.hasRemaining() && buffer.get(buffer.position()) != '>') {
+                    buffer.get();
+                }
+                int end = buffer.position();
+                if (buffer.hasRemaining()) {
+                    buffer.get();
+                }
+                // Declarations and processing instructions (<?xml ...?>, <!-- -->) aren't elements
+                if (end > start && buffer.get(start) != '?' && buffer.get(start) != '!') {
+                    String tag = decode(start, end);
+                    int space = tag.indexOf(' ');
+                    return (space > 0 ? tag.substring(0, space) : tag).toUpperCase(Locale.ROOT);
+                }
+            }
+        }
+        return null;
+    }
+
+    // Text up to the next tag, which is left for nextTag
+    private String text() {
+        int start = buffer.position();
+        while (buffer.hasRemaining() && buffer.get(buffer.position()) != '<') {
+            buffer.get();
+        }
+        return decode(start, buffer.position());
+    }
+
+    private static String unescape(String value) {
+        if (value == null || value.indexOf('&') < 0) {
+            return value;
+        }
+        return value.replace("&lt;", "<").replace("&gt;", ">").replace("&quot;", "\"")
+                .replace("&apos;", "'").replace("&nbsp;", " ").replace("&amp;", "&");
+    }
+}
@@ -0,0 +1,113 @@
+package com.moneycontrol.api.importer;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+import java.util.Set;
+
+// QIF is line based: a "!Type:" header, then records of one-letter fields ended by "^". Only bank, cash and
+// card sections hold transactions; category and account lists are skipped. Split lines are ignored,
+// T already carries the total
+final class QifReader extends StatementReader {
+
+    private static final Set<String> TRANSACTION_TYPES = Set.of("BANK", "CASH", "CCARD", "OTH A", "OTH L");
+
+    private final DateTimeFormatter dateFormat;
+    private boolean inTransactions = true;
+
+    QifReader(ByteBuffer buffer, String datePattern) {
+        super(buffer);
+        this.dateFormat = DateTimeFormatter.ofPattern(datePattern);
+    }
+
+    @Override
+    public StatementRow next() {
+        String date = null;
+        String amount = null;
+        String payee = null;
+        String memo = null;
+        String category = null;
+        boolean empty = true;
+        int start;
+        while ((start = buffer.position()) < buffer.limit()) {
+            int end = nextLine(start);
+            if (end == start) {
+                continue;
+            }
+            byte code = buffer.get(start);
+            if (code == '!') {
+                String header = decode(start + 1, end).toUpperCase(Locale.ROOT);
+                if (header.startsWith("TYPE:")) {
+                    inTransactions = TRANSACTION_TYPES.contains(header.substring(5).trim());
+                } else if (header.startsWith("ACCOUNT")) {
+                    inTransactions = false;
+                }
+                continue;
+            }
+            if (code == '^') {
+                if (inTransactions && !empty) {
+                    return toRow(date, amount, payee, memo, category);
+                }
+                date = amount = payee = memo = category = null;
+                empty = true;
+                continue;
+            }
+            if (!inTransactions) {
+                continue;
+            }
+            empty = false;
+            switch (code) {
+                case 'D' -> date = decode(start + 1, end);
+                case 'T', 'U' -> amount = amount == null ? decode(start + 1, end) : amount;
+                case 'P' -> payee = decode(start + 1, end);
+                case 'M' -> memo = decode(start + 1, end);
+                case 'L' -> category = decode(start + 1, end);
+                default -> {
+                }
+            }
+        }
+        // A last record without its "^"
+        return inTransactions && !empty ? toRow(date, amount, payee, memo, category) : null;
+    }
+
+    private StatementRow toRow(String date, String amount, String payee, String memo, String category) {
+        if (date == null || amount == null || amount.isEmpty()) {
+            throw new IllegalArgumentException("Record without D or T before byte " + position());
+        }
+        // "[Account]" is a transfer, not a category
+        String categoryName = category == null || category.isEmpty() || category.startsWith("[") ? null
+                : category.split("[:/]")[0].trim();
+        return new StatementRow(parseDate(date).atStartOfDay(), parseAmount(amount), payee, memo, categoryName, null);
+    }
+
+    // Quicken writes 1/ 5'24 for 2024, others 05/01/2024 or 05-01-24
+    LocalDate parseDate(String value) {
+        String normalized = value.replace(" ", "").replace('\'', '/').replace('-', '/').replace('.', '/');
+        int lastSeparator = normalized.lastIndexOf('/');
+        if (lastSeparator >= 0 && normalized.length() - lastSeparator - 1 == 2) {
+            normalized = normalized.substring(0, lastSeparator + 1) + "20" + normalized.substring(lastSeparator + 1);
+        }
+        try {
+            return LocalDate.parse(normalized, dateFormat);
+        } catch (DateTimeParseException ex) {
+            throw new IllegalArgumentException("Invalid QIF date: " + value);
+        }
+    }
+
+    // Moves past the next line break and returns where the content of the line starting at start ends
+    private int nextLine(int start) {
+        while (buffer.hasRemaining() && buffer.get() != '\n') {
+            // scanning to the line break
+        }
+        int end = buffer.position();
+        if (end > start && buffer.get(end - 1) == '\n') {
+            end--;
+        }
+        if (end > start && buffer.get(end - 1) == '\r') {
+            end--;
+        }
+        return end;
+    }
+}
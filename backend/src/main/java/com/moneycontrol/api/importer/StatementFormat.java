@@ -0,0 +1,5 @@
+package com.moneycontrol.api.importer;
+
+public enum StatementFormat {
+    OFX, QIF
+}
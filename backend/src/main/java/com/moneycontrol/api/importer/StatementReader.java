@@ -0,0 +1,75 @@
+package com.moneycontrol.api.importer;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+// Pull parser over the bytes of a statement, usually a mapped file: next() decodes only the fields of one
+// entry, so memory use doesn't depend on the file size and position() tells how far the import got
+public abstract class StatementReader {
+
+    private static final Charset WINDOWS_1252 = Charset.forName("windows-1252");
+
+    protected final ByteBuffer buffer;
+    private final CharsetDecoder utf8 = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPORT)
+            .onUnmappableCharacter(CodingErrorAction.REPORT);
+
+    protected StatementReader(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    public static StatementReader of(StatementFormat format, ByteBuffer buffer, String qifDatePattern) {
+        return switch (format) {
+            case OFX -> new OfxReader(buffer);
+            case QIF -> new QifReader(buffer, qifDatePattern);
+        };
+    }
+
+    // Next entry, null at the end of the statement
+    public abstract StatementRow next();
+
+    public long position() {
+        return buffer.position();
+    }
+
+    // Banks write UTF-8 or Windows-1252 and rarely say which, so fields that aren't valid UTF-8 are read as the latter
+    protected String decode(int from, int to) {
+        ByteBuffer bytes = buffer.slice(from, to - from);
+        try {
+            CharBuffer chars = utf8.reset().decode(bytes);
+            return chars.toString().trim();
+        } catch (CharacterCodingException ex) {
+            return WINDOWS_1252.decode(buffer.slice(from, to - from)).toString().trim();
+        }
+    }
+
+    // Accepts 1234.56, -1,234.56, 1.234,56 and 1234,56: the last separator followed by one or two digits
+    // is the decimal one, any other is grouping
+    static BigDecimal parseAmount(String text) {
+        String value = text.replace(" ", "").replace("+", "");
+        int decimal = Math.max(value.lastIndexOf('.'), value.lastIndexOf(','));
+        if (decimal >= 0 && value.length() - decimal - 1 > 2) {
+            decimal = -1;
+        }
+        StringBuilder digits = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (i == decimal) {
+                digits.append('.');
+            } else if (c != '.' && c != ',') {
+                digits.append(c);
+            }
+        }
+        try {
+            return new BigDecimal(digits.toString());
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Invalid amount: " + text);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.moneycontrol.api.importer;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// One statement entry as the bank wrote it: the amount is signed, negative for money going out.
+// currency and category are null when the file doesn't carry them
+public record StatementRow(LocalDateTime date, BigDecimal amount, String payee, String memo, String category,
+                           String currency) {
+}
@@ -0,0 +1,51 @@
+package com.moneycontrol.api.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Manifest entry of a columnar segment holding transactions moved out of the hot table, see ArchiveService
+@Entity
+@Table(name = "archive_segments", indexes = {
+        @Index(name = "idx_archive_segments_user_dates", columnList = "user_id, min_date, max_date")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchiveSegment {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @JsonIgnore
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "archive_year", nullable = false)
+    private Integer year;
+
+    // Rows written to the year later are archived by the next run into another segment
+    @Column(nullable = false)
+    private Integer segment;
+
+    @Column(name = "row_count", nullable = false)
+    private Integer rowCount;
+
+    // Encoded size of the segment in archive_segment_data
+    @Column(name = "data_size", nullable = false)
+    private Long dataSize;
+
+    @Column(name = "min_date", nullable = false)
+    private LocalDateTime minDate;
+
+    @Column(name = "max_date", nullable = false)
+    private LocalDateTime maxDate;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,22 @@
+package com.moneycontrol.api.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Encoded rows of an archive segment, apart from the manifest so listing segments doesn't load them
+@Entity
+@Table(name = "archive_segment_data")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchiveSegmentData {
+
+    @Id
+    @Column(name = "segment_id")
+    private Long segmentId;
+
+    @Column(nullable = false, columnDefinition = "bytea")
+    private byte[] data;
+}
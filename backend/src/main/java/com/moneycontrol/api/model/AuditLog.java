@@ -0,0 +1,48 @@
+package com.moneycontrol.api.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Written in batches by AuditTrail over JDBC, never through the entity manager
+@Entity
+@Table(name = "audit_log", indexes = {
+        @Index(name = "idx_audit_log_user_occurred_at", columnList = "user_id, occurred_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuditLog {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private LocalDateTime occurredAt;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Action action;
+
+    // Null for failed logins of unknown emails and for DROPPED markers
+    private Long userId;
+
+    private String principal;
+
+    @Enumerated(EnumType.STRING)
+    private OutboxEvent.AggregateType entityType;
+
+    private Long entityId;
+
+    private String remoteAddress;
+
+    private String detail;
+
+    public enum Action {
+        LOGIN, LOGIN_FAILED, REGISTER, CREATE, UPDATE, DELETE, RESTORE, DROPPED
+    }
+}
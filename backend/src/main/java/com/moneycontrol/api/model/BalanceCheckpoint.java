@@ -0,0 +1,36 @@
+package com.moneycontrol.api.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Entity
+@Table(name = "balance_checkpoints",
+        uniqueConstraints = @UniqueConstraint(name = "uk_balance_checkpoints_key",
+                columnNames = {"user_id", "currency", "period_month"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BalanceCheckpoint {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(length = 3, nullable = false)
+    private String currency;
+
+    // First day of the month; the balance is the running total of every transaction up to its end
+    @Column(name = "period_month", nullable = false)
+    private LocalDate periodMonth;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal balance;
+}
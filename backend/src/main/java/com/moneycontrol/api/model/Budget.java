@@ -0,0 +1,39 @@
+package com.moneycontrol.api.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Entity
+@Table(name = "budgets",
+        uniqueConstraints = @UniqueConstraint(name = "uk_budgets_user_category", columnNames = {"user_id", "category_id"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Budget {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Monthly spending limit for the category
+    @NotNull
+    @Positive(message = "Amount must be greater than zero")
+    private BigDecimal amount;
+
+    @ManyToOne
+    @JoinColumn(name = "category_id", nullable = false)
+    @JsonIgnoreProperties({"transactions"})
+    private Category category;
+
+    @ManyToOne
+    @JoinColumn(name = "user_id", nullable = false)
+    @JsonIgnoreProperties({"transactions", "goals", "password", "authorities"})
+    private User user;
+}
@@ -0,0 +1,34 @@
+package com.moneycontrol.api.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+// One row per category and month a user spends in under a budget. Locked while the spend is checked
+// against the alert thresholds, see BudgetService.onSpendIncreased
+@Entity
+@Table(name = "budget_periods",
+        uniqueConstraints = @UniqueConstraint(name = "uk_budget_periods_key",
+                columnNames = {"user_id", "category_id", "period_month"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BudgetPeriod {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "category_id", nullable = false)
+    private Long categoryId;
+
+    // First day of the month
+    @Column(name = "period_month", nullable = false)
+    private LocalDate periodMonth;
+}
@@ -0,0 +1,32 @@
+package com.moneycontrol.api.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Imported rows whose payee or memo contains the pattern (case and accents ignored) get the category
+@Entity
+@Table(name = "category_rules", indexes = {
+        @Index(name = "idx_category_rules_user", columnList = "user_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryRule {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @JsonIgnore
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(nullable = false, length = 100)
+    private String pattern;
+
+    @Column(name = "category_id", nullable = false)
+    private Long categoryId;
+}
@@ -0,0 +1,46 @@
+package com.moneycontrol.api.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Entity
+@Table(name = "category_spend_rollups",
+        uniqueConstraints = @UniqueConstraint(name = "uk_category_spend_rollups_key",
+                columnNames = {"user_id", "period_month", "type", "category_id", "currency"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategorySpendRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "category_id", nullable = false)
+    private Long categoryId;
+
+    // First day of the month the totals belong to
+    @Column(name = "period_month", nullable = false)
+    private LocalDate periodMonth;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Transaction.TransactionType type;
+
+    @Column(length = 3, nullable = false)
+    private String currency;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal total;
+
+    @Column(name = "tx_count", nullable = false)
+    private long txCount;
+}
@@ -0,0 +1,31 @@
+package com.moneycontrol.api.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Transactions the nightly dedupe report found to be likely copies of each other
+@Entity
+@Table(name = "duplicate_groups", indexes = @Index(name = "idx_duplicate_groups_user", columnList = "user_id"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DuplicateGroup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    // Comma separated, oldest first
+    @Column(name = "transaction_ids", nullable = false, columnDefinition = "text")
+    private String transactionIds;
+
+    @Column(name = "detected_at", nullable = false)
+    private LocalDateTime detectedAt;
+}
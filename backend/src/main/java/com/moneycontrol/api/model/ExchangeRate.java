@@ -0,0 +1,28 @@
+package com.moneycontrol.api.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "exchange_rates")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExchangeRate {
+
+    @Id
+    @Column(length = 3)
+    private String currency;
+
+    // Units of the base currency (app.currency.base) for one unit of this currency
+    @Column(nullable = false, precision = 19, scale = 8)
+    private BigDecimal rate;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
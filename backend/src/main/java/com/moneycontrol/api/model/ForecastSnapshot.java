@@ -0,0 +1,32 @@
+package com.moneycontrol.api.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Last computed cash-flow forecast of a user, served by GET /api/analytics/forecast, see ForecastService
+@Entity
+@Table(name = "forecast_snapshots",
+        uniqueConstraints = @UniqueConstraint(name = "uk_forecast_snapshots_user", columnNames = "user_id"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ForecastSnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "computed_at", nullable = false)
+    private LocalDateTime computedAt;
+
+    // CashFlowForecast as JSON
+    @Column(columnDefinition = "text", nullable = false)
+    private String payload;
+}
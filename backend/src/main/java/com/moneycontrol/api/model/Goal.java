@@ -9,12 +9,18 @@ import jakarta.validation.constraints.Positive;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.SQLRestriction;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "goals")
+@Table(name = "goals", indexes = {
+        @Index(name = "idx_goals_user_target_date", columnList = "user_id, target_date"),
+        @Index(name = "idx_goals_user_change_seq", columnList = "user_id, change_seq, id")
+})
+@SQLRestriction("deleted_at IS NULL")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -24,6 +30,9 @@ public class Goal {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @Version
+    private Long version;
+
     @NotBlank
     private String name;
 
@@ -45,4 +54,12 @@ public class Goal {
     @JoinColumn(name = "user_id")
     @JsonIgnoreProperties({"transactions", "goals", "password", "authorities"})
     private User user;
+
+    // Soft delete: rows stay restorable until the trash purge removes them
+    @Column(name = "deleted_at")
+    private LocalDateTime deletedAt;
+
+    // Position in the owner's change sequence, set on every write including deletes, see SyncService
+    @Column(name = "change_seq", nullable = false)
+    private Long changeSeq;
 }
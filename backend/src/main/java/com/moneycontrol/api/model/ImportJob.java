@@ -0,0 +1,82 @@
+package com.moneycontrol.api.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.moneycontrol.api.importer.StatementFormat;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "import_jobs", indexes = {
+        @Index(name = "idx_import_jobs_user", columnList = "user_id, id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @JsonIgnore
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private StatementFormat format;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Status status;
+
+    // Progress: bytes of the file parsed so far, updated after each batch
+    @Column(nullable = false)
+    private long fileSize;
+
+    @Column(nullable = false)
+    private long bytesRead;
+
+    @Column(nullable = false)
+    private int imported;
+
+    // Rows already stored by an earlier import of an overlapping statement
+    @Column(nullable = false)
+    private int skipped;
+
+    // Rows that couldn't be read, the first reason is kept in error
+    @Column(nullable = false)
+    private int rejected;
+
+    @Column(columnDefinition = "text")
+    private String error;
+
+    @JsonIgnore
+    private String filePath;
+
+    // Node running the job and its last sign of life, a job nobody touches anymore is failed by any node
+    @JsonIgnore
+    @Column(name = "owner_node", length = 36)
+    private String ownerNode;
+
+    @JsonIgnore
+    @Column(name = "heartbeat_at")
+    private LocalDateTime heartbeatAt;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime finishedAt;
+
+    public int getPercent() {
+        return fileSize == 0 ? 100 : (int) (bytesRead * 100 / fileSize);
+    }
+
+    public enum Status {
+        PENDING, RUNNING, DONE, FAILED
+    }
+}
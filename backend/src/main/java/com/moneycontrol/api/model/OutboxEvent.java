@@ -0,0 +1,61 @@
+package com.moneycontrol.api.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "outbox_events", indexes = {
+        @Index(name = "idx_outbox_events_published_at", columnList = "published_at, id"),
+        @Index(name = "idx_outbox_events_stream_seq", columnList = "stream_seq", unique = true)
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private AggregateType aggregateType;
+
+    @Column(nullable = false)
+    private Long aggregateId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private EventType eventType;
+
+    // Null for shared aggregates such as categories
+    private Long userId;
+
+    @Column(columnDefinition = "text")
+    private String payload;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime publishedAt;
+
+    // Set while a relay is publishing the event; a relay that dies leaves it to expire and be retried
+    private LocalDateTime claimedUntil;
+
+    // Position in the event stream, given by the relay when it first claims the event. Ids are taken at
+    // insert time and can commit out of order, the stream position follows the order events become visible
+    @Column(name = "stream_seq")
+    private Long streamSeq;
+
+    public enum AggregateType {
+        TRANSACTION, GOAL, CATEGORY, BUDGET
+    }
+
+    public enum EventType {
+        CREATED, UPDATED, DELETED, THRESHOLD_CROSSED
+    }
+}
@@ -0,0 +1,75 @@
+package com.moneycontrol.api.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "report_jobs", indexes = {
+        @Index(name = "idx_report_jobs_user_key", columnList = "user_id, report_year, format, currency, data_version")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @JsonIgnore
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "report_year", nullable = false)
+    private Integer year;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Format format;
+
+    @Column(length = 3, nullable = false)
+    private String currency;
+
+    // The user's change sequence when the job started, a newer one means the report is out of date
+    @Column(name = "data_version", nullable = false)
+    private Long dataVersion;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Status status;
+
+    @JsonIgnore
+    private String filePath;
+
+    private Long fileSize;
+
+    @Column(columnDefinition = "text")
+    private String error;
+
+    // Node running the job and its last sign of life, a job nobody touches anymore is failed by any node
+    @JsonIgnore
+    @Column(name = "owner_node", length = 36)
+    private String ownerNode;
+
+    @JsonIgnore
+    @Column(name = "heartbeat_at")
+    private LocalDateTime heartbeatAt;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime finishedAt;
+
+    public enum Format {
+        CSV, PDF
+    }
+
+    public enum Status {
+        PENDING, RUNNING, DONE, FAILED
+    }
+}
@@ -0,0 +1,22 @@
+package com.moneycontrol.api.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Last change sequence handed out to a user, see SyncService
+@Entity
+@Table(name = "sync_sequences")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncSequence {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "last_seq", nullable = false)
+    private Long lastSeq;
+}
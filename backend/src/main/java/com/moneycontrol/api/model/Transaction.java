@@ -1,6 +1,8 @@
 package com.moneycontrol.api.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -8,12 +10,19 @@ import jakarta.validation.constraints.Positive;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.SQLRestriction;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Entity
-@Table(name = "transactions")
+@Table(name = "transactions", indexes = {
+        @Index(name = "idx_transactions_user_date", columnList = "user_id, date"),
+        @Index(name = "idx_transactions_user_change_seq", columnList = "user_id, change_seq, id"),
+        @Index(name = "idx_transactions_user_fingerprint", columnList = "user_id, fingerprint")
+})
+@SQLRestriction("deleted_at IS NULL")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -23,6 +32,9 @@ public class Transaction {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @Version
+    private Long version;
+
     @NotBlank
     private String description;
 
@@ -30,6 +42,11 @@ public class Transaction {
     @Positive(message = "Amount must be greater than zero")
     private BigDecimal amount;
 
+    // ISO 4217 code, see app.currency.base
+    @NotNull
+    @Column(length = 3, nullable = false)
+    private String currency;
+
     @NotNull
     private LocalDateTime date;
 
@@ -47,6 +64,28 @@ public class Transaction {
     @JsonIgnoreProperties({"transactions", "goals", "password", "authorities"})
     private User user;
 
+    // Soft delete: rows stay restorable until the trash purge removes them
+    @Column(name = "deleted_at")
+    private LocalDateTime deletedAt;
+
+    // Position in the owner's change sequence, set on every write including deletes, see SyncService
+    @Column(name = "change_seq", nullable = false)
+    private Long changeSeq;
+
+    // Hash of type, currency, amount and day, shared by likely duplicates, see DuplicateDetectionService
+    @JsonIgnore
+    private Long fingerprint;
+
+    // Only filled in the response to a create
+    @Transient
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<Long> possibleDuplicateIds;
+
+    // Read from an archive segment, see ArchiveService; such rows can't be changed
+    @Transient
+    @JsonInclude(JsonInclude.Include.NON_DEFAULT)
+    private boolean archived;
+
     public enum TransactionType {
         INCOME, EXPENSE
     }
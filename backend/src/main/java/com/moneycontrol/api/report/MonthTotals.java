@@ -0,0 +1,7 @@
+package com.moneycontrol.api.report;
+
+import java.time.YearMonth;
+
+// Minor units of the report currency, see Money
+public record MonthTotals(YearMonth month, long income, long expense, long count) {
+}
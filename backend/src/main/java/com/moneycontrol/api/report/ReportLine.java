@@ -0,0 +1,10 @@
+package com.moneycontrol.api.report;
+
+import com.moneycontrol.api.model.Transaction;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public record ReportLine(LocalDateTime date, String description, String category,
+                         Transaction.TransactionType type, String currency, BigDecimal amount) {
+}
@@ -0,0 +1,411 @@
+package com.moneycontrol.api.report;
+
+import com.moneycontrol.api.archive.ArchiveService;
+import com.moneycontrol.api.currency.ExchangeRateService;
+import com.moneycontrol.api.currency.Money;
+import com.moneycontrol.api.dto.ReportRequest;
+import com.moneycontrol.api.exception.ReportNotReadyException;
+import com.moneycontrol.api.exception.ResourceNotFoundException;
+import com.moneycontrol.api.exception.TooManyReportJobsException;
+import com.moneycontrol.api.model.ReportJob;
+import com.moneycontrol.api.model.Transaction;
+import com.moneycontrol.api.model.User;
+import com.moneycontrol.api.repository.ReportJobRepository;
+import com.moneycontrol.api.repository.SyncSequenceRepository;
+import com.moneycontrol.api.repository.TransactionRepository;
+import com.moneycontrol.api.service.UserService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+// Annual statements built in the background: each month is computed in parallel on a bounded pool,
+// CSV rows are streamed to part files and joined in order, so memory use doesn't grow with the year
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ReportService {
+
+    private static final List<ReportJob.Status> REUSABLE = List.of(
+            ReportJob.Status.PENDING, ReportJob.Status.RUNNING, ReportJob.Status.DONE);
+    private static final List<ReportJob.Status> UNFINISHED = List.of(ReportJob.Status.PENDING, ReportJob.Status.RUNNING);
+    private static final int ERROR_LENGTH = 2000;
+
+    private final ReportJobRepository reportJobRepository;
+    private final TransactionRepository transactionRepository;
+    private final SyncSequenceRepository syncSequenceRepository;
+    private final UserService userService;
+    private final ExchangeRateService exchangeRateService;
+    private final ArchiveService archiveService;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<Long, Semaphore> activeJobsByUser = new ConcurrentHashMap<>();
+    private final String nodeId = UUID.randomUUID().toString();
+    private TransactionTemplate readOnlyTemplate;
+    private ExecutorService jobExecutor;
+    private ForkJoinPool monthPool;
+    private Path directory;
+
+    @Value("${app.reports.dir:${java.io.tmpdir}/moneycontrol-reports}")
+    private String reportsDir;
+
+    @Value("${app.reports.job-threads:2}")
+    private int jobThreads;
+
+    @Value("${app.reports.month-parallelism:4}")
+    private int monthParallelism;
+
+    @Value("${app.reports.max-active-per-user:2}")
+    private int maxActivePerUser;
+
+    @Value("${app.reports.retention-hours:24}")
+    private long retentionHours;
+
+    @Value("${app.reports.list-limit:20}")
+    private int listLimit;
+
+    @Value("${app.reports.stale-after-ms:120000}")
+    private long staleAfterMs;
+
+    @PostConstruct
+    void init() throws IOException {
+        directory = Files.createDirectories(Path.of(reportsDir));
+        readOnlyTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        readOnlyTemplate.setReadOnly(true);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        jobExecutor = Executors.newFixedThreadPool(jobThreads, runnable -> {
+            Thread thread = new Thread(runnable, "report-job-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        monthPool = new ForkJoinPool(monthParallelism);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobExecutor.shutdownNow();
+        monthPool.shutdownNow();
+    }
+
+    // Keeps this node's jobs alive and fails the ones whose node stopped touching them, which were
+    // interrupted by a restart or a crash; jobs still running on other replicas are left alone
+    @Scheduled(fixedDelayString = "${app.reports.heartbeat-ms:30000}")
+    public void heartbeat() {
+        LocalDateTime now = LocalDateTime.now();
+        Integer failed = transactionTemplate.execute(status -> {
+            reportJobRepository.touch(nodeId, UNFINISHED, now);
+            return reportJobRepository.failStale(UNFINISHED, ReportJob.Status.FAILED,
+                    "Interrupted by a restart, submit it again", now, now.minusNanos(staleAfterMs * 1_000_000));
+        });
+        if (failed != null && failed > 0) {
+            log.warn("Marked {} interrupted report jobs as failed", failed);
+        }
+    }
+
+    public ReportJob submit(ReportRequest request, String email) {
+        User user = userService.getCurrentUser(email);
+        String currency = exchangeRateService.normalize(request.getCurrency());
+        long dataVersion = syncSequenceRepository.findLastSeq(user.getId()).orElse(0L);
+
+        // The same report over unchanged data: hand out the finished or still running job
+        Optional<ReportJob> existing = reportJobRepository
+                .findFirstByUserIdAndYearAndFormatAndCurrencyAndDataVersionAndStatusInOrderByIdDesc(
+                        user.getId(), request.getYear(), request.getFormat(), currency, dataVersion, REUSABLE);
+        if (existing.isPresent() && (existing.get().getStatus() != ReportJob.Status.DONE
+                || Files.exists(Path.of(existing.get().getFilePath())))) {
+            return existing.get();
+        }
+
+        Semaphore slots = activeJobsByUser.computeIfAbsent(user.getId(), id -> new Semaphore(maxActivePerUser));
+        if (!slots.tryAcquire()) {
+            throw new TooManyReportJobsException(
+                    "At most " + maxActivePerUser + " reports are generated at a time, wait for the running ones");
+        }
+        try {
+            ReportJob job = reportJobRepository.save(new ReportJob(null, user.getId(), request.getYear(),
+                    request.getFormat(), currency, dataVersion, ReportJob.Status.PENDING, null, null, null,
+                    nodeId, LocalDateTime.now(), LocalDateTime.now(), null));
+            jobExecutor.execute(() -> run(job.getId(), slots));
+            return job;
+        } catch (RuntimeException ex) {
+            slots.release();
+            throw ex;
+        }
+    }
+
+    public List<ReportJob> getJobs(String email) {
+        User user = userService.getCurrentUser(email);
+        return reportJobRepository.findByUserIdOrderByIdDesc(user.getId(), Limit.of(listLimit));
+    }
+
+    public ReportJob getJob(Long id, String email) {
+        User user = userService.getCurrentUser(email);
+        return reportJobRepository.findByIdAndUserId(id, user.getId())
+                .orElseThrow(() -> new ResourceNotFoundException("Report not found with id: " + id));
+    }
+
+    public ReportJob getFinishedJob(Long id, String email) {
+        ReportJob job = getJob(id, email);
+        if (job.getStatus() == ReportJob.Status.FAILED) {
+            throw new ReportNotReadyException("Report failed: " + job.getError());
+        }
+        if (job.getStatus() != ReportJob.Status.DONE) {
+            throw new ReportNotReadyException("Report is " + job.getStatus() + ", poll GET /api/reports/" + id);
+        }
+        if (!Files.exists(Path.of(job.getFilePath()))) {
+            throw new ResourceNotFoundException("Report file expired, submit the report again");
+        }
+        return job;
+    }
+
+    @Scheduled(cron = "${app.reports.cleanup-cron:0 30 * * * *}")
+    public void deleteExpired() {
+        List<ReportJob> expired = reportJobRepository.findByCreatedAtBefore(LocalDateTime.now().minusHours(retentionHours))
+                .stream()
+                .filter(job -> !UNFINISHED.contains(job.getStatus()))
+                .toList();
+        for (ReportJob job : expired) {
+            if (job.getFilePath() != null) {
+                deleteQuietly(Path.of(job.getFilePath()));
+            }
+        }
+        reportJobRepository.deleteAllInBatch(expired);
+    }
+
+    private void run(Long jobId, Semaphore slots) {
+        ReportJob job = reportJobRepository.findById(jobId).orElseThrow();
+        try {
+            job.setStatus(ReportJob.Status.RUNNING);
+            job.setHeartbeatAt(LocalDateTime.now());
+            reportJobRepository.save(job);
+
+            List<CompletableFuture<MonthTotals>> chunks = IntStream.rangeClosed(1, 12)
+                    .mapToObj(month -> YearMonth.of(job.getYear(), month))
+                    .map(month -> CompletableFuture.supplyAsync(() -> computeMonth(job, month), monthPool))
+                    .toList();
+            // Waits for every chunk, even after a failure, so no part file is still being written below
+            CompletableFuture.allOf(chunks.toArray(CompletableFuture[]::new)).handle((result, ex) -> null).join();
+            List<MonthTotals> months = chunks.stream().map(CompletableFuture::join).toList();
+
+            Path target = directory.resolve(job.getId() + "." + job.getFormat().name().toLowerCase());
+            Path partial = directory.resolve(job.getId() + ".tmp");
+            try (OutputStream out = Files.newOutputStream(partial)) {
+                if (job.getFormat() == ReportJob.Format.CSV) {
+                    writeCsv(job, out);
+                } else {
+                    writePdf(job, months, out);
+                }
+            }
+            Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            job.setStatus(ReportJob.Status.DONE);
+            job.setFilePath(target.toString());
+            job.setFileSize(Files.size(target));
+        } catch (Exception ex) {
+            log.error("Report job {} failed", job.getId(), ex);
+            job.setStatus(ReportJob.Status.FAILED);
+            job.setError(truncate(ex.getCause() != null ? ex.getCause().getMessage() : ex.getMessage()));
+            deleteQuietly(directory.resolve(job.getId() + ".tmp"));
+        } finally {
+            // The slot is given back first, a failing save below must not keep the user locked out
+            slots.release();
+            IntStream.rangeClosed(1, 12).forEach(month -> deleteQuietly(partFile(job, YearMonth.of(job.getYear(), month))));
+            job.setFinishedAt(LocalDateTime.now());
+            reportJobRepository.save(job);
+        }
+    }
+
+    private static String truncate(String error) {
+        return error != null && error.length() > ERROR_LENGTH ? error.substring(0, ERROR_LENGTH) : error;
+    }
+
+    // Each month in its own read-only transaction on a pool thread
+    private MonthTotals computeMonth(ReportJob job, YearMonth month) {
+        LocalDateTime from = month.atDay(1).atStartOfDay();
+        LocalDateTime to = month.plusMonths(1).atDay(1).atStartOfDay();
+        return readOnlyTemplate.execute(status -> job.getFormat() == ReportJob.Format.CSV
+                ? streamMonth(job, month, from, to)
+                : sumMonth(job, month, from, to));
+    }
+
+    // The PDF only needs totals, which the database and the archive sum per type and currency
+    private MonthTotals sumMonth(ReportJob job, YearMonth month, LocalDateTime from, LocalDateTime to) {
+        long income = 0;
+        long expense = 0;
+        long count = 0;
+        for (Object[] row : Stream.concat(
+                transactionRepository.sumByTypeAndCurrencyBetween(job.getUserId(), from, to).stream(),
+                archiveService.sumByTypeAndCurrency(job.getUserId(), from, to).stream()).toList()) {
+            long amount = exchangeRateService.convert(Money.of((BigDecimal) row[2]), (String) row[1], job.getCurrency())
+                    .minorUnits();
+            if (row[0] == Transaction.TransactionType.INCOME) {
+                income = Money.add(income, amount);
+            } else {
+                expense = Money.add(expense, amount);
+            }
+            count += (Long) row[3];
+        }
+        return new MonthTotals(month, income, expense, count);
+    }
+
+    private MonthTotals streamMonth(ReportJob job, YearMonth month, LocalDateTime from, LocalDateTime to) {
+        long income = 0;
+        long expense = 0;
+        long count = 0;
+        try (Stream<ReportLine> lines = transactionRepository.streamReportLines(job.getUserId(), from, to);
+             BufferedWriter writer = Files.newBufferedWriter(partFile(job, month), StandardCharsets.UTF_8)) {
+            Iterator<ReportLine> iterator = mergeByDate(lines.iterator(),
+                    archiveService.findReportLines(job.getUserId(), from, to).iterator());
+            while (iterator.hasNext()) {
+                ReportLine line = iterator.next();
+                Money converted = exchangeRateService.convert(Money.of(line.amount()), line.currency(), job.getCurrency());
+                writer.write(String.join(",", line.date().toString(), csv(line.description()), csv(line.category()),
+                        line.type().name(), line.currency(), line.amount().toPlainString(),
+                        converted.toBigDecimal().toPlainString()));
+                writer.write("\r\n");
+
+                if (line.type() == Transaction.TransactionType.INCOME) {
+                    income = Money.add(income, converted.minorUnits());
+                } else {
+                    expense = Money.add(expense, converted.minorUnits());
+                }
+                count++;
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return new MonthTotals(month, income, expense, count);
+    }
+
+    // Live rows of an archived month are usually few backdated entries, merged in so the file stays in date order
+    private static Iterator<ReportLine> mergeByDate(Iterator<ReportLine> live, Iterator<ReportLine> archived) {
+        if (!archived.hasNext()) {
+            return live;
+        }
+        PeekingIterator first = new PeekingIterator(live);
+        PeekingIterator second = new PeekingIterator(archived);
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return first.peek() != null || second.peek() != null;
+            }
+
+            @Override
+            public ReportLine next() {
+                if (second.peek() == null
+                        || (first.peek() != null && !first.peek().date().isAfter(second.peek().date()))) {
+                    return first.next();
+                }
+                return second.next();
+            }
+        };
+    }
+
+    private static final class PeekingIterator {
+
+        private final Iterator<ReportLine> source;
+        private ReportLine next;
+
+        private PeekingIterator(Iterator<ReportLine> source) {
+            this.source = source;
+            this.next = source.hasNext() ? source.next() : null;
+        }
+
+        private ReportLine peek() {
+            return next;
+        }
+
+        private ReportLine next() {
+            ReportLine current = next;
+            next = source.hasNext() ? source.next() : null;
+            return current;
+        }
+    }
+
+    private void writeCsv(ReportJob job, OutputStream out) throws IOException {
+        out.write(("date,description,category,type,currency,amount,amount_" + job.getCurrency().toLowerCase() + "\r\n")
+                .getBytes(StandardCharsets.UTF_8));
+        for (int month = 1; month <= 12; month++) {
+            Files.copy(partFile(job, YearMonth.of(job.getYear(), month)), out);
+        }
+    }
+
+    private void writePdf(ReportJob job, List<MonthTotals> months, OutputStream out) throws IOException {
+        SimplePdf pdf = new SimplePdf()
+                .line("Money Control - Annual statement " + job.getYear())
+                .line("Amounts in " + job.getCurrency() + ", generated " + LocalDateTime.now().withNano(0))
+                .line("")
+                .line(String.format("%-8s %16s %16s %16s %8s", "Month", "Income", "Expense", "Balance", "Count"));
+        long income = 0;
+        long expense = 0;
+        long count = 0;
+        for (MonthTotals month : months) {
+            pdf.line(statementRow(month.month().toString(), month.income(), month.expense(), month.count()));
+            income = Money.add(income, month.income());
+            expense = Money.add(expense, month.expense());
+            count += month.count();
+        }
+        pdf.line("").line(statementRow("Total", income, expense, count));
+        pdf.writeTo(out);
+    }
+
+    private static String statementRow(String label, long income, long expense, long count) {
+        return String.format("%-8s %16s %16s %16s %8d", label, Money.toBigDecimal(income).toPlainString(),
+                Money.toBigDecimal(expense).toPlainString(),
+                Money.toBigDecimal(Math.subtractExact(income, expense)).toPlainString(), count);
+    }
+
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+
+    private Path partFile(ReportJob job, YearMonth month) {
+        return directory.resolve(job.getId() + "-" + month + ".part");
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ex) {
+            log.warn("Could not delete {}", path, ex);
+        }
+    }
+}
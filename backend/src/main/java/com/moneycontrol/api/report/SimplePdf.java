@@ -0,0 +1,86 @@
+package com.moneycontrol.api.report;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+// Just enough PDF for a text statement: monospaced lines on A4 pages, so no PDF library is needed
+final class SimplePdf {
+
+    private static final int LINES_PER_PAGE = 64;
+
+    private final List<String> lines = new ArrayList<>();
+
+    SimplePdf line(String text) {
+        lines.add(text);
+        return this;
+    }
+
+    void writeTo(OutputStream out) throws IOException {
+        List<List<String>> pages = new ArrayList<>();
+        for (int i = 0; i < Math.max(lines.size(), 1); i += LINES_PER_PAGE) {
+            pages.add(lines.subList(Math.min(i, lines.size()), Math.min(i + LINES_PER_PAGE, lines.size())));
+        }
+
+        // Objects 1-3 are the catalog, the page tree and the font, then a page and its content per page
+        List<String> objects = new ArrayList<>();
+        objects.add("<< /Type /Catalog /Pages 2 0 R >>");
+        StringBuilder kids = new StringBuilder();
+        for (int i = 0; i < pages.size(); i++) {
+            kids.append(4 + 2 * i).append(" 0 R ");
+        }
+        objects.add("<< /Type /Pages /Kids [" + kids + "] /Count " + pages.size() + " >>");
+        objects.add("<< /Type /Font /Subtype /Type1 /BaseFont /Courier /Encoding /WinAnsiEncoding >>");
+        for (int i = 0; i < pages.size(); i++) {
+            objects.add("<< /Type /Page /Parent 2 0 R /MediaBox [0 0 595 842] " +
+                    "/Resources << /Font << /F1 3 0 R >> >> /Contents " + (5 + 2 * i) + " 0 R >>");
+            String content = content(pages.get(i));
+            objects.add("<< /Length " + content.getBytes(StandardCharsets.ISO_8859_1).length + " >>\nstream\n" +
+                    content + "\nendstream");
+        }
+
+        ByteArrayOutputStream pdf = new ByteArrayOutputStream();
+        write(pdf, "%PDF-1.4\n");
+        List<Integer> offsets = new ArrayList<>();
+        for (int i = 0; i < objects.size(); i++) {
+            offsets.add(pdf.size());
+            write(pdf, (i + 1) + " 0 obj\n" + objects.get(i) + "\nendobj\n");
+        }
+        int xref = pdf.size();
+        StringBuilder trailer = new StringBuilder("xref\n0 " + (objects.size() + 1) + "\n0000000000 65535 f \n");
+        for (int offset : offsets) {
+            trailer.append(String.format("%010d 00000 n \n", offset));
+        }
+        trailer.append("trailer\n<< /Size ").append(objects.size() + 1).append(" /Root 1 0 R >>\n")
+                .append("startxref\n").append(xref).append("\n%%EOF\n");
+        write(pdf, trailer.toString());
+        pdf.writeTo(out);
+    }
+
+    private static String content(List<String> page) {
+        StringBuilder content = new StringBuilder("BT /F1 9 Tf 12 TL 40 800 Td\n");
+        for (String line : page) {
+            content.append('(').append(escape(line)).append(") Tj T*\n");
+        }
+        return content.append("ET").toString();
+    }
+
+    private static String escape(String text) {
+        StringBuilder escaped = new StringBuilder();
+        for (char c : text.toCharArray()) {
+            if (c == '\\' || c == '(' || c == ')') {
+                escaped.append('\\').append(c);
+            } else {
+                escaped.append(c <= 0xFF && c >= 0x20 ? c : '?');
+            }
+        }
+        return escaped.toString();
+    }
+
+    private static void write(ByteArrayOutputStream out, String text) {
+        out.writeBytes(text.getBytes(StandardCharsets.ISO_8859_1));
+    }
+}
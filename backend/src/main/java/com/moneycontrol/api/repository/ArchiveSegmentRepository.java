@@ -0,0 +1,22 @@
+package com.moneycontrol.api.repository;
+
+import com.moneycontrol.api.model.ArchiveSegment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ArchiveSegmentRepository extends JpaRepository<ArchiveSegment, Long> {
+    List<ArchiveSegment> findByUserIdOrderByYearAscSegmentAsc(Long userId);
+    List<ArchiveSegment> findByUserIdInOrderByYearAscSegmentAsc(Collection<Long> userIds);
+    int countByUserIdAndYear(Long userId, Integer year);
+
+    // Segments holding rows with from <= date < to
+    @Query("SELECT s FROM ArchiveSegment s WHERE s.userId = :userId AND s.minDate < :to AND s.maxDate >= :from " +
+            "ORDER BY s.minDate")
+    List<ArchiveSegment> findOverlapping(Long userId, LocalDateTime from, LocalDateTime to);
+}
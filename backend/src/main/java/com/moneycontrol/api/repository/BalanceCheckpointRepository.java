@@ -0,0 +1,40 @@
+package com.moneycontrol.api.repository;
+
+import com.moneycontrol.api.model.BalanceCheckpoint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface BalanceCheckpointRepository extends JpaRepository<BalanceCheckpoint, Long> {
+
+    // A change dated in some month moves the closing balance of that month and every later one
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE BalanceCheckpoint c SET c.balance = c.balance + :delta " +
+            "WHERE c.userId = :userId AND c.currency = :currency AND c.periodMonth >= :periodMonth")
+    int shiftFrom(Long userId, String currency, LocalDate periodMonth, BigDecimal delta);
+
+    boolean existsByUserIdAndCurrencyAndPeriodMonth(Long userId, String currency, LocalDate periodMonth);
+
+    // Scalar, so it reads the database and not an entity the shifts above left stale
+    @Query("SELECT c.balance FROM BalanceCheckpoint c " +
+            "WHERE c.userId = :userId AND c.currency = :currency AND c.periodMonth < :periodMonth " +
+            "ORDER BY c.periodMonth DESC")
+    List<BigDecimal> findBalanceBefore(Long userId, String currency, LocalDate periodMonth, Limit limit);
+
+    // Per currency, the last checkpoint before the month: currency, balance
+    @Query("SELECT c.currency, c.balance FROM BalanceCheckpoint c WHERE c.userId = :userId AND c.periodMonth = " +
+            "(SELECT MAX(p.periodMonth) FROM BalanceCheckpoint p " +
+            "WHERE p.userId = c.userId AND p.currency = c.currency AND p.periodMonth < :periodMonth)")
+    List<Object[]> findLatestBefore(Long userId, LocalDate periodMonth);
+
+    @Modifying
+    @Query("DELETE FROM BalanceCheckpoint c WHERE c.userId = :userId")
+    int deleteByUserId(Long userId);
+}
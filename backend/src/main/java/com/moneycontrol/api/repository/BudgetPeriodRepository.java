@@ -0,0 +1,25 @@
+package com.moneycontrol.api.repository;
+
+import com.moneycontrol.api.model.BudgetPeriod;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+@Repository
+public interface BudgetPeriodRepository extends JpaRepository<BudgetPeriod, Long> {
+
+    // Losing the race to a concurrent writer is fine, the row only has to exist
+    @Modifying
+    @Query(value = "INSERT INTO budget_periods (user_id, category_id, period_month) " +
+            "VALUES (:userId, :categoryId, :periodMonth) ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(Long userId, Long categoryId, LocalDate periodMonth);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<BudgetPeriod> findByUserIdAndCategoryIdAndPeriodMonth(Long userId, Long categoryId, LocalDate periodMonth);
+}
@@ -0,0 +1,21 @@
+package com.moneycontrol.api.repository;
+
+import com.moneycontrol.api.model.Budget;
+import com.moneycontrol.api.model.User;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface BudgetRepository extends JpaRepository<Budget, Long> {
+    Slice<Budget> findSliceByUser(User user, Pageable pageable);
+    long countByUser(User user);
+    List<Budget> findByUser(User user, Limit limit);
+    Optional<Budget> findByUserIdAndCategoryId(Long userId, Long categoryId);
+    boolean existsByUserAndCategoryId(User user, Long categoryId);
+}
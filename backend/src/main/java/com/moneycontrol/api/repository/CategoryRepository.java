@@ -1,15 +1,19 @@
 package com.moneycontrol.api.repository;
 
 import com.moneycontrol.api.model.Category;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface CategoryRepository extends JpaRepository<Category, Long> {
     Optional<Category> findByName(String name);
-    Page<Category> findAll(Pageable pageable);
+    Optional<Category> findFirstByNameIgnoreCase(String name);
+    Slice<Category> findSliceBy(Pageable pageable);
+    List<Category> findAllBy(Limit limit);
 }
@@ -0,0 +1,16 @@
+package com.moneycontrol.api.repository;
+
+import com.moneycontrol.api.model.CategoryRule;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface CategoryRuleRepository extends JpaRepository<CategoryRule, Long> {
+
+    List<CategoryRule> findByUserIdOrderByIdAsc(Long userId);
+
+    Optional<CategoryRule> findByIdAndUserId(Long id, Long userId);
+}
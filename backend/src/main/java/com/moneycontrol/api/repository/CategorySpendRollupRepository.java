@@ -0,0 +1,45 @@
+package com.moneycontrol.api.repository;
+
+import com.moneycontrol.api.model.CategorySpendRollup;
+import com.moneycontrol.api.model.Transaction;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface CategorySpendRollupRepository extends JpaRepository<CategorySpendRollup, Long> {
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE CategorySpendRollup r SET r.total = r.total + :amount, r.txCount = r.txCount + :count " +
+            "WHERE r.userId = :userId AND r.periodMonth = :periodMonth AND r.type = :type " +
+            "AND r.categoryId = :categoryId AND r.currency = :currency")
+    int increment(Long userId, LocalDate periodMonth, Transaction.TransactionType type, Long categoryId,
+                  String currency, BigDecimal amount, long count);
+
+    // First write for a bucket; a concurrent writer may insert it too, the loser waits for it and inserts nothing
+    @Modifying
+    @Query(value = "INSERT INTO category_spend_rollups (user_id, category_id, period_month, type, currency, total, tx_count) " +
+            "VALUES (:userId, :categoryId, :periodMonth, :type, :currency, 0, 0) ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(Long userId, Long categoryId, LocalDate periodMonth, String type, String currency);
+
+    List<CategorySpendRollup> findByUserIdAndPeriodMonthAndTypeAndCategoryId(Long userId, LocalDate periodMonth,
+                                                                           Transaction.TransactionType type,
+                                                                           Long categoryId);
+
+    List<CategorySpendRollup> findByUserIdAndPeriodMonthAndType(Long userId, LocalDate periodMonth,
+                                                              Transaction.TransactionType type);
+
+    @Query("SELECT r.categoryId, r.currency, SUM(r.total), SUM(r.txCount) FROM CategorySpendRollup r " +
+            "WHERE r.userId = :userId AND r.type = :type AND r.periodMonth BETWEEN :from AND :to " +
+            "GROUP BY r.categoryId, r.currency HAVING SUM(r.txCount) > 0")
+    List<Object[]> sumByCategoryAndCurrency(Long userId, Transaction.TransactionType type, LocalDate from, LocalDate to);
+
+    @Modifying
+    @Query("DELETE FROM CategorySpendRollup r WHERE r.userId = :userId")
+    int deleteByUserId(Long userId);
+}
@@ -0,0 +1,18 @@
+package com.moneycontrol.api.repository;
+
+import com.moneycontrol.api.model.DuplicateGroup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface DuplicateGroupRepository extends JpaRepository<DuplicateGroup, Long> {
+    List<DuplicateGroup> findByUserIdOrderByIdAsc(Long userId);
+
+    @Modifying
+    @Query("DELETE FROM DuplicateGroup g WHERE g.userId = :userId")
+    int deleteByUserId(Long userId);
+}
@@ -0,0 +1,9 @@
+package com.moneycontrol.api.repository;
+
+import com.moneycontrol.api.model.ExchangeRate;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ExchangeRateRepository extends JpaRepository<ExchangeRate, String> {
+}
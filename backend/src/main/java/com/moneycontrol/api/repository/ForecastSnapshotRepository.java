@@ -0,0 +1,19 @@
+package com.moneycontrol.api.repository;
+
+import com.moneycontrol.api.model.ForecastSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.Optional;
+
+@Repository
+public interface ForecastSnapshotRepository extends JpaRepository<ForecastSnapshot, Long> {
+    Optional<ForecastSnapshot> findByUserId(Long userId);
+
+    @Modifying
+    @Query("DELETE FROM ForecastSnapshot f WHERE f.userId IN :userIds")
+    int deleteByUserIdIn(Collection<Long> userIds);
+}
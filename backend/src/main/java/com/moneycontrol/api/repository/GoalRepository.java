@@ -2,15 +2,51 @@ package com.moneycontrol.api.repository;
 
 import com.moneycontrol.api.model.Goal;
 import com.moneycontrol.api.model.User;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface GoalRepository extends JpaRepository<Goal, Long> {
-    Page<Goal> findByUser(User user, Pageable pageable);
-    List<Goal> findByUser(User user);
+    Slice<Goal> findSliceByUser(User user, Pageable pageable);
+    long countByUser(User user);
+    List<Goal> findByUser(User user, Limit limit);
+    List<Goal> findByUserIdAndIdIn(Long userId, Collection<Long> ids);
+
+    // Only the columns the forecast needs, for several users at once
+    @Query("SELECT g.user.id, g.id, g.name, g.targetAmount, g.currentAmount, g.targetDate FROM Goal g " +
+            "WHERE g.user.id IN :userIds ORDER BY g.targetDate, g.id")
+    List<Object[]> findForecastInputs(Collection<Long> userIds);
+
+    // Native, so the soft-delete restriction doesn't hide the rows
+    @Query(value = "SELECT * FROM goals WHERE user_id = :userId AND deleted_at >= :since " +
+            "ORDER BY deleted_at DESC LIMIT :maxRows", nativeQuery = true)
+    List<Goal> findDeleted(Long userId, LocalDateTime since, int maxRows);
+
+    @Modifying
+    @Query(value = "UPDATE goals SET deleted_at = NULL, version = version + 1, change_seq = :changeSeq " +
+            "WHERE id = :id AND user_id = :userId AND deleted_at >= :since", nativeQuery = true)
+    int restore(Long id, Long userId, LocalDateTime since, long changeSeq);
+
+    // Everything written after the (changeSeq, id) cursor, deleted rows included, in sequence order
+    @Query(value = "SELECT * FROM goals WHERE user_id = :userId AND change_seq <= :upToSeq " +
+            "AND (change_seq, id) > (:afterSeq, :afterId) ORDER BY change_seq, id LIMIT :maxRows", nativeQuery = true)
+    List<Goal> findChangedAfter(Long userId, long afterSeq, long afterId, long upToSeq, int maxRows);
+
+    // Next purge batch, id and user_id of rows deleted before the cutoff
+    @Query(value = "SELECT id, user_id FROM goals WHERE deleted_at < :cutoff ORDER BY id LIMIT :batchSize",
+            nativeQuery = true)
+    List<Object[]> findPurgeable(LocalDateTime cutoff, int batchSize);
+
+    @Modifying
+    @Query(value = "DELETE FROM goals WHERE id IN :ids", nativeQuery = true)
+    int purge(Collection<Long> ids);
 }
@@ -0,0 +1,40 @@
+package com.moneycontrol.api.repository;
+
+import com.moneycontrol.api.model.IdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, Long> {
+    Optional<IdempotencyKey> findByUserIdAndIdempotencyKey(Long userId, String idempotencyKey);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyKey k WHERE k.expiresAt < :now")
+    int deleteExpired(LocalDateTime now);
+
+    // Rows written before claimedAt existed count as stale
+    @Transactional
+    @Modifying
+    @Query("UPDATE IdempotencyKey k SET k.claimedAt = :now WHERE k.id = :id AND k.status = :status "
+            + "AND (k.claimedAt IS NULL OR k.claimedAt < :staleBefore)")
+    int takeOver(Long id, IdempotencyKey.Status status, LocalDateTime now, LocalDateTime staleBefore);
+
+    // Only matches while the attempt still holds the key, a retry that took it over changed claimedAt
+    @Modifying
+    @Query("UPDATE IdempotencyKey k SET k.status = :status, k.responseStatus = :responseStatus, "
+            + "k.responseBody = :responseBody WHERE k.id = :id AND k.claimedAt = :claimedAt")
+    int complete(Long id, LocalDateTime claimedAt, IdempotencyKey.Status status, Integer responseStatus,
+                 String responseBody);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyKey k WHERE k.id = :id AND k.claimedAt = :claimedAt")
+    int release(Long id, LocalDateTime claimedAt);
+}
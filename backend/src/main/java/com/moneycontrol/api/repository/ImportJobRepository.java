@@ -0,0 +1,34 @@
+package com.moneycontrol.api.repository;
+
+import com.moneycontrol.api.model.ImportJob;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ImportJobRepository extends JpaRepository<ImportJob, Long> {
+
+    Optional<ImportJob> findByIdAndUserId(Long id, Long userId);
+
+    List<ImportJob> findByUserIdOrderByIdDesc(Long userId, Limit limit);
+
+    @Query("SELECT j.filePath FROM ImportJob j WHERE j.status IN :statuses AND j.filePath IS NOT NULL")
+    List<String> findFilePaths(Collection<ImportJob.Status> statuses);
+
+    @Modifying
+    @Query("UPDATE ImportJob j SET j.heartbeatAt = :now WHERE j.ownerNode = :node AND j.status IN :statuses")
+    int touch(String node, Collection<ImportJob.Status> statuses, LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE ImportJob j SET j.status = :status, j.error = :error, j.finishedAt = :now "
+            + "WHERE j.status IN :statuses AND (j.heartbeatAt IS NULL OR j.heartbeatAt < :staleBefore)")
+    int failStale(Collection<ImportJob.Status> statuses, ImportJob.Status status, String error, LocalDateTime now,
+                  LocalDateTime staleBefore);
+}
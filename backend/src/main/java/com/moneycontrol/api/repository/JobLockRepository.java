@@ -0,0 +1,23 @@
+package com.moneycontrol.api.repository;
+
+import com.moneycontrol.api.model.JobLock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface JobLockRepository extends JpaRepository<JobLock, String> {
+
+    // Takes the lease when it expired or the node already holds it
+    @Modifying
+    @Query("UPDATE JobLock l SET l.lockedBy = :node, l.lockedUntil = :until "
+            + "WHERE l.name = :name AND (l.lockedUntil < :now OR l.lockedBy = :node)")
+    int acquire(String name, String node, LocalDateTime now, LocalDateTime until);
+
+    @Modifying
+    @Query("UPDATE JobLock l SET l.lockedUntil = :now WHERE l.name = :name AND l.lockedBy = :node")
+    int release(String name, String node, LocalDateTime now);
+}
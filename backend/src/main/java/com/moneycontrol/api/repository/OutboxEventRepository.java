@@ -0,0 +1,63 @@
+package com.moneycontrol.api.repository;
+
+import com.moneycontrol.api.model.OutboxEvent;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // SKIP LOCKED lets several relays drain the outbox without waiting on each other. Events released
+    // after a failed publish keep their stream position and go out first
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT e FROM OutboxEvent e WHERE e.publishedAt IS NULL " +
+            "AND (e.claimedUntil IS NULL OR e.claimedUntil < :now) ORDER BY e.streamSeq NULLS LAST, e.id")
+    List<OutboxEvent> findClaimable(LocalDateTime now, Pageable pageable);
+
+    // Events the relay has positioned in the stream whether it published them yet or not: the live push
+    // of one still being relayed is dropped by the connection, which skips positions it already sent
+    @Query("SELECT e FROM OutboxEvent e WHERE e.streamSeq > :lastStreamSeq " +
+            "AND (e.userId = :userId OR e.userId IS NULL) ORDER BY e.streamSeq")
+    List<OutboxEvent> findAfter(Long lastStreamSeq, Long userId, Pageable pageable);
+
+    // What every node's event streams read, whichever node's relay positioned the events
+    @Query("SELECT e FROM OutboxEvent e WHERE e.streamSeq > :lastStreamSeq ORDER BY e.streamSeq")
+    List<OutboxEvent> findPositionedAfter(Long lastStreamSeq, Pageable pageable);
+
+    @Query("SELECT MIN(e.streamSeq) FROM OutboxEvent e")
+    Optional<Long> findFirstStreamSeq();
+
+    @Query("SELECT MAX(e.streamSeq) FROM OutboxEvent e")
+    Optional<Long> findLastStreamSeq();
+
+    // One statement for a whole bulk delete; delete events carry no payload
+    @Modifying
+    @Query(value = "INSERT INTO outbox_events (aggregate_type, aggregate_id, event_type, user_id, created_at) " +
+            "SELECT 'TRANSACTION', t.id, :eventType, t.user_id, :createdAt FROM transactions t WHERE t.id IN :ids",
+            nativeQuery = true)
+    int insertTransactionEvents(List<Long> ids, String eventType, LocalDateTime createdAt);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.claimedUntil = NULL WHERE e.id IN :ids AND e.publishedAt IS NULL")
+    int release(List<Long> ids);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.publishedAt = :publishedAt, e.claimedUntil = NULL WHERE e.id IN :ids")
+    int markPublished(List<Long> ids, LocalDateTime publishedAt);
+
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.publishedAt < :cutoff")
+    int deletePublishedBefore(LocalDateTime cutoff);
+}
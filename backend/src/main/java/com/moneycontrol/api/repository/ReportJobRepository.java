@@ -0,0 +1,37 @@
+package com.moneycontrol.api.repository;
+
+import com.moneycontrol.api.model.ReportJob;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ReportJobRepository extends JpaRepository<ReportJob, Long> {
+
+    Optional<ReportJob> findByIdAndUserId(Long id, Long userId);
+
+    List<ReportJob> findByUserIdOrderByIdDesc(Long userId, Limit limit);
+
+    Optional<ReportJob> findFirstByUserIdAndYearAndFormatAndCurrencyAndDataVersionAndStatusInOrderByIdDesc(
+            Long userId, Integer year, ReportJob.Format format, String currency, Long dataVersion,
+            Collection<ReportJob.Status> statuses);
+
+    List<ReportJob> findByCreatedAtBefore(LocalDateTime cutoff);
+
+    @Modifying
+    @Query("UPDATE ReportJob j SET j.heartbeatAt = :now WHERE j.ownerNode = :node AND j.status IN :statuses")
+    int touch(String node, Collection<ReportJob.Status> statuses, LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE ReportJob j SET j.status = :status, j.error = :error, j.finishedAt = :now "
+            + "WHERE j.status IN :statuses AND (j.heartbeatAt IS NULL OR j.heartbeatAt < :staleBefore)")
+    int failStale(Collection<ReportJob.Status> statuses, ReportJob.Status status, String error, LocalDateTime now,
+                  LocalDateTime staleBefore);
+}
@@ -0,0 +1,24 @@
+package com.moneycontrol.api.repository;
+
+import com.moneycontrol.api.model.StreamTicket;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface StreamTicketRepository extends JpaRepository<StreamTicket, String> {
+
+    // Deleting is what uses the ticket: of two requests racing with it, only one deletes the row
+    @Modifying
+    @Query("DELETE FROM StreamTicket t WHERE t.ticketHash = :ticketHash AND t.expiresAt > :now")
+    int consume(String ticketHash, LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM StreamTicket t WHERE t.expiresAt < :now")
+    int deleteExpired(LocalDateTime now);
+}
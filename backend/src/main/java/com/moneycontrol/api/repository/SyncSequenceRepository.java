@@ -0,0 +1,32 @@
+package com.moneycontrol.api.repository;
+
+import com.moneycontrol.api.model.SyncSequence;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface SyncSequenceRepository extends JpaRepository<SyncSequence, Long> {
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE SyncSequence s SET s.lastSeq = s.lastSeq + 1 WHERE s.userId = :userId")
+    int increment(Long userId);
+
+    @Query("SELECT s.lastSeq FROM SyncSequence s WHERE s.userId = :userId")
+    Optional<Long> findLastSeq(Long userId);
+
+    // A concurrent first write may insert the row too, the loser waits for it and inserts nothing
+    @Modifying
+    @Query(value = "INSERT INTO sync_sequences (user_id, last_seq) VALUES (:userId, 0) ON CONFLICT DO NOTHING",
+            nativeQuery = true)
+    int insertIfAbsent(Long userId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM SyncSequence s WHERE s.userId = :userId")
+    Optional<SyncSequence> findForUpdate(Long userId);
+}
@@ -2,22 +2,125 @@ package com.moneycontrol.api.repository;
 
 import com.moneycontrol.api.model.Transaction;
 import com.moneycontrol.api.model.User;
-import org.springframework.data.domain.Page;
+import com.moneycontrol.api.report.ReportLine;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
-    Page<Transaction> findByUser(User user, Pageable pageable);
-    List<Transaction> findByUser(User user);
-    Page<Transaction> findByUserAndDateBetween(User user, LocalDateTime start, LocalDateTime end, Pageable pageable);
-    List<Transaction> findByUserAndDateBetween(User user, LocalDateTime start, LocalDateTime end);
-    Page<Transaction> findByUserAndType(User user, Transaction.TransactionType type, Pageable pageable);
-    List<Transaction> findByUserAndType(User user, Transaction.TransactionType type);
-    Page<Transaction> findByUserAndCategoryId(User user, Long categoryId, Pageable pageable);
-    List<Transaction> findByUserAndCategoryId(User user, Long categoryId);
+    Slice<Transaction> findSliceByUser(User user, Pageable pageable);
+    long countByUser(User user);
+    List<Transaction> findByUser(User user, Limit limit);
+    Slice<Transaction> findSliceByUserAndDateBetween(User user, LocalDateTime start, LocalDateTime end, Pageable pageable);
+    long countByUserAndDateBetween(User user, LocalDateTime start, LocalDateTime end);
+    List<Transaction> findByUserAndDateBetween(User user, LocalDateTime start, LocalDateTime end, Limit limit);
+    Slice<Transaction> findSliceByUserAndType(User user, Transaction.TransactionType type, Pageable pageable);
+    long countByUserAndType(User user, Transaction.TransactionType type);
+    List<Transaction> findByUserAndType(User user, Transaction.TransactionType type, Limit limit);
+    Slice<Transaction> findSliceByUserAndCategoryId(User user, Long categoryId, Pageable pageable);
+    long countByUserAndCategoryId(User user, Long categoryId);
+    List<Transaction> findByUserAndCategoryId(User user, Long categoryId, Limit limit);
+
+    // Newest first, with category and owner fetched in the same statement
+    @Query("SELECT t FROM Transaction t LEFT JOIN FETCH t.category JOIN FETCH t.user " +
+            "WHERE t.user.id = :userId ORDER BY t.date DESC, t.id DESC")
+    List<Transaction> findRecent(Long userId, Limit limit);
+
+    // Native, so the soft-delete restriction doesn't hide the rows
+    @Query(value = "SELECT * FROM transactions WHERE user_id = :userId AND deleted_at >= :since " +
+            "ORDER BY deleted_at DESC LIMIT :maxRows", nativeQuery = true)
+    List<Transaction> findDeleted(Long userId, LocalDateTime since, int maxRows);
+
+    @Modifying
+    @Query(value = "UPDATE transactions SET deleted_at = NULL, version = version + 1, change_seq = :changeSeq " +
+            "WHERE id = :id AND user_id = :userId AND deleted_at >= :since", nativeQuery = true)
+    int restore(Long id, Long userId, LocalDateTime since, long changeSeq);
+
+    // Everything written after the (changeSeq, id) cursor, deleted rows included, in sequence order
+    @Query(value = "SELECT * FROM transactions WHERE user_id = :userId AND change_seq <= :upToSeq " +
+            "AND (change_seq, id) > (:afterSeq, :afterId) ORDER BY change_seq, id LIMIT :maxRows", nativeQuery = true)
+    List<Transaction> findChangedAfter(Long userId, long afterSeq, long afterId, long upToSeq, int maxRows);
+
+    // Next purge batch, id and user_id of rows deleted before the cutoff
+    @Query(value = "SELECT id, user_id FROM transactions WHERE deleted_at < :cutoff ORDER BY id LIMIT :batchSize",
+            nativeQuery = true)
+    List<Object[]> findPurgeable(LocalDateTime cutoff, int batchSize);
+
+    @Modifying
+    @Query(value = "DELETE FROM transactions WHERE id IN :ids", nativeQuery = true)
+    int purge(Collection<Long> ids);
+
+    @Query("SELECT t FROM Transaction t WHERE t.user.id = :userId AND t.fingerprint = :fingerprint ORDER BY t.id")
+    List<Transaction> findByFingerprint(Long userId, Long fingerprint, Limit limit);
+
+    // Buckets holding more than one row, the only ones the dedupe report has to look into
+    @Query("SELECT t.fingerprint FROM Transaction t WHERE t.user.id = :userId AND t.fingerprint IS NOT NULL " +
+            "GROUP BY t.fingerprint HAVING COUNT(t) > 1")
+    List<Long> findSharedFingerprints(Long userId);
+
+    @Query("SELECT t FROM Transaction t WHERE t.user.id = :userId AND t.fingerprint IN :fingerprints ORDER BY t.id")
+    List<Transaction> findByFingerprintIn(Long userId, Collection<Long> fingerprints);
+
+    @Query("SELECT t FROM Transaction t WHERE t.user.id = :userId AND t.id IN :ids")
+    List<Transaction> findByUserIdAndIdIn(Long userId, Collection<Long> ids);
+
+    @Query("SELECT DISTINCT year(t.date) FROM Transaction t WHERE t.user.id = :userId AND t.date < :before")
+    List<Integer> findYearsBefore(Long userId, LocalDateTime before);
+
+    // Locked, so nothing changes between writing the archive segment and deleting the rows
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM Transaction t WHERE t.user.id = :userId AND t.date >= :from AND t.date < :to " +
+            "ORDER BY t.date, t.id")
+    List<Transaction> lockForArchive(Long userId, LocalDateTime from, LocalDateTime to);
+
+    @Modifying
+    @Query("DELETE FROM Transaction t WHERE t.id IN :ids")
+    int deleteArchived(Collection<Long> ids);
+
+    @Query("SELECT t.type, t.currency, SUM(t.amount) FROM Transaction t WHERE t.user.id = :userId GROUP BY t.type, t.currency")
+    List<Object[]> sumAmountByTypeAndCurrency(Long userId);
+
+    @Query("SELECT t.user.id, t.type, t.currency, SUM(t.amount) FROM Transaction t WHERE t.user.id IN :userIds " +
+            "GROUP BY t.user.id, t.type, t.currency")
+    List<Object[]> sumByUserTypeAndCurrency(Collection<Long> userIds);
+
+    // Monthly totals of several users at once, uncategorized rows included, for the forecast batch
+    @Query("SELECT t.user.id, year(t.date), month(t.date), t.type, t.currency, SUM(t.amount) FROM Transaction t " +
+            "WHERE t.user.id IN :userIds AND t.date >= :from AND t.date < :to " +
+            "GROUP BY t.user.id, year(t.date), month(t.date), t.type, t.currency")
+    List<Object[]> sumByUserAndMonth(Collection<Long> userIds, LocalDateTime from, LocalDateTime to);
+
+    @Query("SELECT t.category.id, year(t.date), month(t.date), t.type, t.currency, SUM(t.amount), COUNT(t) FROM Transaction t " +
+            "WHERE t.user.id = :userId AND t.category IS NOT NULL " +
+            "GROUP BY t.category.id, year(t.date), month(t.date), t.type, t.currency")
+    List<Object[]> sumByCategoryAndMonth(Long userId);
+
+    @Query("SELECT year(t.date), month(t.date), t.type, t.currency, SUM(t.amount) FROM Transaction t " +
+            "WHERE t.user.id = :userId GROUP BY year(t.date), month(t.date), t.type, t.currency")
+    List<Object[]> sumByMonth(Long userId);
+
+    @Query("SELECT t.type, t.currency, SUM(t.amount), COUNT(t) FROM Transaction t " +
+            "WHERE t.user.id = :userId AND t.date >= :from AND t.date < :to GROUP BY t.type, t.currency")
+    List<Object[]> sumByTypeAndCurrencyBetween(Long userId, LocalDateTime from, LocalDateTime to);
+
+    // Projection, so rows are not kept in the persistence context while streaming; needs a transaction
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "500"))
+    @Query("SELECT new com.moneycontrol.api.report.ReportLine(t.date, t.description, c.name, t.type, t.currency, t.amount) " +
+            "FROM Transaction t LEFT JOIN t.category c " +
+            "WHERE t.user.id = :userId AND t.date >= :from AND t.date < :to ORDER BY t.date, t.id")
+    Stream<ReportLine> streamReportLines(Long userId, LocalDateTime from, LocalDateTime to);
 }
@@ -15,10 +15,14 @@ import java.io.IOException;
 @Slf4j
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    private static final String EVENT_STREAM_PATH = "/api/events/stream";
+
     private final JwtTokenProvider tokenProvider;
+    private final StreamTicketService streamTicketService;
 
-    public JwtAuthenticationFilter(JwtTokenProvider tokenProvider) {
+    public JwtAuthenticationFilter(JwtTokenProvider tokenProvider, StreamTicketService streamTicketService) {
         this.tokenProvider = tokenProvider;
+        this.streamTicketService = streamTicketService;
     }
 
     @Override
@@ -30,6 +34,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             if (StringUtils.hasText(jwt) && tokenProvider.validateToken(jwt)) {
                 Authentication authentication = tokenProvider.getAuthentication(jwt);
                 SecurityContextHolder.getContext().setAuthentication(authentication);
+            } else if (jwt == null && isEventStream(request) && StringUtils.hasText(request.getParameter("ticket"))) {
+                // EventSource cannot send headers, so the event stream is opened with a ticket from POST /api/events/ticket
+                streamTicketService.authenticate(request.getParameter("ticket"))
+                        .ifPresent(authentication -> SecurityContextHolder.getContext().setAuthentication(authentication));
             }
         } catch (Exception ex) {
             log.error("Could not set user authentication in security context", ex);
@@ -45,4 +53,8 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
         return null;
     }
+
+    private static boolean isEventStream(HttpServletRequest request) {
+        return "GET".equals(request.getMethod()) && EVENT_STREAM_PATH.equals(request.getRequestURI());
+    }
 }
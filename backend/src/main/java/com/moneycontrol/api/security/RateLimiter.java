@@ -0,0 +1,124 @@
+package com.moneycontrol.api.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+@Component
+@RequiredArgsConstructor
+public class RateLimiter {
+
+    private static final List<String> FULL_LIST_PATHS = List.of(
+            "/api/transactions", "/api/transactions/date-range", "/api/transactions/type/*",
+            "/api/transactions/category/*", "/api/goals", "/api/categories");
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    @Value("${app.rate-limit.capacity:60}")
+    private int capacity;
+
+    @Value("${app.rate-limit.refill-per-second:10}")
+    private double refillPerSecond;
+
+    @Value("${app.rate-limit.full-list-cost:10}")
+    private int fullListCost;
+
+    @Value("${app.rate-limit.export-cost:20}")
+    private int exportCost;
+
+    @Value("${app.rate-limit.export-paths:}")
+    private List<String> exportPaths;
+
+    @Value("${app.rate-limit.expensive-concurrency:8}")
+    private int expensiveConcurrency;
+
+    private Semaphore expensivePermits;
+    private Counter allowed;
+    private Counter throttledByRate;
+    private Counter throttledByConcurrency;
+
+    @PostConstruct
+    public void init() {
+        expensivePermits = new Semaphore(expensiveConcurrency);
+        allowed = meterRegistry.counter("ratelimit.requests", "outcome", "allowed");
+        throttledByRate = meterRegistry.counter("ratelimit.requests", "outcome", "throttled", "reason", "rate");
+        throttledByConcurrency = meterRegistry.counter("ratelimit.requests", "outcome", "throttled", "reason", "concurrency");
+        meterRegistry.gauge("ratelimit.expensive.in_flight", expensivePermits,
+                permits -> expensiveConcurrency - permits.availablePermits());
+    }
+
+    public int cost(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        if (exportPaths.stream().anyMatch(pattern -> pathMatcher.match(pattern, path))) {
+            return exportCost;
+        }
+        if ("GET".equals(request.getMethod()) && isUnpaged(request)
+                && FULL_LIST_PATHS.stream().anyMatch(pattern -> pathMatcher.match(pattern, path))) {
+            return fullListCost;
+        }
+        return 1;
+    }
+
+    // Returns 0 when admitted, otherwise the seconds the client should wait before retrying
+    // The concurrency permit comes first, so a request turned away for it is not charged any tokens
+    public long tryAcquire(String key, int cost) {
+        if (cost > 1 && !expensivePermits.tryAcquire()) {
+            throttledByConcurrency.increment();
+            return 1;
+        }
+        long now = System.nanoTime();
+        long waitNanos;
+        do {
+            waitNanos = buckets.computeIfAbsent(key, k -> new TokenBucket(capacity, refillPerSecond, now))
+                    .tryConsume(cost, now);
+        } while (waitNanos < 0);
+        if (waitNanos > 0) {
+            release(cost);
+            throttledByRate.increment();
+            return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999));
+        }
+        allowed.increment();
+        return 0;
+    }
+
+    public void release(int cost) {
+        if (cost > 1) {
+            expensivePermits.release();
+        }
+    }
+
+    // A full bucket carries no state, so idle users do not keep an entry around. It is retired before being
+    // removed, and only that same bucket is removed, so a request charging it meanwhile moves to a new one
+    @Scheduled(fixedDelayString = "${app.rate-limit.cleanup-interval-ms:60000}")
+    public void evictIdleBuckets() {
+        long now = System.nanoTime();
+        buckets.forEach((key, bucket) -> {
+            if (bucket.retireIfFull(now)) {
+                buckets.remove(key, bucket);
+            }
+        });
+    }
+
+    private static boolean isUnpaged(HttpServletRequest request) {
+        String pageSize = request.getParameter("pageSize");
+        try {
+            return pageSize != null && Integer.parseInt(pageSize) <= 0;
+        } catch (NumberFormatException ex) {
+            return false;
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.moneycontrol.api.security;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.DispatcherType;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -26,15 +28,22 @@ public class SecurityConfig {
 
     private final JwtTokenProvider tokenProvider;
     private final JwtAuthenticationEntryPoint unauthorizedHandler;
+    private final RateLimiter rateLimiter;
+    private final ObjectMapper objectMapper;
+    private final StreamTicketService streamTicketService;
 
-    public SecurityConfig(JwtTokenProvider tokenProvider, JwtAuthenticationEntryPoint unauthorizedHandler) {
+    public SecurityConfig(JwtTokenProvider tokenProvider, JwtAuthenticationEntryPoint unauthorizedHandler,
+                          RateLimiter rateLimiter, ObjectMapper objectMapper, StreamTicketService streamTicketService) {
         this.tokenProvider = tokenProvider;
         this.unauthorizedHandler = unauthorizedHandler;
+        this.rateLimiter = rateLimiter;
+        this.objectMapper = objectMapper;
+        this.streamTicketService = streamTicketService;
     }
 
     @Bean
     public JwtAuthenticationFilter jwtAuthenticationFilter() {
-        return new JwtAuthenticationFilter(tokenProvider);
+        return new JwtAuthenticationFilter(tokenProvider, streamTicketService);
     }
 
     @Bean
@@ -68,14 +77,19 @@ public class SecurityConfig {
             .exceptionHandling(exception -> exception.authenticationEntryPoint(unauthorizedHandler))
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(auth -> auth
+                // Async re-dispatches of event streams carry no JWT of their own
+                .dispatcherTypeMatchers(DispatcherType.ASYNC, DispatcherType.ERROR).permitAll()
                 .requestMatchers("/api/auth/**").permitAll()
                 .requestMatchers("/api-docs/**").permitAll()
                 .requestMatchers("/swagger-ui/**").permitAll()
                 .requestMatchers("/swagger-ui.html").permitAll()
+                .requestMatchers("/actuator/health").permitAll()
                 .anyRequest().authenticated()
             );
 
         http.addFilterBefore(jwtAuthenticationFilter(), UsernamePasswordAuthenticationFilter.class);
+        // Not a bean on purpose, so it only runs inside the security chain once the user is known
+        http.addFilterAfter(new RateLimitFilter(rateLimiter, objectMapper), JwtAuthenticationFilter.class);
 
         return http.build();
     }
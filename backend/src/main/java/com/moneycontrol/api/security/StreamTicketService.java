@@ -0,0 +1,80 @@
+package com.moneycontrol.api.security;
+
+import com.moneycontrol.api.dto.StreamTicketResponse;
+import com.moneycontrol.api.model.StreamTicket;
+import com.moneycontrol.api.model.User;
+import com.moneycontrol.api.repository.StreamTicketRepository;
+import com.moneycontrol.api.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Optional;
+
+// EventSource can't send an Authorization header, and a JWT in the URL ends up in access logs and proxies
+// while staying valid for its whole lifetime. The stream takes a ticket instead: requested with the JWT,
+// good for one connection within a few seconds, and kept in the database so any node accepts it
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StreamTicketService {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final StreamTicketRepository streamTicketRepository;
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.events.ticket-ttl-seconds:30}")
+    private long ttlSeconds;
+
+    public StreamTicketResponse issue(User user) {
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        String ticket = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        streamTicketRepository.save(new StreamTicket(hash(ticket), user.getId(), LocalDateTime.now().plusSeconds(ttlSeconds)));
+        return new StreamTicketResponse(ticket, ttlSeconds);
+    }
+
+    public Optional<Authentication> authenticate(String ticket) {
+        String ticketHash = hash(ticket);
+        Long userId = transactionTemplate.execute(status -> {
+            Optional<StreamTicket> found = streamTicketRepository.findById(ticketHash);
+            if (found.isEmpty() || streamTicketRepository.consume(ticketHash, LocalDateTime.now()) == 0) {
+                return null;
+            }
+            return found.get().getUserId();
+        });
+        return Optional.ofNullable(userId)
+                .flatMap(userRepository::findById)
+                .map(user -> new UsernamePasswordAuthenticationToken(user, "", user.getAuthorities()));
+    }
+
+    @Scheduled(fixedDelayString = "${app.events.ticket-cleanup-ms:300000}")
+    public void deleteExpired() {
+        int deleted = streamTicketRepository.deleteExpired(LocalDateTime.now());
+        if (deleted > 0) {
+            log.debug("Deleted {} expired stream tickets", deleted);
+        }
+    }
+
+    private static String hash(String ticket) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(ticket.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+}
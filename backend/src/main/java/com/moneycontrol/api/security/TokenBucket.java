@@ -0,0 +1,48 @@
+package com.moneycontrol.api.security;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+// Lock-free: concurrent requests of the same user race on a compare-and-set instead of a monitor
+class TokenBucket {
+
+    private record State(double tokens, long refilledAt) {
+    }
+
+    private static final State RETIRED = new State(0, 0);
+
+    private final double capacity;
+    private final double tokensPerNano;
+    private final AtomicReference<State> state;
+
+    TokenBucket(double capacity, double tokensPerSecond, long now) {
+        this.capacity = capacity;
+        this.tokensPerNano = tokensPerSecond / 1_000_000_000d;
+        this.state = new AtomicReference<>(new State(capacity, now));
+    }
+
+    // Returns 0 when the tokens were taken, -1 when the bucket was retired and a new one has to be used,
+    // otherwise the nanoseconds until they will be available
+    long tryConsume(int cost, long now) {
+        double required = Math.min(cost, capacity);
+        while (true) {
+            State current = state.get();
+            if (current == RETIRED) {
+                return -1;
+            }
+            double available = Math.min(capacity, current.tokens() + (now - current.refilledAt()) * tokensPerNano);
+            if (available < required) {
+                return (long) Math.ceil((required - available) / tokensPerNano);
+            }
+            if (state.compareAndSet(current, new State(available - required, now))) {
+                return 0;
+            }
+        }
+    }
+
+    // Taken out of use only while full, so no charge made before or after is lost with it
+    boolean retireIfFull(long now) {
+        State current = state.get();
+        return current != RETIRED && current.tokens() + (now - current.refilledAt()) * tokensPerNano >= capacity
+                && state.compareAndSet(current, RETIRED);
+    }
+}
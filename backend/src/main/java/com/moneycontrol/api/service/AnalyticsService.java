@@ -0,0 +1,120 @@
+package com.moneycontrol.api.service;
+
+import com.moneycontrol.api.currency.ExchangeRateService;
+import com.moneycontrol.api.currency.Money;
+import com.moneycontrol.api.dto.CategoryBreakdown;
+import com.moneycontrol.api.dto.CategorySpend;
+import com.moneycontrol.api.model.Category;
+import com.moneycontrol.api.model.Transaction;
+import com.moneycontrol.api.model.User;
+import com.moneycontrol.api.repository.CategoryRepository;
+import com.moneycontrol.api.repository.CategorySpendRollupRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class AnalyticsService {
+
+    static final String OTHER_BUCKET = "Other";
+
+    private final CategorySpendRollupRepository rollupRepository;
+    private final CategoryRepository categoryRepository;
+    private final CategoryRollupService categoryRollupService;
+    private final UserService userService;
+    private final ExchangeRateService exchangeRateService;
+
+    @Value("${app.analytics.max-top:20}")
+    private int maxTop;
+
+    @Value("${app.analytics.max-months:120}")
+    private int maxMonths;
+
+    public CategoryBreakdown getCategoryBreakdown(String email, Transaction.TransactionType type,
+                                                  YearMonth from, YearMonth to, int top, String currency) {
+        if (top < 1 || top > maxTop) {
+            throw new IllegalArgumentException("top must be between 1 and " + maxTop);
+        }
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        if (from.plusMonths(maxMonths).isBefore(to)) {
+            throw new IllegalArgumentException("The period cannot exceed " + maxMonths + " months");
+        }
+
+        User user = userService.getCurrentUser(email);
+        String target = currency != null ? exchangeRateService.normalize(currency) : exchangeRateService.getBaseCurrency();
+
+        // One row per category and currency: conversion happens per bucket, never per transaction
+        Map<Long, CategoryTotal> byCategory = new HashMap<>();
+        for (Object[] row : rollupRepository.sumByCategoryAndCurrency(user.getId(), type, from.atDay(1), to.atDay(1))) {
+            CategoryTotal categoryTotal = byCategory.computeIfAbsent((Long) row[0], CategoryTotal::new);
+            Money amount = exchangeRateService.convert(Money.of((BigDecimal) row[2]), (String) row[1], target);
+            categoryTotal.total = Money.add(categoryTotal.total, amount.minorUnits());
+            categoryTotal.count += ((Number) row[3]).longValue();
+        }
+        List<CategoryTotal> rows = byCategory.values().stream()
+                .sorted(Comparator.comparingLong((CategoryTotal categoryTotal) -> categoryTotal.total).reversed())
+                .toList();
+
+        long total = 0;
+        for (CategoryTotal row : rows) {
+            total = Money.add(total, row.total);
+        }
+        List<CategoryTotal> topRows = rows.subList(0, Math.min(top, rows.size()));
+        Map<Long, String> names = categoryRepository.findAllById(topRows.stream().map(row -> row.categoryId).toList())
+                .stream()
+                .collect(Collectors.toMap(Category::getId, Category::getName));
+
+        List<CategorySpend> categories = new ArrayList<>(top + 1);
+        for (CategoryTotal row : topRows) {
+            categories.add(spend(row.categoryId, names.get(row.categoryId), row.total, row.count, total));
+        }
+
+        if (rows.size() > top) {
+            long otherTotal = 0;
+            long otherCount = 0;
+            for (CategoryTotal row : rows.subList(top, rows.size())) {
+                otherTotal = Money.add(otherTotal, row.total);
+                otherCount += row.count;
+            }
+            categories.add(spend(null, OTHER_BUCKET, otherTotal, otherCount, total));
+        }
+
+        return new CategoryBreakdown(type, from, to, target, Money.toBigDecimal(total), categories);
+    }
+
+    public int rebuildCategoryRollups(String email) {
+        User user = userService.getCurrentUser(email);
+        return categoryRollupService.rebuild(user.getId());
+    }
+
+    private static CategorySpend spend(Long categoryId, String name, long amount, long count, long total) {
+        BigDecimal percentage = total == 0
+                ? BigDecimal.ZERO
+                : BigDecimal.valueOf(amount).multiply(BigDecimal.valueOf(100)).divide(BigDecimal.valueOf(total), 2, RoundingMode.HALF_UP);
+        return new CategorySpend(categoryId, name, Money.toBigDecimal(amount), count, percentage);
+    }
+
+    private static final class CategoryTotal {
+
+        private final Long categoryId;
+        private long total;
+        private long count;
+
+        private CategoryTotal(Long categoryId) {
+            this.categoryId = categoryId;
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.moneycontrol.api.service;
+
+import com.moneycontrol.api.archive.ArchiveService;
+import com.moneycontrol.api.archive.ArchivedRow;
+import com.moneycontrol.api.currency.ExchangeRateService;
+import com.moneycontrol.api.currency.Money;
+import com.moneycontrol.api.dto.BalanceAt;
+import com.moneycontrol.api.model.BalanceCheckpoint;
+import com.moneycontrol.api.model.Transaction;
+import com.moneycontrol.api.model.User;
+import com.moneycontrol.api.repository.BalanceCheckpointRepository;
+import com.moneycontrol.api.repository.TransactionRepository;
+import com.moneycontrol.api.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+// Closing balance per user, currency and month, kept current by the transaction write paths. Every month
+// with a transaction in a currency has a checkpoint, so "balance as of a date" is the latest checkpoint
+// before that month plus the rows of the month itself, however long the history is
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BalanceCheckpointService {
+
+    private static final String LOCK = "balance-checkpoints";
+
+    private final BalanceCheckpointRepository checkpointRepository;
+    private final TransactionRepository transactionRepository;
+    private final UserRepository userRepository;
+    private final UserService userService;
+    private final SyncService syncService;
+    private final ArchiveService archiveService;
+    private final ExchangeRateService exchangeRateService;
+    private final JobLockService jobLockService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.checkpoints.lock-hours:6}")
+    private long lockHours;
+
+    // The write paths call these after nextChangeSeq, whose row lock keeps a user's shifts in order
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void added(CategoryRollupService.Snapshot snapshot) {
+        shift(snapshot.userId(), snapshot.currency(), month(snapshot), Money.toMinorUnits(signed(snapshot)));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void removed(CategoryRollupService.Snapshot snapshot) {
+        shift(snapshot.userId(), snapshot.currency(), month(snapshot), -Money.toMinorUnits(signed(snapshot)));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void changed(CategoryRollupService.Snapshot before, CategoryRollupService.Snapshot after) {
+        if (before.currency().equals(after.currency()) && month(before).equals(month(after))) {
+            long delta = Math.subtractExact(Money.toMinorUnits(signed(after)), Money.toMinorUnits(signed(before)));
+            if (delta != 0) {
+                shift(after.userId(), after.currency(), month(after), delta);
+            }
+            return;
+        }
+        removed(before);
+        added(after);
+    }
+
+    // Bulk variants: rows sharing a currency and month are summed first, so each shift runs once
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void addedAll(List<CategoryRollupService.Snapshot> snapshots) {
+        applyAll(snapshots, 1);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void removedAll(List<CategoryRollupService.Snapshot> snapshots) {
+        applyAll(snapshots, -1);
+    }
+
+    // Balance per currency at the end of the given day, and its total in the requested currency
+    @Transactional(readOnly = true)
+    public BalanceAt balanceAt(String email, LocalDate date, String currency) {
+        User user = userService.getCurrentUser(email);
+        String target = exchangeRateService.normalize(currency);
+        LocalDate month = date.withDayOfMonth(1);
+        LocalDateTime from = month.atStartOfDay();
+        LocalDateTime to = date.plusDays(1).atStartOfDay();
+
+        Map<String, Long> balances = new TreeMap<>();
+        for (Object[] row : checkpointRepository.findLatestBefore(user.getId(), month)) {
+            balances.merge((String) row[0], Money.toMinorUnits((BigDecimal) row[1]), Money::add);
+        }
+        // No currency has rows between its checkpoint and this month, so only the month itself is summed
+        for (Object[] row : Stream.concat(transactionRepository.sumByTypeAndCurrencyBetween(user.getId(), from, to).stream(),
+                archiveService.sumByTypeAndCurrency(user.getId(), from, to).stream()).toList()) {
+            long amount = Money.toMinorUnits((BigDecimal) row[2]);
+            balances.merge((String) row[1], row[0] == Transaction.TransactionType.INCOME ? amount : -amount, Money::add);
+        }
+
+        long total = 0;
+        Map<String, BigDecimal> byCurrency = new TreeMap<>();
+        for (Map.Entry<String, Long> entry : balances.entrySet()) {
+            BigDecimal balance = Money.toBigDecimal(entry.getValue());
+            byCurrency.put(entry.getKey(), balance);
+            total = Money.add(total, exchangeRateService.convert(Money.of(balance), entry.getKey(), target).minorUnits());
+        }
+        return new BalanceAt(date, target, Money.toBigDecimal(total), byCurrency);
+    }
+
+    // Archived years are no longer in the table, so their rows are summed from the archive segments
+    @Transactional
+    public int rebuild(Long userId) {
+        // The lock a write takes, without using up a number, so no shift interleaves with the delete and re-insert
+        syncService.lockChangeSeq(userId);
+        checkpointRepository.deleteByUserId(userId);
+
+        Map<String, TreeMap<LocalDate, Long>> nets = new HashMap<>();
+        for (Object[] row : transactionRepository.sumByMonth(userId)) {
+            long amount = Money.toMinorUnits((BigDecimal) row[4]);
+            nets.computeIfAbsent((String) row[3], key -> new TreeMap<>()).merge(
+                    LocalDate.of(((Number) row[0]).intValue(), ((Number) row[1]).intValue(), 1),
+                    row[2] == Transaction.TransactionType.INCOME ? amount : -amount, Money::add);
+        }
+        for (ArchivedRow row : archiveService.scanAll(userId, false)) {
+            nets.computeIfAbsent(row.currency(), key -> new TreeMap<>()).merge(
+                    row.date().toLocalDate().withDayOfMonth(1),
+                    row.type() == Transaction.TransactionType.INCOME ? row.amount() : -row.amount(), Money::add);
+        }
+
+        List<BalanceCheckpoint> checkpoints = new ArrayList<>();
+        nets.forEach((currency, months) -> {
+            long balance = 0;
+            for (Map.Entry<LocalDate, Long> entry : months.entrySet()) {
+                balance = Money.add(balance, entry.getValue());
+                checkpoints.add(new BalanceCheckpoint(null, userId, currency, entry.getKey(), Money.toBigDecimal(balance)));
+            }
+        });
+        checkpointRepository.saveAll(checkpoints);
+        return checkpoints.size();
+    }
+
+    // Repairs any drift, e.g. rows edited directly in the database; one node runs it per round
+    @Scheduled(cron = "${app.checkpoints.rebuild-cron:0 45 4 * * SUN}")
+    public void rebuildAll() {
+        jobLockService.runExclusively(LOCK, Duration.ofHours(lockHours), this::rebuildUsers);
+    }
+
+    // Fills the table the first time the application starts with it. Runs off the startup thread, and
+    // replicas starting together leave it to the one holding the lock
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        Thread initializer = new Thread(() -> jobLockService.runExclusively(LOCK, Duration.ofHours(lockHours), () -> {
+            if (checkpointRepository.count() == 0 && transactionRepository.count() > 0) {
+                rebuildUsers();
+            }
+        }), "checkpoint-init");
+        initializer.setDaemon(true);
+        initializer.start();
+    }
+
+    private void rebuildUsers() {
+        int users = 0;
+        for (Long userId : userRepository.findAllIds()) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> rebuild(userId));
+                users++;
+            } catch (Exception ex) {
+                log.error("Could not rebuild balance checkpoints for user {}", userId, ex);
+            }
+        }
+        log.info("Rebuilt balance checkpoints for {} users", users);
+    }
+
+
+    private void applyAll(List<CategoryRollupService.Snapshot> snapshots, int sign) {
+        Map<List<Object>, long[]> deltas = new HashMap<>();
+        for (CategoryRollupService.Snapshot snapshot : snapshots) {
+            long[] delta = deltas.computeIfAbsent(List.of(snapshot.userId(), snapshot.currency(), month(snapshot)),
+                    key -> new long[1]);
+            long amount = Money.toMinorUnits(signed(snapshot));
+            delta[0] = Money.add(delta[0], sign < 0 ? -amount : amount);
+        }
+        deltas.forEach((key, delta) -> shift((Long) key.get(0), (String) key.get(1), (LocalDate) key.get(2), delta[0]));
+    }
+
+    private void shift(Long userId, String currency, LocalDate month, long delta) {
+        boolean exists = checkpointRepository.existsByUserIdAndCurrencyAndPeriodMonth(userId, currency, month);
+        checkpointRepository.shiftFrom(userId, currency, month, Money.toBigDecimal(delta));
+        if (!exists) {
+            // First row of the month: it closes at the previous month's balance plus this change
+            long previous = checkpointRepository.findBalanceBefore(userId, currency, month, Limit.of(1)).stream()
+                    .findFirst().map(Money::toMinorUnits).orElse(0L);
+            checkpointRepository.save(new BalanceCheckpoint(null, userId, currency, month,
+                    Money.toBigDecimal(Money.add(previous, delta))));
+        }
+    }
+
+    private static BigDecimal signed(CategoryRollupService.Snapshot snapshot) {
+        return snapshot.type() == Transaction.TransactionType.INCOME ? snapshot.amount() : snapshot.amount().negate();
+    }
+
+    private static LocalDate month(CategoryRollupService.Snapshot snapshot) {
+        return snapshot.date().toLocalDate().withDayOfMonth(1);
+    }
+}
@@ -0,0 +1,162 @@
+package com.moneycontrol.api.service;
+
+import com.moneycontrol.api.currency.ExchangeRateService;
+import com.moneycontrol.api.currency.Money;
+import com.moneycontrol.api.dto.BudgetDto;
+import com.moneycontrol.api.dto.BudgetStatus;
+import com.moneycontrol.api.dto.PageQuery;
+import com.moneycontrol.api.dto.PageResult;
+import com.moneycontrol.api.event.BudgetAlert;
+import com.moneycontrol.api.event.BudgetAlertNotifier;
+import com.moneycontrol.api.exception.ResourceNotFoundException;
+import com.moneycontrol.api.model.Budget;
+import com.moneycontrol.api.model.Category;
+import com.moneycontrol.api.model.CategorySpendRollup;
+import com.moneycontrol.api.model.Transaction;
+import com.moneycontrol.api.model.User;
+import com.moneycontrol.api.repository.BudgetPeriodRepository;
+import com.moneycontrol.api.repository.BudgetRepository;
+import com.moneycontrol.api.repository.CategorySpendRollupRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+@RequiredArgsConstructor
+public class BudgetService {
+
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+    private final BudgetRepository budgetRepository;
+    private final CategorySpendRollupRepository rollupRepository;
+    private final BudgetPeriodRepository budgetPeriodRepository;
+    private final UserService userService;
+    private final CategoryService categoryService;
+    private final PaginationPolicy paginationPolicy;
+    private final List<BudgetAlertNotifier> notifiers;
+    private final ExchangeRateService exchangeRateService;
+
+    @Value("${app.budgets.alert-thresholds:80,100}")
+    private List<Integer> thresholds;
+
+    public PageResult<Budget> getAllBudgetsByUser(String email, PageQuery query) {
+        User user = userService.getCurrentUser(email);
+        return paginationPolicy.list(query,
+                limit -> budgetRepository.findByUser(user, limit),
+                pageable -> budgetRepository.findSliceByUser(user, pageable),
+                () -> budgetRepository.countByUser(user));
+    }
+
+    public Budget getBudgetById(Long id, String email) {
+        User user = userService.getCurrentUser(email);
+        Budget budget = budgetRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Budget not found with id: " + id));
+
+        if (!budget.getUser().getId().equals(user.getId())) {
+            throw new RuntimeException("Budget does not belong to the current user");
+        }
+
+        return budget;
+    }
+
+    public List<BudgetStatus> getBudgetStatus(YearMonth month, String email) {
+        User user = userService.getCurrentUser(email);
+        List<Budget> budgets = paginationPolicy.unbounded(limit -> budgetRepository.findByUser(user, limit));
+        // Budgets are set in the base currency, one conversion per category and currency bucket
+        String base = exchangeRateService.getBaseCurrency();
+        Map<Long, Long> spent = new HashMap<>();
+        for (CategorySpendRollup rollup : rollupRepository.findByUserIdAndPeriodMonthAndType(
+                user.getId(), month.atDay(1), Transaction.TransactionType.EXPENSE)) {
+            Money amount = exchangeRateService.convert(Money.of(rollup.getTotal()), rollup.getCurrency(), base);
+            spent.merge(rollup.getCategoryId(), amount.minorUnits(), Money::add);
+        }
+
+        return budgets.stream()
+                .map(budget -> {
+                    BigDecimal total = Money.toBigDecimal(spent.getOrDefault(budget.getCategory().getId(), 0L));
+                    return new BudgetStatus(budget.getId(), budget.getCategory().getId(), budget.getCategory().getName(),
+                            month, budget.getAmount(), total,
+                            total.multiply(HUNDRED).divide(budget.getAmount(), 2, RoundingMode.HALF_UP));
+                })
+                .toList();
+    }
+
+    @Transactional
+    public Budget createBudget(BudgetDto budgetDto, String email) {
+        User user = userService.getCurrentUser(email);
+        Category category = categoryService.getCategoryById(budgetDto.getCategoryId());
+        if (budgetRepository.existsByUserAndCategoryId(user, category.getId())) {
+            throw new IllegalArgumentException("A budget already exists for category " + category.getId());
+        }
+
+        Budget budget = new Budget();
+        budget.setAmount(budgetDto.getAmount());
+        budget.setCategory(category);
+        budget.setUser(user);
+        return budgetRepository.save(budget);
+    }
+
+    @Transactional
+    public Budget updateBudget(Long id, BudgetDto budgetDto, String email) {
+        Budget budget = getBudgetById(id, email);
+        if (!budget.getCategory().getId().equals(budgetDto.getCategoryId())) {
+            Category category = categoryService.getCategoryById(budgetDto.getCategoryId());
+            if (budgetRepository.existsByUserAndCategoryId(budget.getUser(), category.getId())) {
+                throw new IllegalArgumentException("A budget already exists for category " + category.getId());
+            }
+            budget.setCategory(category);
+        }
+        budget.setAmount(budgetDto.getAmount());
+        return budgetRepository.save(budget);
+    }
+
+    @Transactional
+    public void deleteBudget(Long id, String email) {
+        budgetRepository.delete(getBudgetById(id, email));
+    }
+
+    // Runs right after the spend counter was incremented in the caller's transaction. The spend is spread
+    // over one rollup row per currency, so the increment alone doesn't order writers in different currencies;
+    // the budget period row is locked until commit before summing, and each writer then sees the totals of
+    // the ones before it and exactly one of them crosses each threshold.
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onSpendIncreased(Long userId, Long categoryId, LocalDate periodMonth, String currency, BigDecimal delta) {
+        if (notifiers.isEmpty()) {
+            return;
+        }
+        Budget budget = budgetRepository.findByUserIdAndCategoryId(userId, categoryId).orElse(null);
+        if (budget == null) {
+            return;
+        }
+
+        budgetPeriodRepository.insertIfAbsent(userId, categoryId, periodMonth);
+        budgetPeriodRepository.findByUserIdAndCategoryIdAndPeriodMonth(userId, categoryId, periodMonth);
+
+        String base = exchangeRateService.getBaseCurrency();
+        Money current = Money.ZERO;
+        for (CategorySpendRollup rollup : rollupRepository.findByUserIdAndPeriodMonthAndTypeAndCategoryId(
+                userId, periodMonth, Transaction.TransactionType.EXPENSE, categoryId)) {
+            current = current.plus(exchangeRateService.convert(Money.of(rollup.getTotal()), rollup.getCurrency(), base));
+        }
+        Money previous = current.minus(exchangeRateService.convert(Money.of(delta), currency, base));
+        Money amount = Money.of(budget.getAmount());
+        for (Integer threshold : thresholds) {
+            Money limit = amount.times(BigDecimal.valueOf(threshold).movePointLeft(2));
+            if (previous.compareTo(limit) < 0 && current.compareTo(limit) >= 0) {
+                BudgetAlert alert = new BudgetAlert(budget.getId(), userId, categoryId, YearMonth.from(periodMonth),
+                        threshold, budget.getAmount(), current.toBigDecimal());
+                notifiers.forEach(notifier -> notifier.notify(alert));
+            }
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.moneycontrol.api.service;
+
+import com.moneycontrol.api.archive.ArchiveService;
+import com.moneycontrol.api.archive.ArchivedRow;
+import com.moneycontrol.api.currency.Money;
+import com.moneycontrol.api.model.CategorySpendRollup;
+import com.moneycontrol.api.model.Transaction;
+import com.moneycontrol.api.repository.CategorySpendRollupRepository;
+import com.moneycontrol.api.repository.TransactionRepository;
+import com.moneycontrol.api.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CategoryRollupService {
+
+    private final CategorySpendRollupRepository rollupRepository;
+    private final TransactionRepository transactionRepository;
+    private final UserRepository userRepository;
+    private final BudgetService budgetService;
+    private final ArchiveService archiveService;
+    private final SyncService syncService;
+    private final TransactionTemplate transactionTemplate;
+    private final JobLockService jobLockService;
+
+    @Value("${app.rollups.lock-hours:6}")
+    private long lockHours;
+
+    // Captures the fields the rollup is keyed on before the transaction gets modified
+    public Snapshot snapshot(Transaction transaction) {
+        return new Snapshot(transaction.getId(), transaction.getUser().getId(),
+                transaction.getCategory() != null ? transaction.getCategory().getId() : null,
+                transaction.getDate(), transaction.getType(), transaction.getCurrency(), transaction.getAmount());
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void added(Transaction transaction) {
+        apply(snapshot(transaction), 1);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void removed(Snapshot before) {
+        apply(before, -1);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void changed(Snapshot before, Transaction transaction) {
+        Snapshot after = snapshot(transaction);
+        if (before.sameBucket(after)) {
+            if (before.amount().compareTo(after.amount()) != 0) {
+                increment(after, after.amount().subtract(before.amount()), 0);
+            }
+            return;
+        }
+        apply(before, -1);
+        apply(after, 1);
+    }
+
+    // Bulk variants: rows sharing a bucket are summed first, so each bucket is touched once
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void addedAll(List<Snapshot> snapshots) {
+        applyAll(snapshots, 1);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void removedAll(List<Snapshot> snapshots) {
+        applyAll(snapshots, -1);
+    }
+
+    // Archived years are no longer in the table, so their rows are summed from the archive segments.
+    // Writes take the change sequence lock before touching the rollups, holding it keeps their deltas
+    // out of the delete and re-insert
+    @Transactional
+    public int rebuild(Long userId) {
+        syncService.lockChangeSeq(userId);
+        rollupRepository.deleteByUserId(userId);
+        Map<RollupKey, long[]> totals = new LinkedHashMap<>();
+        for (Object[] row : transactionRepository.sumByCategoryAndMonth(userId)) {
+            long[] total = totals.computeIfAbsent(new RollupKey((Long) row[0],
+                    LocalDate.of(((Number) row[1]).intValue(), ((Number) row[2]).intValue(), 1),
+                    (Transaction.TransactionType) row[3], (String) row[4]), key -> new long[2]);
+            total[0] = Money.add(total[0], Money.toMinorUnits((BigDecimal) row[5]));
+            total[1] += ((Number) row[6]).longValue();
+        }
+        for (ArchivedRow row : archiveService.scanAll(userId, false)) {
+            if (row.categoryId() != null) {
+                long[] total = totals.computeIfAbsent(new RollupKey(row.categoryId(),
+                        row.date().toLocalDate().withDayOfMonth(1), row.type(), row.currency()), key -> new long[2]);
+                total[0] = Money.add(total[0], row.amount());
+                total[1]++;
+            }
+        }
+
+        List<CategorySpendRollup> rollups = new ArrayList<>();
+        totals.forEach((key, total) -> rollups.add(new CategorySpendRollup(null, userId, key.categoryId(),
+                key.month(), key.type(), key.currency(), Money.toBigDecimal(total[0]), total[1])));
+        rollupRepository.saveAll(rollups);
+        return rollups.size();
+    }
+
+    // Repairs any drift, e.g. rows written before the rollups existed or edited directly in the database;
+    // one node runs it per round
+    @Scheduled(cron = "${app.rollups.rebuild-cron:0 30 4 * * SUN}")
+    public void rebuildAll() {
+        jobLockService.runExclusively("category-rollups", Duration.ofHours(lockHours), this::rebuildUsers);
+    }
+
+    private void rebuildUsers() {
+        int users = 0;
+        for (Long userId : userRepository.findAllIds()) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> rebuild(userId));
+                users++;
+            } catch (Exception ex) {
+                log.error("Could not rebuild category rollups for user {}", userId, ex);
+            }
+        }
+        log.info("Rebuilt category rollups for {} users", users);
+    }
+
+    private void apply(Snapshot snapshot, int sign) {
+        BigDecimal amount = sign < 0 ? snapshot.amount().negate() : snapshot.amount();
+        increment(snapshot, amount, sign);
+    }
+
+    private void applyAll(List<Snapshot> snapshots, int sign) {
+        Map<Snapshot, long[]> buckets = new HashMap<>();
+        for (Snapshot snapshot : snapshots) {
+            Snapshot bucket = new Snapshot(null, snapshot.userId(), snapshot.categoryId(),
+                    snapshot.date().toLocalDate().withDayOfMonth(1).atStartOfDay(), snapshot.type(), snapshot.currency(),
+                    BigDecimal.ZERO);
+            long[] totals = buckets.computeIfAbsent(bucket, key -> new long[2]);
+            totals[0] = Money.add(totals[0], Money.toMinorUnits(snapshot.amount()));
+            totals[1]++;
+        }
+        buckets.forEach((bucket, totals) -> increment(bucket,
+                Money.toBigDecimal(sign < 0 ? -totals[0] : totals[0]), sign < 0 ? -totals[1] : totals[1]));
+    }
+
+    private void increment(Snapshot snapshot, BigDecimal amount, long count) {
+        if (snapshot.categoryId() == null) {
+            return;
+        }
+        LocalDate month = snapshot.date().toLocalDate().withDayOfMonth(1);
+        if (rollupRepository.increment(snapshot.userId(), month, snapshot.type(), snapshot.categoryId(),
+                snapshot.currency(), amount, count) == 0) {
+            rollupRepository.insertIfAbsent(snapshot.userId(), snapshot.categoryId(), month, snapshot.type().name(),
+                    snapshot.currency());
+            rollupRepository.increment(snapshot.userId(), month, snapshot.type(), snapshot.categoryId(),
+                    snapshot.currency(), amount, count);
+        }
+
+        if (snapshot.type() == Transaction.TransactionType.EXPENSE && amount.signum() > 0) {
+            budgetService.onSpendIncreased(snapshot.userId(), snapshot.categoryId(), month, snapshot.currency(), amount);
+        }
+    }
+
+    private record RollupKey(Long categoryId, LocalDate month, Transaction.TransactionType type, String currency) {
+    }
+
+    public record Snapshot(Long transactionId, Long userId, Long categoryId, LocalDateTime date,
+                           Transaction.TransactionType type, String currency, BigDecimal amount) {
+
+        public Snapshot withCategory(Long otherCategoryId) {
+            return new Snapshot(transactionId, userId, otherCategoryId, date, type, currency, amount);
+        }
+
+        boolean sameBucket(Snapshot other) {
+            return Objects.equals(categoryId, other.categoryId)
+                    && type == other.type
+                    && currency.equals(other.currency)
+                    && date.getYear() == other.date.getYear()
+                    && date.getMonth() == other.date.getMonth();
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.moneycontrol.api.service;
+
+import com.moneycontrol.api.cache.CacheConfig;
+import com.moneycontrol.api.cache.CacheInvalidationBus;
+import com.moneycontrol.api.dto.CategoryRuleDto;
+import com.moneycontrol.api.exception.ResourceNotFoundException;
+import com.moneycontrol.api.model.CategoryRule;
+import com.moneycontrol.api.model.User;
+import com.moneycontrol.api.repository.CategoryRuleRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.text.Normalizer;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+// Payee to category rules for imports. Each user's rules are cached, already normalized, and evicted on
+// any change; a matcher also remembers its answers, since statements repeat the same payees
+@Service
+@RequiredArgsConstructor
+public class CategoryRuleService {
+
+    private static final int MAX_REMEMBERED_PAYEES = 10_000;
+
+    private final CategoryRuleRepository categoryRuleRepository;
+    private final CategoryService categoryService;
+    private final UserService userService;
+    private final CacheInvalidationBus cacheInvalidationBus;
+
+    public List<CategoryRule> getRules(String email) {
+        User user = userService.getCurrentUser(email);
+        return categoryRuleRepository.findByUserIdOrderByIdAsc(user.getId());
+    }
+
+    @Transactional
+    public CategoryRule createRule(CategoryRuleDto ruleDto, String email) {
+        User user = userService.getCurrentUser(email);
+        categoryService.getCategoryById(ruleDto.getCategoryId());
+        if (normalize(ruleDto.getPattern()).isEmpty()) {
+            throw new IllegalArgumentException("pattern must contain letters or digits");
+        }
+        CategoryRule rule = categoryRuleRepository.save(
+                new CategoryRule(null, user.getId(), ruleDto.getPattern().trim(), ruleDto.getCategoryId()));
+        cacheInvalidationBus.evict(CacheConfig.CATEGORY_RULES, user.getId());
+        return rule;
+    }
+
+    @Transactional
+    public void deleteRule(Long id, String email) {
+        User user = userService.getCurrentUser(email);
+        CategoryRule rule = categoryRuleRepository.findByIdAndUserId(id, user.getId())
+                .orElseThrow(() -> new ResourceNotFoundException("Category rule not found with id: " + id));
+        categoryRuleRepository.delete(rule);
+        cacheInvalidationBus.evict(CacheConfig.CATEGORY_RULES, user.getId());
+    }
+
+    // Not thread safe, one per import
+    public Matcher matcher(Long userId) {
+        return new Matcher(cacheInvalidationBus.get(CacheConfig.CATEGORY_RULES, userId, () ->
+                categoryRuleRepository.findByUserIdOrderByIdAsc(userId).stream()
+                        .map(rule -> new CompiledRule(normalize(rule.getPattern()), rule.getCategoryId()))
+                        .toList()));
+    }
+
+    static String normalize(String text) {
+        return Normalizer.normalize(text == null ? "" : text, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .toLowerCase()
+                .replaceAll("[^a-z0-9]+", " ")
+                .trim();
+    }
+
+    public static final class Matcher {
+
+        private final List<CompiledRule> rules;
+        private final Map<String, Optional<Long>> remembered = new HashMap<>();
+
+        private Matcher(List<CompiledRule> rules) {
+            this.rules = rules;
+        }
+
+        // Category of the oldest rule found in the payee, then in the memo; null when none matches
+        public Long match(String payee, String memo) {
+            if (rules.isEmpty()) {
+                return null;
+            }
+            Long categoryId = match(payee);
+            return categoryId != null ? categoryId : match(memo);
+        }
+
+        private Long match(String text) {
+            if (text == null || text.isEmpty()) {
+                return null;
+            }
+            Optional<Long> known = remembered.get(text);
+            if (known == null) {
+                String normalized = normalize(text);
+                known = rules.stream()
+                        .filter(rule -> normalized.contains(rule.pattern()))
+                        .map(CompiledRule::categoryId)
+                        .findFirst();
+                if (remembered.size() >= MAX_REMEMBERED_PAYEES) {
+                    remembered.clear();
+                }
+                remembered.put(text, known);
+            }
+            return known.orElse(null);
+        }
+    }
+
+    private record CompiledRule(String pattern, Long categoryId) {
+    }
+}
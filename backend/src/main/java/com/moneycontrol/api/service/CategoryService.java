@@ -1,17 +1,24 @@
 package com.moneycontrol.api.service;
 
+import com.moneycontrol.api.audit.AuditTrail;
+import com.moneycontrol.api.cache.CacheConfig;
+import com.moneycontrol.api.cache.CacheInvalidationBus;
 import com.moneycontrol.api.dto.CategoryDto;
-import com.moneycontrol.api.dto.PageResponse;
+import com.moneycontrol.api.dto.PageQuery;
+import com.moneycontrol.api.dto.PageResult;
+import com.moneycontrol.api.exception.PreconditionFailedException;
 import com.moneycontrol.api.exception.ResourceNotFoundException;
+import com.moneycontrol.api.model.AuditLog;
 import com.moneycontrol.api.model.Category;
+import com.moneycontrol.api.model.OutboxEvent;
 import com.moneycontrol.api.repository.CategoryRepository;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 
 @Service
@@ -19,40 +26,73 @@ import java.util.List;
 public class CategoryService {
 
     private final CategoryRepository categoryRepository;
+    private final OutboxService outboxService;
+    private final PaginationPolicy paginationPolicy;
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final AuditTrail auditTrail;
 
-    public List<Category> getAllCategories() {
-        return categoryRepository.findAll();
+    public PageResult<Category> getAllCategories(PageQuery query) {
+        return paginationPolicy.list(query,
+                categoryRepository::findAllBy,
+                categoryRepository::findSliceBy,
+                categoryRepository::count);
     }
 
-    public PageResponse<Category> getAllCategories(int pageNo, int pageSize, String sortBy, String sortDir) {
-        Sort sort = sortDir.equalsIgnoreCase(Sort.Direction.ASC.name()) ?
-                Sort.by(sortBy).ascending() : Sort.by(sortBy).descending();
-        Pageable pageable = PageRequest.of(pageNo, pageSize, sort);
-        Page<Category> page = categoryRepository.findAll(pageable);
-        return PageResponse.of(page);
+    public List<Category> getCategories(int limit) {
+        return categoryRepository.findAllBy(Limit.of(limit));
     }
 
+    // Batch lookup with one query, missing ids are left out
+    public List<Category> getCategoriesByIds(Collection<Long> ids) {
+        return categoryRepository.findAllById(ids);
+    }
+
+    // Cached for other services, concurrent misses for the same id wait for a single query; the updates
+    // below call it directly and work on a managed instance
+    @Cacheable(cacheNames = CacheConfig.CATEGORIES, key = "#id.toString()", sync = true)
     public Category getCategoryById(Long id) {
         return categoryRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Category not found with id: " + id));
     }
 
+    @Transactional
     public Category createCategory(CategoryDto categoryDto) {
         Category category = new Category();
         category.setName(categoryDto.getName());
         category.setDescription(categoryDto.getDescription());
-        return categoryRepository.save(category);
+        // Flushed here so the version check runs now and the event carries the new version
+        Category saved = categoryRepository.saveAndFlush(category);
+        outboxService.record(OutboxEvent.AggregateType.CATEGORY, saved.getId(),
+                OutboxEvent.EventType.CREATED, null, saved);
+        auditTrail.record(AuditLog.Action.CREATE, OutboxEvent.AggregateType.CATEGORY, saved.getId());
+        return saved;
     }
 
-    public Category updateCategory(Long id, CategoryDto categoryDto) {
+    @Transactional
+    public Category updateCategory(Long id, CategoryDto categoryDto, Long expectedVersion) {
         Category category = getCategoryById(id);
+        if (expectedVersion != null && !expectedVersion.equals(category.getVersion())) {
+            throw new PreconditionFailedException("Category was modified, current version is " + category.getVersion(),
+                    category, category.getVersion());
+        }
         category.setName(categoryDto.getName());
         category.setDescription(categoryDto.getDescription());
-        return categoryRepository.save(category);
+        // Flushed here so the version check runs now and the event carries the new version
+        Category saved = categoryRepository.saveAndFlush(category);
+        outboxService.record(OutboxEvent.AggregateType.CATEGORY, saved.getId(),
+                OutboxEvent.EventType.UPDATED, null, saved);
+        cacheInvalidationBus.evict(CacheConfig.CATEGORIES, saved.getId());
+        auditTrail.record(AuditLog.Action.UPDATE, OutboxEvent.AggregateType.CATEGORY, saved.getId());
+        return saved;
     }
 
+    @Transactional
     public void deleteCategory(Long id) {
         Category category = getCategoryById(id);
         categoryRepository.delete(category);
+        outboxService.record(OutboxEvent.AggregateType.CATEGORY, category.getId(),
+                OutboxEvent.EventType.DELETED, null, null);
+        cacheInvalidationBus.evict(CacheConfig.CATEGORIES, category.getId());
+        auditTrail.record(AuditLog.Action.DELETE, OutboxEvent.AggregateType.CATEGORY, category.getId());
     }
 }
@@ -0,0 +1,219 @@
+package com.moneycontrol.api.service;
+
+import com.moneycontrol.api.currency.Money;
+import com.moneycontrol.api.dto.DuplicateGroupDto;
+import com.moneycontrol.api.model.DuplicateGroup;
+import com.moneycontrol.api.model.Transaction;
+import com.moneycontrol.api.model.User;
+import com.moneycontrol.api.repository.DuplicateGroupRepository;
+import com.moneycontrol.api.repository.TransactionRepository;
+import com.moneycontrol.api.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Likely duplicates share a fingerprint (type, currency, amount and day), so candidates come from one
+// indexed bucket lookup instead of comparing every pair; descriptions are then compared by trigram overlap
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DuplicateDetectionService {
+
+    private final TransactionRepository transactionRepository;
+    private final DuplicateGroupRepository duplicateGroupRepository;
+    private final UserRepository userRepository;
+    private final UserService userService;
+    private final TransactionTemplate transactionTemplate;
+    private final JobLockService jobLockService;
+
+    @Value("${app.dedupe.min-similarity:0.5}")
+    private double minSimilarity;
+
+    @Value("${app.dedupe.max-candidates:50}")
+    private int maxCandidates;
+
+    @Value("${app.dedupe.lock-hours:6}")
+    private long lockHours;
+
+    // Must match the expression in db/postgres/transaction-fingerprints.sql
+    public static long fingerprint(Transaction.TransactionType type, String currency, BigDecimal amount, LocalDateTime date) {
+        String key = type.name() + "|" + currency + "|" + Money.toMinorUnits(amount) + "|"
+                + date.format(DateTimeFormatter.ISO_LOCAL_DATE);
+        try {
+            byte[] digest = MessageDigest.getInstance("MD5").digest(key.getBytes(StandardCharsets.UTF_8));
+            return ByteBuffer.wrap(digest).getLong();
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("MD5 is not available", ex);
+        }
+    }
+
+    public static long fingerprint(Transaction transaction) {
+        return fingerprint(transaction.getType(), transaction.getCurrency(), transaction.getAmount(), transaction.getDate());
+    }
+
+    // Jaccard index of the normalized trigram sets, 1.0 for descriptions that only differ in case,
+    // accents or punctuation
+    public static double similarity(String first, String second) {
+        Set<String> a = trigrams(first);
+        Set<String> b = trigrams(second);
+        if (a.isEmpty() || b.isEmpty()) {
+            return a.equals(b) ? 1.0 : 0.0;
+        }
+        int shared = 0;
+        for (String trigram : a) {
+            if (b.contains(trigram)) {
+                shared++;
+            }
+        }
+        return (double) shared / (a.size() + b.size() - shared);
+    }
+
+    static Set<String> trigrams(String description) {
+        String normalized = Normalizer.normalize(description == null ? "" : description, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .toLowerCase()
+                .replaceAll("[^a-z0-9]+", " ")
+                .trim();
+        Set<String> trigrams = new HashSet<>();
+        for (String word : normalized.split(" ")) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            String padded = "  " + word + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                trigrams.add(padded.substring(i, i + 3));
+            }
+        }
+        return trigrams;
+    }
+
+    // Rows already stored that the given one looks like a copy of; the caller sets its fingerprint first
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<Long> findPossibleDuplicates(Transaction transaction) {
+        List<Long> ids = new ArrayList<>();
+        for (Transaction candidate : transactionRepository.findByFingerprint(transaction.getUser().getId(),
+                transaction.getFingerprint(), Limit.of(maxCandidates))) {
+            if (!candidate.getId().equals(transaction.getId())
+                    && similarity(candidate.getDescription(), transaction.getDescription()) >= minSimilarity) {
+                ids.add(candidate.getId());
+            }
+        }
+        return ids;
+    }
+
+    @Transactional
+    public int refreshReport(Long userId) {
+        duplicateGroupRepository.deleteByUserId(userId);
+        List<Long> shared = transactionRepository.findSharedFingerprints(userId);
+        if (shared.isEmpty()) {
+            return 0;
+        }
+
+        Map<Long, List<Transaction>> buckets = new HashMap<>();
+        for (Transaction transaction : transactionRepository.findByFingerprintIn(userId, shared)) {
+            buckets.computeIfAbsent(transaction.getFingerprint(), key -> new ArrayList<>()).add(transaction);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<DuplicateGroup> groups = new ArrayList<>();
+        for (List<Transaction> bucket : buckets.values()) {
+            for (List<Transaction> cluster : cluster(bucket)) {
+                String ids = cluster.stream().map(t -> t.getId().toString()).collect(Collectors.joining(","));
+                groups.add(new DuplicateGroup(null, userId, ids, now));
+            }
+        }
+        duplicateGroupRepository.saveAll(groups);
+        return groups.size();
+    }
+
+    // One node builds the reports per round
+    @Scheduled(cron = "${app.dedupe.report-cron:0 0 5 * * *}")
+    public void refreshAll() {
+        jobLockService.runExclusively("duplicate-report", Duration.ofHours(lockHours), this::refreshUsers);
+    }
+
+    private void refreshUsers() {
+        int users = 0;
+        int groups = 0;
+        for (Long userId : userRepository.findAllIds()) {
+            try {
+                groups += transactionTemplate.execute(status -> refreshReport(userId));
+                users++;
+            } catch (Exception ex) {
+                log.error("Could not build the duplicate report for user {}", userId, ex);
+            }
+        }
+        log.info("Built duplicate reports for {} users, {} groups found", users, groups);
+    }
+
+    // Groups from the last report, without rows deleted since then
+    @Transactional(readOnly = true)
+    public List<DuplicateGroupDto> getReport(String email) {
+        User user = userService.getCurrentUser(email);
+        List<DuplicateGroup> groups = duplicateGroupRepository.findByUserIdOrderByIdAsc(user.getId());
+        Map<DuplicateGroup, List<Long>> idsByGroup = new LinkedHashMap<>();
+        for (DuplicateGroup group : groups) {
+            idsByGroup.put(group, Arrays.stream(group.getTransactionIds().split(",")).map(Long::valueOf).toList());
+        }
+        List<Long> allIds = idsByGroup.values().stream().flatMap(List::stream).toList();
+        if (allIds.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Transaction> current = transactionRepository.findByUserIdAndIdIn(user.getId(), allIds).stream()
+                .collect(Collectors.toMap(Transaction::getId, Function.identity()));
+
+        List<DuplicateGroupDto> report = new ArrayList<>();
+        idsByGroup.forEach((group, ids) -> {
+            List<Transaction> transactions = ids.stream().map(current::get).filter(t -> t != null).toList();
+            if (transactions.size() > 1) {
+                report.add(new DuplicateGroupDto(group.getDetectedAt(), transactions));
+            }
+        });
+        return report;
+    }
+
+    // Buckets are small, so each row simply joins the first group whose first row it resembles
+    private List<List<Transaction>> cluster(List<Transaction> bucket) {
+        List<List<Transaction>> clusters = new ArrayList<>();
+        for (Transaction transaction : bucket) {
+            List<Transaction> match = null;
+            for (List<Transaction> cluster : clusters) {
+                if (similarity(cluster.get(0).getDescription(), transaction.getDescription()) >= minSimilarity) {
+                    match = cluster;
+                    break;
+                }
+            }
+            if (match == null) {
+                match = new ArrayList<>();
+                clusters.add(match);
+            }
+            match.add(transaction);
+        }
+        return clusters.stream().filter(cluster -> cluster.size() > 1).toList();
+    }
+}
@@ -0,0 +1,321 @@
+package com.moneycontrol.api.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.moneycontrol.api.archive.ArchiveService;
+import com.moneycontrol.api.currency.ExchangeRateService;
+import com.moneycontrol.api.currency.Money;
+import com.moneycontrol.api.dto.BalancePoint;
+import com.moneycontrol.api.dto.CashFlowForecast;
+import com.moneycontrol.api.dto.GoalForecast;
+import com.moneycontrol.api.model.ForecastSnapshot;
+import com.moneycontrol.api.model.Transaction;
+import com.moneycontrol.api.model.User;
+import com.moneycontrol.api.repository.ForecastSnapshotRepository;
+import com.moneycontrol.api.repository.GoalRepository;
+import com.moneycontrol.api.repository.TransactionRepository;
+import com.moneycontrol.api.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Projects each user's balance and goal completion from the average monthly income and expense of the
+// last complete months. Inputs come from grouped sums over the transactions and the archive, loaded for a
+// whole chunk of users per query, so the nightly batch costs a handful of queries per chunk instead of per user
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ForecastService {
+
+    private final TransactionRepository transactionRepository;
+    private final GoalRepository goalRepository;
+    private final ForecastSnapshotRepository snapshotRepository;
+    private final UserRepository userRepository;
+    private final UserService userService;
+    private final ArchiveService archiveService;
+    private final ExchangeRateService exchangeRateService;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final JobLockService jobLockService;
+
+    private TransactionTemplate readOnlyTemplate;
+    private ExecutorService batchExecutor;
+
+    @Value("${app.forecast.history-months:6}")
+    private int historyMonths;
+
+    @Value("${app.forecast.horizon-months:12}")
+    private int horizonMonths;
+
+    @Value("${app.forecast.max-age-hours:24}")
+    private long maxAgeHours;
+
+    @Value("${app.forecast.batch-threads:4}")
+    private int batchThreads;
+
+    @Value("${app.forecast.chunk-size:200}")
+    private int chunkSize;
+
+    @Value("${app.forecast.batch-window-minutes:120}")
+    private long batchWindowMinutes;
+
+    @Value("${app.forecast.lock-hours:3}")
+    private long lockHours;
+
+    @PostConstruct
+    void init() {
+        readOnlyTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        readOnlyTemplate.setReadOnly(true);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        batchExecutor = Executors.newFixedThreadPool(batchThreads, runnable -> {
+            Thread thread = new Thread(runnable, "forecast-batch-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        batchExecutor.shutdownNow();
+    }
+
+    // Serves the stored projection while it is fresh; a missing or stale one is computed on the spot
+    public CashFlowForecast getForecast(String email, boolean refresh) {
+        User user = userService.getCurrentUser(email);
+        Optional<ForecastSnapshot> snapshot = snapshotRepository.findByUserId(user.getId());
+        if (!refresh && snapshot.isPresent()
+                && snapshot.get().getComputedAt().isAfter(LocalDateTime.now().minusHours(maxAgeHours))) {
+            return fromJson(snapshot.get().getPayload());
+        }
+
+        List<Long> userIds = List.of(user.getId());
+        Map<Long, CashFlowForecast> forecasts = readOnlyTemplate.execute(status -> compute(userIds, false));
+        try {
+            transactionTemplate.executeWithoutResult(status -> store(userIds, forecasts));
+        } catch (DataIntegrityViolationException ex) {
+            log.debug("Forecast of user {} stored concurrently", user.getId());
+        }
+        return forecasts.get(user.getId());
+    }
+
+    // One node runs the batch per round, the others would only race it on the snapshot inserts
+    @Scheduled(cron = "${app.forecast.batch-cron:0 0 1 * * *}")
+    public void refreshAll() {
+        jobLockService.runExclusively("forecast", Duration.ofHours(lockHours), this::refreshUsers);
+    }
+
+    // Users are split into chunks handed to a fixed pool; chunks not started before the window closes
+    // keep their previous snapshot and are refreshed on their next request
+    private void refreshUsers() {
+        List<Long> userIds = userRepository.findAllIds();
+        LocalDateTime deadline = LocalDateTime.now().plusMinutes(batchWindowMinutes);
+        AtomicInteger refreshed = new AtomicInteger();
+        AtomicInteger skipped = new AtomicInteger();
+        long started = System.nanoTime();
+
+        List<Future<?>> chunks = new ArrayList<>();
+        for (int i = 0; i < userIds.size(); i += chunkSize) {
+            List<Long> chunk = userIds.subList(i, Math.min(i + chunkSize, userIds.size()));
+            chunks.add(batchExecutor.submit(() -> {
+                if (LocalDateTime.now().isAfter(deadline)) {
+                    skipped.addAndGet(chunk.size());
+                    return;
+                }
+                try {
+                    transactionTemplate.executeWithoutResult(status -> store(chunk, compute(chunk, true)));
+                    refreshed.addAndGet(chunk.size());
+                } catch (Exception ex) {
+                    log.error("Could not refresh forecasts of users {} to {}", chunk.get(0), chunk.get(chunk.size() - 1), ex);
+                }
+            }));
+        }
+        for (Future<?> chunk : chunks) {
+            try {
+                chunk.get();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException ex) {
+                log.error("Forecast chunk failed", ex.getCause());
+            }
+        }
+
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - started);
+        if (skipped.get() > 0) {
+            log.warn("Forecast batch hit its {} minute window, {} users not refreshed", batchWindowMinutes, skipped.get());
+        }
+        log.info("Refreshed forecasts of {} users in {} s", refreshed.get(), elapsed.toSeconds());
+    }
+
+    // In the batch, users whose amounts can't be converted are left out and keep their previous snapshot
+    private Map<Long, CashFlowForecast> compute(List<Long> userIds, boolean skipFailures) {
+        YearMonth current = YearMonth.now();
+        // The history stays within the hot years, archived rows only count towards the balance
+        Map<Long, List<Object[]>> months = groupByUser(transactionRepository.sumByUserAndMonth(userIds,
+                current.minusMonths(historyMonths).atDay(1).atStartOfDay(), current.atDay(1).atStartOfDay()));
+        Map<Long, List<Object[]>> balances = groupByUser(transactionRepository.sumByUserTypeAndCurrency(userIds));
+        Map<Long, List<Object[]>> archived = archiveService.sumByTypeAndCurrency(userIds);
+        Map<Long, List<Object[]>> goals = groupByUser(goalRepository.findForecastInputs(userIds));
+
+        Map<Long, CashFlowForecast> forecasts = new LinkedHashMap<>();
+        for (Long userId : userIds) {
+            try {
+                forecasts.put(userId, forecast(current, months.getOrDefault(userId, List.of()),
+                        balances.getOrDefault(userId, List.of()), archived.getOrDefault(userId, List.of()),
+                        goals.getOrDefault(userId, List.of())));
+            } catch (RuntimeException ex) {
+                if (!skipFailures) {
+                    throw ex;
+                }
+                log.warn("Could not compute the forecast of user {}: {}", userId, ex.getMessage());
+            }
+        }
+        return forecasts;
+    }
+
+    private void store(List<Long> userIds, Map<Long, CashFlowForecast> forecasts) {
+        if (forecasts.isEmpty()) {
+            return;
+        }
+        snapshotRepository.deleteByUserIdIn(forecasts.keySet());
+        List<ForecastSnapshot> snapshots = new ArrayList<>(forecasts.size());
+        forecasts.forEach((userId, forecast) ->
+                snapshots.add(new ForecastSnapshot(null, userId, forecast.getComputedAt(), toJson(forecast))));
+        snapshotRepository.saveAll(snapshots);
+        if (forecasts.size() < userIds.size()) {
+            log.debug("{} of {} forecasts kept their previous snapshot", userIds.size() - forecasts.size(), userIds.size());
+        }
+    }
+
+    private CashFlowForecast forecast(YearMonth current, List<Object[]> monthRows, List<Object[]> balanceRows,
+                                      List<Object[]> archivedRows, List<Object[]> goalRows) {
+        String currency = exchangeRateService.getBaseCurrency();
+
+        // Averaged from the first month with data, so a new user isn't diluted by empty months
+        long income = 0;
+        long expense = 0;
+        YearMonth first = null;
+        for (Object[] row : monthRows) {
+            YearMonth month = YearMonth.of(((Number) row[1]).intValue(), ((Number) row[2]).intValue());
+            first = first == null || month.isBefore(first) ? month : first;
+            long amount = convert((BigDecimal) row[5], (String) row[4], currency);
+            if (row[3] == Transaction.TransactionType.INCOME) {
+                income = Money.add(income, amount);
+            } else {
+                expense = Money.add(expense, amount);
+            }
+        }
+        int months = first == null ? 0 : (int) first.until(current, ChronoUnit.MONTHS);
+        long monthlyIncome = divide(income, months);
+        long monthlyExpense = divide(expense, months);
+        long monthlyNet = Math.subtractExact(monthlyIncome, monthlyExpense);
+
+        long balance = 0;
+        for (Object[] row : balanceRows) {
+            balance = addSigned(balance, row[1], convert((BigDecimal) row[3], (String) row[2], currency));
+        }
+        for (Object[] row : archivedRows) {
+            balance = addSigned(balance, row[0], convert((BigDecimal) row[2], (String) row[1], currency));
+        }
+
+        List<BalancePoint> projection = new ArrayList<>(horizonMonths);
+        for (int i = 1; i <= horizonMonths; i++) {
+            projection.add(new BalancePoint(current.plusMonths(i),
+                    Money.toBigDecimal(Money.add(balance, Math.multiplyExact(monthlyNet, i)))));
+        }
+
+        List<GoalForecast> goals = new ArrayList<>(goalRows.size());
+        for (Object[] row : goalRows) {
+            goals.add(goal(row, current, monthlyNet));
+        }
+        return new CashFlowForecast(currency, LocalDateTime.now(), months, Money.toBigDecimal(monthlyIncome),
+                Money.toBigDecimal(monthlyExpense), Money.toBigDecimal(monthlyNet), Money.toBigDecimal(balance),
+                projection, goals);
+    }
+
+    // Each goal is measured against the whole net rate, goal amounts are in the base currency
+    private static GoalForecast goal(Object[] row, YearMonth current, long monthlyNet) {
+        BigDecimal target = (BigDecimal) row[3];
+        BigDecimal saved = (BigDecimal) row[4];
+        LocalDate targetDate = (LocalDate) row[5];
+        long remaining = Math.max(0, Math.subtractExact(Money.toMinorUnits(target), Money.toMinorUnits(saved)));
+        int monthsLeft = (int) Math.max(1, current.until(YearMonth.from(targetDate), ChronoUnit.MONTHS));
+
+        YearMonth completion = null;
+        if (remaining == 0) {
+            completion = current;
+        } else if (monthlyNet > 0) {
+            completion = current.plusMonths((remaining + monthlyNet - 1) / monthlyNet);
+        }
+        boolean onTrack = completion != null && !completion.isAfter(YearMonth.from(targetDate));
+        return new GoalForecast((Long) row[1], (String) row[2], target, saved, targetDate,
+                Money.toBigDecimal(divideUp(remaining, monthsLeft)), completion, onTrack);
+    }
+
+    private long convert(BigDecimal amount, String from, String to) {
+        return exchangeRateService.convert(Money.of(amount), from, to).minorUnits();
+    }
+
+    private static long addSigned(long balance, Object type, long amount) {
+        return type == Transaction.TransactionType.INCOME ? Money.add(balance, amount) : Math.subtractExact(balance, amount);
+    }
+
+    private static long divide(long total, int months) {
+        return months == 0 ? 0 : BigDecimal.valueOf(total)
+                .divide(BigDecimal.valueOf(months), 0, RoundingMode.HALF_EVEN).longValueExact();
+    }
+
+    private static long divideUp(long total, int months) {
+        return (total + months - 1) / months;
+    }
+
+    private static Map<Long, List<Object[]>> groupByUser(List<Object[]> rows) {
+        Map<Long, List<Object[]>> byUser = new HashMap<>();
+        for (Object[] row : rows) {
+            byUser.computeIfAbsent((Long) row[0], key -> new ArrayList<>()).add(row);
+        }
+        return byUser;
+    }
+
+    private String toJson(CashFlowForecast forecast) {
+        try {
+            return objectMapper.writeValueAsString(forecast);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not serialize forecast", ex);
+        }
+    }
+
+    private CashFlowForecast fromJson(String payload) {
+        try {
+            return objectMapper.readValue(payload, CashFlowForecast.class);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not read stored forecast", ex);
+        }
+    }
+}
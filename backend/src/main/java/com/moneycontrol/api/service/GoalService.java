@@ -1,18 +1,23 @@
 package com.moneycontrol.api.service;
 
+import com.moneycontrol.api.audit.AuditTrail;
 import com.moneycontrol.api.dto.GoalDto;
-import com.moneycontrol.api.dto.PageResponse;
+import com.moneycontrol.api.dto.PageQuery;
+import com.moneycontrol.api.dto.PageResult;
+import com.moneycontrol.api.exception.PreconditionFailedException;
 import com.moneycontrol.api.exception.ResourceNotFoundException;
+import com.moneycontrol.api.model.AuditLog;
 import com.moneycontrol.api.model.Goal;
+import com.moneycontrol.api.model.OutboxEvent;
 import com.moneycontrol.api.model.User;
 import com.moneycontrol.api.repository.GoalRepository;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Service
@@ -21,19 +26,28 @@ public class GoalService {
 
     private final GoalRepository goalRepository;
     private final UserService userService;
+    private final OutboxService outboxService;
+    private final PaginationPolicy paginationPolicy;
+    private final TrashService trashService;
+    private final SyncService syncService;
+    private final AuditTrail auditTrail;
 
-    public List<Goal> getAllGoalsByUser(String email) {
+    public PageResult<Goal> getAllGoalsByUser(String email, PageQuery query) {
         User user = userService.getCurrentUser(email);
-        return goalRepository.findByUser(user);
+        return paginationPolicy.list(query,
+                limit -> goalRepository.findByUser(user, limit),
+                pageable -> goalRepository.findSliceByUser(user, pageable),
+                () -> goalRepository.countByUser(user));
     }
 
-    public PageResponse<Goal> getAllGoalsByUser(String email, int pageNo, int pageSize, String sortBy, String sortDir) {
+    public List<Goal> getGoals(String email, int limit) {
         User user = userService.getCurrentUser(email);
-        Sort sort = sortDir.equalsIgnoreCase(Sort.Direction.ASC.name()) ?
-                Sort.by(sortBy).ascending() : Sort.by(sortBy).descending();
-        Pageable pageable = PageRequest.of(pageNo, pageSize, sort);
-        Page<Goal> page = goalRepository.findByUser(user, pageable);
-        return PageResponse.of(page);
+        return goalRepository.findByUser(user, Limit.of(limit));
+    }
+
+    // Batch lookup, ids of other users are left out
+    public List<Goal> getGoalsByIds(Long userId, Collection<Long> ids) {
+        return goalRepository.findByUserIdAndIdIn(userId, ids);
     }
 
     public Goal getGoalById(Long id, String email) {
@@ -48,6 +62,7 @@ public class GoalService {
         return goal;
     }
 
+    @Transactional
     public Goal createGoal(GoalDto goalDto, String email) {
         User user = userService.getCurrentUser(email);
 
@@ -58,24 +73,67 @@ public class GoalService {
         goal.setCurrentAmount(goalDto.getCurrentAmount());
         goal.setTargetDate(goalDto.getTargetDate());
         goal.setUser(user);
+        goal.setChangeSeq(syncService.nextChangeSeq(user.getId()));
 
-        return goalRepository.save(goal);
+        Goal saved = goalRepository.save(goal);
+        outboxService.record(OutboxEvent.AggregateType.GOAL, saved.getId(),
+                OutboxEvent.EventType.CREATED, user.getId(), saved);
+        auditTrail.record(AuditLog.Action.CREATE, OutboxEvent.AggregateType.GOAL, saved.getId());
+        return saved;
     }
 
-    public Goal updateGoal(Long id, GoalDto goalDto, String email) {
+    @Transactional
+    public Goal updateGoal(Long id, GoalDto goalDto, String email, Long expectedVersion) {
         Goal goal = getGoalById(id, email);
+        if (expectedVersion != null && !expectedVersion.equals(goal.getVersion())) {
+            throw new PreconditionFailedException("Goal was modified, current version is " + goal.getVersion(),
+                    goal, goal.getVersion());
+        }
 
         goal.setName(goalDto.getName());
         goal.setDescription(goalDto.getDescription());
         goal.setTargetAmount(goalDto.getTargetAmount());
         goal.setCurrentAmount(goalDto.getCurrentAmount());
         goal.setTargetDate(goalDto.getTargetDate());
-
-        return goalRepository.save(goal);
+        goal.setChangeSeq(syncService.nextChangeSeq(goal.getUser().getId()));
+
+        // Flushed here so the version check runs now and the event carries the new version
+        Goal saved = goalRepository.saveAndFlush(goal);
+        outboxService.record(OutboxEvent.AggregateType.GOAL, saved.getId(),
+                OutboxEvent.EventType.UPDATED, saved.getUser().getId(), saved);
+        auditTrail.record(AuditLog.Action.UPDATE, OutboxEvent.AggregateType.GOAL, saved.getId());
+        return saved;
     }
 
+    @Transactional
     public void deleteGoal(Long id, String email) {
         Goal goal = getGoalById(id, email);
-        goalRepository.delete(goal);
+        goal.setDeletedAt(LocalDateTime.now());
+        goal.setChangeSeq(syncService.nextChangeSeq(goal.getUser().getId()));
+        goalRepository.save(goal);
+        outboxService.record(OutboxEvent.AggregateType.GOAL, goal.getId(),
+                OutboxEvent.EventType.DELETED, goal.getUser().getId(), null);
+        auditTrail.record(AuditLog.Action.DELETE, OutboxEvent.AggregateType.GOAL, goal.getId());
+    }
+
+    public List<Goal> getDeletedGoals(String email) {
+        User user = userService.getCurrentUser(email);
+        LocalDateTime since = trashService.undoWindowStart();
+        return paginationPolicy.unbounded(limit -> goalRepository.findDeleted(user.getId(), since, limit.max()));
+    }
+
+    @Transactional
+    public Goal restoreGoal(Long id, String email) {
+        User user = userService.getCurrentUser(email);
+        long changeSeq = syncService.nextChangeSeq(user.getId());
+        if (goalRepository.restore(id, user.getId(), trashService.undoWindowStart(), changeSeq) == 0) {
+            throw new ResourceNotFoundException("No deleted goal with id " + id + " within the undo window");
+        }
+
+        Goal restored = getGoalById(id, email);
+        outboxService.record(OutboxEvent.AggregateType.GOAL, restored.getId(),
+                OutboxEvent.EventType.CREATED, user.getId(), restored);
+        auditTrail.record(AuditLog.Action.RESTORE, OutboxEvent.AggregateType.GOAL, restored.getId());
+        return restored;
     }
 }
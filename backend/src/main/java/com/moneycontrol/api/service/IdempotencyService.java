@@ -0,0 +1,169 @@
+package com.moneycontrol.api.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.moneycontrol.api.exception.IdempotencyConflictException;
+import com.moneycontrol.api.exception.IdempotencyKeyMismatchException;
+import com.moneycontrol.api.model.IdempotencyKey;
+import com.moneycontrol.api.repository.IdempotencyKeyRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HexFormat;
+import java.util.function.Supplier;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final UserService userService;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.idempotency.ttl-hours:24}")
+    private long ttlHours;
+
+    @Value("${app.idempotency.lease-seconds:60}")
+    private long leaseSeconds;
+
+    public ResponseEntity<?> execute(String email, String key, Object request, Supplier<?> action) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException(HEADER + " must have between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+
+        Long userId = userService.getCurrentUser(email).getId();
+        String requestHash = hash(request);
+
+        IdempotencyKey claimed = claim(userId, key, requestHash);
+        if (claimed == null) {
+            IdempotencyKey existing = idempotencyKeyRepository.findByUserIdAndIdempotencyKey(userId, key)
+                    .orElseThrow(() -> new IdempotencyConflictException("A request with this " + HEADER + " was just released, retry"));
+            if (existing.getExpiresAt().isAfter(LocalDateTime.now())) {
+                claimed = takeOver(existing, requestHash);
+                if (claimed == null) {
+                    return replay(existing, requestHash);
+                }
+            } else {
+                idempotencyKeyRepository.delete(existing);
+                claimed = claim(userId, key, requestHash);
+                if (claimed == null) {
+                    throw new IdempotencyConflictException("A request with this " + HEADER + " is still being processed");
+                }
+            }
+        }
+
+        try {
+            IdempotencyKey inProgress = claimed;
+            // The action and the stored response commit together, a retry never sees one without the other
+            Object result = transactionTemplate.execute(status -> {
+                Object value = action.get();
+                if (idempotencyKeyRepository.complete(inProgress.getId(), inProgress.getClaimedAt(),
+                        IdempotencyKey.Status.COMPLETED, HttpStatus.OK.value(), toJson(value)) == 0) {
+                    // Rolls the action back, the retry holding the key now runs it
+                    throw new IdempotencyConflictException("A retry took over this " + HEADER + " after "
+                            + leaseSeconds + " seconds, this attempt was rolled back");
+                }
+                return value;
+            });
+            return ResponseEntity.ok(result);
+        } catch (RuntimeException ex) {
+            // Release the key so the client can retry a failed request, unless a retry holds it already
+            idempotencyKeyRepository.release(claimed.getId(), claimed.getClaimedAt());
+            throw ex;
+        }
+    }
+
+    @Scheduled(cron = "${app.idempotency.cleanup-cron:0 15 * * * *}")
+    public void evictExpired() {
+        int deleted = idempotencyKeyRepository.deleteExpired(LocalDateTime.now());
+        log.info("Evicted {} expired idempotency keys", deleted);
+    }
+
+    // Returns null when another request already holds the key; the unique constraint decides, no lock is taken
+    private IdempotencyKey claim(Long userId, String key, String requestHash) {
+        LocalDateTime now = now();
+        IdempotencyKey idempotencyKey = new IdempotencyKey();
+        idempotencyKey.setUserId(userId);
+        idempotencyKey.setIdempotencyKey(key);
+        idempotencyKey.setRequestHash(requestHash);
+        idempotencyKey.setStatus(IdempotencyKey.Status.IN_PROGRESS);
+        idempotencyKey.setCreatedAt(now);
+        idempotencyKey.setClaimedAt(now);
+        idempotencyKey.setExpiresAt(now.plusHours(ttlHours));
+
+        try {
+            return idempotencyKeyRepository.saveAndFlush(idempotencyKey);
+        } catch (DataIntegrityViolationException ex) {
+            return null;
+        }
+    }
+
+    // A key left IN_PROGRESS past the lease belongs to an attempt that died (crash, lost connection) or
+    // is far too slow; the same request may run again instead of getting 409 until the key expires
+    private IdempotencyKey takeOver(IdempotencyKey existing, String requestHash) {
+        if (existing.getStatus() != IdempotencyKey.Status.IN_PROGRESS || !existing.getRequestHash().equals(requestHash)) {
+            return null;
+        }
+        LocalDateTime now = now();
+        if (idempotencyKeyRepository.takeOver(existing.getId(), IdempotencyKey.Status.IN_PROGRESS, now,
+                now.minusSeconds(leaseSeconds)) == 0) {
+            return null;
+        }
+        log.warn("Taking over idempotency key {} of user {}, claimed at {}", existing.getIdempotencyKey(),
+                existing.getUserId(), existing.getClaimedAt());
+        existing.setClaimedAt(now);
+        return existing;
+    }
+
+    // Compared for equality in the database, so kept to a precision every column type stores exactly
+    private static LocalDateTime now() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+    }
+
+    private ResponseEntity<?> replay(IdempotencyKey existing, String requestHash) {
+        if (!existing.getRequestHash().equals(requestHash)) {
+            throw new IdempotencyKeyMismatchException(HEADER + " was already used with a different request body");
+        }
+        if (existing.getStatus() == IdempotencyKey.Status.IN_PROGRESS) {
+            throw new IdempotencyConflictException("A request with this " + HEADER + " is still being processed");
+        }
+        return ResponseEntity.status(existing.getResponseStatus())
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("Idempotent-Replayed", "true")
+                .body(existing.getResponseBody());
+    }
+
+    private String hash(Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(objectMapper.writeValueAsBytes(request)));
+        } catch (JsonProcessingException | NoSuchAlgorithmException ex) {
+            throw new RuntimeException("Could not hash request", ex);
+        }
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException ex) {
+            throw new RuntimeException("Could not serialize response", ex);
+        }
+    }
+}
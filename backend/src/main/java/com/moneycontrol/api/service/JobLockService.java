@@ -0,0 +1,59 @@
+package com.moneycontrol.api.service;
+
+import com.moneycontrol.api.model.JobLock;
+import com.moneycontrol.api.repository.JobLockRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Runs a job on one node of the cluster at a time: the node that takes the lease row runs it, the others
+// skip the round. The lease expires on its own, so a node dying mid-run only delays the next run
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class JobLockService {
+
+    private final JobLockRepository jobLockRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    public boolean runExclusively(String name, Duration lease, Runnable job) {
+        if (!tryAcquire(name, lease)) {
+            // Routine for the outbox relay, which meets the lock held several times a second
+            log.debug("Job {} is running on another node, skipping it", name);
+            return false;
+        }
+        try {
+            job.run();
+            return true;
+        } finally {
+            transactionTemplate.executeWithoutResult(status -> jobLockRepository.release(name, nodeId, LocalDateTime.now()));
+        }
+    }
+
+    private boolean tryAcquire(String name, Duration lease) {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+                if (jobLockRepository.acquire(name, nodeId, now, now.plus(lease)) > 0) {
+                    return true;
+                }
+                if (jobLockRepository.existsById(name)) {
+                    return false;
+                }
+                jobLockRepository.saveAndFlush(new JobLock(name, nodeId, now.plus(lease)));
+                return true;
+            }));
+        } catch (DataIntegrityViolationException ex) {
+            // Another node created the row first
+            return false;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.moneycontrol.api.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.moneycontrol.api.model.OutboxEvent;
+import com.moneycontrol.api.model.Transaction;
+import com.moneycontrol.api.repository.OutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+public class OutboxService {
+
+    private static final String INSERT = "INSERT INTO outbox_events (aggregate_type, aggregate_id, event_type, "
+            + "user_id, payload, created_at) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+    private final JdbcTemplate jdbcTemplate;
+
+    // Must join the caller's transaction so the event is only stored if the change commits
+    @Transactional(propagation = Propagation.MANDATORY)
+    public OutboxEvent record(OutboxEvent.AggregateType aggregateType, Long aggregateId,
+                              OutboxEvent.EventType eventType, Long userId, Object payload) {
+        OutboxEvent event = new OutboxEvent();
+        event.setAggregateType(aggregateType);
+        event.setAggregateId(aggregateId);
+        event.setEventType(eventType);
+        event.setUserId(userId);
+        event.setPayload(toJson(payload));
+        event.setCreatedAt(LocalDateTime.now());
+        return outboxEventRepository.save(event);
+    }
+
+    // Bulk writes carry the same payload as single ones, inserted as one JDBC batch
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordTransactions(Long userId, List<Transaction> transactions, OutboxEvent.EventType eventType) {
+        Timestamp createdAt = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT, transactions, transactions.size(), (statement, transaction) -> {
+            statement.setString(1, OutboxEvent.AggregateType.TRANSACTION.name());
+            statement.setLong(2, transaction.getId());
+            statement.setString(3, eventType.name());
+            statement.setLong(4, userId);
+            statement.setString(5, toJson(transaction));
+            statement.setTimestamp(6, createdAt);
+        });
+    }
+
+    // Deletes carry no payload, single or bulk, so the ids are all a consumer needs
+    @Transactional(propagation = Propagation.MANDATORY)
+    public int recordDeletedTransactions(List<Long> transactionIds) {
+        if (transactionIds.isEmpty()) {
+            return 0;
+        }
+        return outboxEventRepository.insertTransactionEvents(transactionIds, OutboxEvent.EventType.DELETED.name(),
+                LocalDateTime.now());
+    }
+
+    private String toJson(Object payload) {
+        if (payload == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException ex) {
+            throw new RuntimeException("Could not serialize outbox event payload", ex);
+        }
+    }
+}
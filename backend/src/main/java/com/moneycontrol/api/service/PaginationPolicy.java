@@ -0,0 +1,100 @@
+package com.moneycontrol.api.service;
+
+import com.moneycontrol.api.dto.ListResponse;
+import com.moneycontrol.api.dto.PageQuery;
+import com.moneycontrol.api.dto.PageResponse;
+import com.moneycontrol.api.dto.PageResult;
+import com.moneycontrol.api.dto.SliceResponse;
+import com.moneycontrol.api.exception.ListLimitExceededException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+@Component
+public class PaginationPolicy {
+
+    public enum Resource {
+        TRANSACTIONS(Set.of("id", "date", "amount", "description", "type")),
+        GOALS(Set.of("id", "name", "targetDate", "targetAmount", "currentAmount")),
+        CATEGORIES(Set.of("id", "name")),
+        BUDGETS(Set.of("id", "amount"));
+
+        private final Set<String> sortableFields;
+
+        Resource(Set<String> sortableFields) {
+            this.sortableFields = sortableFields;
+        }
+    }
+
+    @Value("${app.pagination.max-page-size:100}")
+    private int maxPageSize;
+
+    @Value("${app.pagination.unbounded-max-rows:2000}")
+    private int unboundedMaxRows;
+
+    public Pageable pageable(Resource resource, int pageNo, int pageSize, String sortBy, String sortDir) {
+        if (pageNo < 0) {
+            throw new IllegalArgumentException("pageNo must not be negative");
+        }
+        if (!resource.sortableFields.contains(sortBy)) {
+            throw new IllegalArgumentException("Cannot sort by '" + sortBy + "', allowed fields: " + resource.sortableFields);
+        }
+        Sort sort = sortDir.equalsIgnoreCase(Sort.Direction.ASC.name()) ?
+                Sort.by(sortBy).ascending() : Sort.by(sortBy).descending();
+        return PageRequest.of(pageNo, Math.min(pageSize, maxPageSize), sort);
+    }
+
+    // Answers a list request as a plain list, a slice (never counted) or a page, which only runs the
+    // count query when the slice can't tell the total: there are rows after it, or the page is past the end
+    public <T> PageResult<T> list(PageQuery query, Function<Limit, List<T>> unboundedQuery,
+                                  Function<Pageable, Slice<T>> sliceQuery, Supplier<Long> countQuery) {
+        if (query.isUnpaged()) {
+            return new ListResponse<>(unbounded(unboundedQuery));
+        }
+
+        Slice<T> slice = sliceQuery.apply(query.getPageable());
+        if (query.getMode() == PageQuery.Mode.SLICE) {
+            return SliceResponse.of(slice);
+        }
+        long offset = slice.getPageable().getOffset();
+        long total = slice.hasNext() || (!slice.hasContent() && offset > 0)
+                ? countQuery.get() : offset + slice.getNumberOfElements();
+        return PageResponse.of(slice, total);
+    }
+
+    // Same responses for rows that were already loaded and sorted in memory
+    public <T> PageResult<T> list(PageQuery query, List<T> rows) {
+        if (query.isUnpaged()) {
+            return new ListResponse<>(unbounded(limit -> rows.size() > limit.max() ? rows.subList(0, limit.max()) : rows));
+        }
+
+        Pageable pageable = query.getPageable();
+        int from = (int) Math.min(pageable.getOffset(), rows.size());
+        int to = Math.min(from + pageable.getPageSize(), rows.size());
+        Slice<T> slice = new SliceImpl<>(rows.subList(from, to), pageable, to < rows.size());
+        if (query.getMode() == PageQuery.Mode.SLICE) {
+            return SliceResponse.of(slice);
+        }
+        return PageResponse.of(slice, rows.size());
+    }
+
+    // Loads at most one row past the limit, so an oversized list is refused without reading it all
+    public <T> List<T> unbounded(Function<Limit, List<T>> query) {
+        List<T> rows = query.apply(Limit.of(unboundedMaxRows + 1));
+        if (rows.size() > unboundedMaxRows) {
+            throw new ListLimitExceededException(
+                    "More than " + unboundedMaxRows + " results, use pageSize between 1 and " + maxPageSize);
+        }
+        return rows;
+    }
+}
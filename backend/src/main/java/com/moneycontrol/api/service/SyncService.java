@@ -0,0 +1,156 @@
+package com.moneycontrol.api.service;
+
+import com.moneycontrol.api.dto.SyncResponse;
+import com.moneycontrol.api.model.Goal;
+import com.moneycontrol.api.model.Transaction;
+import com.moneycontrol.api.model.User;
+import com.moneycontrol.api.repository.GoalRepository;
+import com.moneycontrol.api.repository.SyncSequenceRepository;
+import com.moneycontrol.api.repository.TransactionRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+// Delta sync for offline clients: every write to a user's transactions or goals stamps the row with the
+// next number of that user's change sequence, so "what changed since N" is one index range per table
+@Service
+@RequiredArgsConstructor
+public class SyncService {
+
+    private final SyncSequenceRepository syncSequenceRepository;
+    private final TransactionRepository transactionRepository;
+    private final GoalRepository goalRepository;
+    private final UserService userService;
+    private final TrashService trashService;
+
+    @Value("${app.sync.batch-size:500}")
+    private int batchSize;
+
+    // Must be called before the write takes any other row lock. The counter row stays locked until
+    // commit, so a user's numbers commit in order and a reader never skips one that commits later
+    @Transactional(propagation = Propagation.MANDATORY)
+    public long nextChangeSeq(Long userId) {
+        if (syncSequenceRepository.increment(userId) == 0) {
+            syncSequenceRepository.insertIfAbsent(userId);
+            syncSequenceRepository.increment(userId);
+        }
+        return syncSequenceRepository.findLastSeq(userId).orElseThrow();
+    }
+
+    // Same lock as nextChangeSeq without using up a number, for rebuilds that must not interleave with
+    // the user's writes. Clients and report caches see no change
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void lockChangeSeq(Long userId) {
+        syncSequenceRepository.insertIfAbsent(userId);
+        syncSequenceRepository.findForUpdate(userId);
+    }
+
+    @Transactional(readOnly = true)
+    public SyncResponse sync(String email, String since, Integer limit) {
+        User user = userService.getCurrentUser(email);
+        int maxRows = limit == null ? batchSize : Math.max(1, Math.min(limit, batchSize));
+        LocalDateTime now = LocalDateTime.now();
+
+        SyncToken cursor = since == null || since.isBlank() ? SyncToken.start(now) : SyncToken.parse(since);
+        // Deletes older than the trash window are purged, the client can't be told about them anymore
+        boolean reset = cursor.issuedAt().isBefore(trashService.undoWindowStart());
+        if (reset) {
+            cursor = SyncToken.start(now);
+        }
+
+        // Read first: every number up to it is committed, later ones may still be in flight
+        long upToSeq = syncSequenceRepository.findLastSeq(user.getId()).orElse(0L);
+        List<Transaction> transactions = transactionRepository.findChangedAfter(
+                user.getId(), cursor.seq(), cursor.transactionId(), upToSeq, maxRows + 1);
+        List<Goal> goals = goalRepository.findChangedAfter(
+                user.getId(), cursor.seq(), cursor.goalId(), upToSeq, maxRows + 1);
+
+        // Merged in (seq, transactions before goals, id) order, the order the cursor resumes from
+        int t = 0;
+        int g = 0;
+        boolean lastWasTransaction = false;
+        while (t + g < maxRows && (t < transactions.size() || g < goals.size())) {
+            lastWasTransaction = g == goals.size() || (t < transactions.size()
+                    && transactions.get(t).getChangeSeq() <= goals.get(g).getChangeSeq());
+            if (lastWasTransaction) {
+                t++;
+            } else {
+                g++;
+            }
+        }
+
+        boolean hasMore = t < transactions.size() || g < goals.size();
+        SyncToken next;
+        if (!hasMore) {
+            next = new SyncToken(upToSeq, Long.MAX_VALUE, Long.MAX_VALUE, now);
+        } else if (lastWasTransaction) {
+            Transaction last = transactions.get(t - 1);
+            next = new SyncToken(last.getChangeSeq(), last.getId(), 0, cursor.issuedAt());
+        } else {
+            // Goals come after transactions, so every transaction at this seq went out already
+            Goal last = goals.get(g - 1);
+            next = new SyncToken(last.getChangeSeq(), Long.MAX_VALUE, last.getId(), cursor.issuedAt());
+        }
+
+        List<Transaction> changedTransactions = new ArrayList<>();
+        List<Long> deletedTransactionIds = new ArrayList<>();
+        for (Transaction transaction : transactions.subList(0, t)) {
+            if (transaction.getDeletedAt() == null) {
+                changedTransactions.add(transaction);
+            } else {
+                deletedTransactionIds.add(transaction.getId());
+            }
+        }
+        List<Goal> changedGoals = new ArrayList<>();
+        List<Long> deletedGoalIds = new ArrayList<>();
+        for (Goal goal : goals.subList(0, g)) {
+            if (goal.getDeletedAt() == null) {
+                changedGoals.add(goal);
+            } else {
+                deletedGoalIds.add(goal.getId());
+            }
+        }
+
+        return new SyncResponse(next.encode(), hasMore, reset, changedTransactions, changedGoals,
+                deletedTransactionIds, deletedGoalIds);
+    }
+
+    // Opaque to clients. Everything up to (seq, transactionId) and (seq, goalId) was delivered; issuedAt
+    // is when the chain of pages started, deletes after it are still in the trash
+    private record SyncToken(long seq, long transactionId, long goalId, LocalDateTime issuedAt) {
+
+        static SyncToken start(LocalDateTime now) {
+            return new SyncToken(0, 0, 0, now);
+        }
+
+        static SyncToken parse(String token) {
+            try {
+                String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split(":");
+                if (parts.length != 5 || !parts[0].equals("v1")) {
+                    throw new IllegalArgumentException();
+                }
+                LocalDateTime issuedAt = LocalDateTime.ofInstant(
+                        Instant.ofEpochSecond(Long.parseLong(parts[4])), ZoneId.systemDefault());
+                return new SyncToken(Long.parseLong(parts[1]), Long.parseLong(parts[2]), Long.parseLong(parts[3]), issuedAt);
+            } catch (IllegalArgumentException ex) {
+                throw new IllegalArgumentException("Invalid sync token, sync again without since");
+            }
+        }
+
+        String encode() {
+            String raw = "v1:" + seq + ":" + transactionId + ":" + goalId + ":"
+                    + issuedAt.atZone(ZoneId.systemDefault()).toEpochSecond();
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.moneycontrol.api.service;
+
+import com.moneycontrol.api.audit.AuditTrail;
+import com.moneycontrol.api.cache.CacheConfig;
+import com.moneycontrol.api.cache.CacheInvalidationBus;
+import com.moneycontrol.api.dto.BulkResult;
+import com.moneycontrol.api.dto.BulkTransactionRequest;
+import com.moneycontrol.api.exception.ListLimitExceededException;
+import com.moneycontrol.api.model.AuditLog;
+import com.moneycontrol.api.model.Category;
+import com.moneycontrol.api.model.OutboxEvent;
+import com.moneycontrol.api.model.Transaction;
+import com.moneycontrol.api.model.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+// Bulk changes as one locking select plus one UPDATE, both restricted to the current user in SQL
+@Service
+@RequiredArgsConstructor
+public class TransactionBulkService {
+
+    private final EntityManager entityManager;
+    private final UserService userService;
+    private final CategoryService categoryService;
+    private final CategoryRollupService categoryRollupService;
+    private final OutboxService outboxService;
+    private final SyncService syncService;
+    private final BalanceCheckpointService balanceCheckpointService;
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final AuditTrail auditTrail;
+
+    @Value("${app.bulk.max-rows:5000}")
+    private int maxRows;
+
+    @Transactional
+    public BulkResult recategorize(BulkTransactionRequest request, String email) {
+        if (request.getTargetCategoryId() == null) {
+            throw new IllegalArgumentException("targetCategoryId is required");
+        }
+        User user = userService.getCurrentUser(email);
+        Category target = categoryService.getCategoryById(request.getTargetCategoryId());
+
+        // Taken before the row locks, the same order single writes use
+        long changeSeq = syncService.nextChangeSeq(user.getId());
+        List<CategoryRollupService.Snapshot> selected = lockSelection(request, user);
+        List<CategoryRollupService.Snapshot> moving = selected.stream()
+                .filter(snapshot -> !target.getId().equals(snapshot.categoryId()))
+                .toList();
+        List<Long> ids = moving.stream().map(CategoryRollupService.Snapshot::transactionId).toList();
+        if (!ids.isEmpty()) {
+            CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+            CriteriaUpdate<Transaction> update = cb.createCriteriaUpdate(Transaction.class);
+            Root<Transaction> root = update.from(Transaction.class);
+            update.set(root.<Category>get("category"), target)
+                    .set(root.<Long>get("version"), cb.sum(root.<Long>get("version"), 1L))
+                    .set(root.<Long>get("changeSeq"), changeSeq)
+                    .where(cb.equal(root.get("user"), user), root.get("id").in(ids));
+            entityManager.createQuery(update).executeUpdate();
+
+            categoryRollupService.removedAll(moving);
+            categoryRollupService.addedAll(moving.stream().map(snapshot -> snapshot.withCategory(target.getId())).toList());
+            outboxService.recordTransactions(user.getId(), updated(ids), OutboxEvent.EventType.UPDATED);
+            auditTrail.recordAll(AuditLog.Action.UPDATE, OutboxEvent.AggregateType.TRANSACTION, ids);
+        }
+        return new BulkResult(ids.size(), notFound(request, selected));
+    }
+
+    @Transactional
+    public BulkResult delete(BulkTransactionRequest request, String email) {
+        User user = userService.getCurrentUser(email);
+
+        long changeSeq = syncService.nextChangeSeq(user.getId());
+        List<CategoryRollupService.Snapshot> selected = lockSelection(request, user);
+        List<Long> ids = selected.stream().map(CategoryRollupService.Snapshot::transactionId).toList();
+        if (!ids.isEmpty()) {
+            // Soft delete, the rows stay restorable and are purged later in small batches
+            CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+            CriteriaUpdate<Transaction> update = cb.createCriteriaUpdate(Transaction.class);
+            Root<Transaction> root = update.from(Transaction.class);
+            update.set(root.<LocalDateTime>get("deletedAt"), LocalDateTime.now())
+                    .set(root.<Long>get("version"), cb.sum(root.<Long>get("version"), 1L))
+                    .set(root.<Long>get("changeSeq"), changeSeq)
+                    .where(cb.equal(root.get("user"), user), root.get("id").in(ids));
+            entityManager.createQuery(update).executeUpdate();
+
+            categoryRollupService.removedAll(selected);
+            balanceCheckpointService.removedAll(selected);
+            outboxService.recordDeletedTransactions(ids);
+            cacheInvalidationBus.evict(CacheConfig.SUMMARIES, user.getId());
+            auditTrail.recordAll(AuditLog.Action.DELETE, OutboxEvent.AggregateType.TRANSACTION, ids);
+        }
+        return new BulkResult(ids.size(), notFound(request, selected));
+    }
+
+    // The rows as the UPDATE left them, for the event payloads; none of them was loaded as an entity before
+    private List<Transaction> updated(List<Long> ids) {
+        return entityManager.createQuery("SELECT t FROM Transaction t JOIN FETCH t.category JOIN FETCH t.user "
+                        + "WHERE t.id IN :ids ORDER BY t.id", Transaction.class)
+                .setParameter("ids", ids)
+                .getResultList();
+    }
+
+    // Reads only the columns the rollups need, locking the rows so the rollup deltas match what gets updated
+    private List<CategoryRollupService.Snapshot> lockSelection(BulkTransactionRequest request, User user) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Transaction> root = query.from(Transaction.class);
+        Path<Long> id = root.get("id");
+        Path<Long> categoryId = root.get("category").get("id");
+        Path<LocalDateTime> date = root.get("date");
+        Path<Transaction.TransactionType> type = root.get("type");
+        Path<String> currency = root.get("currency");
+        Path<BigDecimal> amount = root.get("amount");
+        query.multiselect(id, categoryId, date, type, currency, amount)
+                .where(selection(cb, root, request, user))
+                .orderBy(cb.asc(id));
+
+        List<Tuple> rows = entityManager.createQuery(query)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .setMaxResults(maxRows + 1)
+                .getResultList();
+        if (rows.size() > maxRows) {
+            throw new ListLimitExceededException("More than " + maxRows + " transactions selected, narrow the filter");
+        }
+
+        List<CategoryRollupService.Snapshot> snapshots = new ArrayList<>(rows.size());
+        for (Tuple row : rows) {
+            snapshots.add(new CategoryRollupService.Snapshot(row.get(id), user.getId(), row.get(categoryId),
+                    row.get(date), row.get(type), row.get(currency), row.get(amount)));
+        }
+        return snapshots;
+    }
+
+    private Predicate selection(CriteriaBuilder cb, Root<Transaction> root, BulkTransactionRequest request, User user) {
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(cb.equal(root.get("user"), user));
+        if (request.getIds() != null) {
+            predicates.add(root.get("id").in(request.getIds()));
+        }
+        if (request.getStart() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(root.get("date"), request.getStart()));
+        }
+        if (request.getEnd() != null) {
+            predicates.add(cb.lessThanOrEqualTo(root.get("date"), request.getEnd()));
+        }
+        if (request.getCategoryId() != null) {
+            predicates.add(cb.equal(root.get("category").get("id"), request.getCategoryId()));
+        }
+        if (request.getType() != null) {
+            predicates.add(cb.equal(root.get("type"), request.getType()));
+        }
+        if (predicates.size() == 1) {
+            throw new IllegalArgumentException("Select transactions with ids or at least one filter");
+        }
+        if (request.getIds() != null && request.getIds().isEmpty()) {
+            throw new IllegalArgumentException("ids must not be empty");
+        }
+        return cb.and(predicates.toArray(Predicate[]::new));
+    }
+
+    private static List<Long> notFound(BulkTransactionRequest request, List<CategoryRollupService.Snapshot> selected) {
+        if (request.getIds() == null) {
+            return List.of();
+        }
+        Set<Long> found = new HashSet<>();
+        selected.forEach(snapshot -> found.add(snapshot.transactionId()));
+        return request.getIds().stream().filter(Objects::nonNull).filter(id -> !found.contains(id)).distinct().toList();
+    }
+}
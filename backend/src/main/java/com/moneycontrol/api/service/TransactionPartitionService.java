@@ -0,0 +1,76 @@
+package com.moneycontrol.api.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(name = "app.partitioning.enabled", havingValue = "true")
+public class TransactionPartitionService {
+
+    private static final String PARTITION_PREFIX = "transactions_p";
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.partitioning.months-ahead:3}")
+    private int monthsAhead;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        maintainPartitions();
+    }
+
+    // Only creates partitions; old rows stay attached and readable, closed years go to the segment archive (ArchiveService)
+    @Scheduled(cron = "${app.partitioning.cron:0 0 3 * * *}")
+    public void maintainPartitions() {
+        if (!isPartitioned()) {
+            log.warn("Table transactions is not partitioned, run db/postgres/transactions-partitioning.sql first");
+            return;
+        }
+
+        YearMonth current = YearMonth.now();
+        for (int i = 0; i <= monthsAhead; i++) {
+            createPartition(current.plusMonths(i));
+        }
+    }
+
+    public void createPartition(YearMonth month) {
+        String name = partitionName(month);
+        LocalDate from = month.atDay(1);
+        LocalDate to = month.plusMonths(1).atDay(1);
+        try {
+            jdbcTemplate.execute(String.format(
+                    "CREATE TABLE IF NOT EXISTS %s PARTITION OF transactions FOR VALUES FROM ('%s') TO ('%s')",
+                    name, from, to));
+        } catch (Exception ex) {
+            // Usually rows for that month already landed in the default partition.
+            log.error("Could not create partition {}", name, ex);
+        }
+    }
+
+    private boolean isPartitioned() {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM pg_partitioned_table p " +
+                        "JOIN pg_class c ON c.oid = p.partrelid " +
+                        "WHERE c.relname = 'transactions' AND pg_table_is_visible(c.oid)",
+                Integer.class);
+        return count != null && count > 0;
+    }
+
+    private static String partitionName(YearMonth month) {
+        return PARTITION_PREFIX + month.format(PARTITION_SUFFIX);
+    }
+}
@@ -1,21 +1,37 @@
 package com.moneycontrol.api.service;
 
-import com.moneycontrol.api.dto.PageResponse;
+import com.moneycontrol.api.archive.ArchiveService;
+import com.moneycontrol.api.audit.AuditTrail;
+import com.moneycontrol.api.cache.CacheConfig;
+import com.moneycontrol.api.cache.CacheInvalidationBus;
+import com.moneycontrol.api.currency.ExchangeRateService;
+import com.moneycontrol.api.currency.Money;
+import com.moneycontrol.api.dto.PageQuery;
+import com.moneycontrol.api.dto.PageResult;
+import com.moneycontrol.api.dto.TransactionSummary;
 import com.moneycontrol.api.dto.TransactionDto;
+import com.moneycontrol.api.exception.ListLimitExceededException;
+import com.moneycontrol.api.exception.PreconditionFailedException;
 import com.moneycontrol.api.exception.ResourceNotFoundException;
+import com.moneycontrol.api.model.AuditLog;
 import com.moneycontrol.api.model.Category;
+import com.moneycontrol.api.model.OutboxEvent;
 import com.moneycontrol.api.model.Transaction;
 import com.moneycontrol.api.model.User;
 import com.moneycontrol.api.repository.TransactionRepository;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -24,19 +40,61 @@ public class TransactionService {
     private final TransactionRepository transactionRepository;
     private final UserService userService;
     private final CategoryService categoryService;
+    private final OutboxService outboxService;
+    private final PaginationPolicy paginationPolicy;
+    private final CategoryRollupService categoryRollupService;
+    private final ExchangeRateService exchangeRateService;
+    private final TrashService trashService;
+    private final SyncService syncService;
+    private final DuplicateDetectionService duplicateDetectionService;
+    private final ArchiveService archiveService;
+    private final BalanceCheckpointService balanceCheckpointService;
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final AuditTrail auditTrail;
 
-    public List<Transaction> getAllTransactionsByUser(String email) {
+    @Value("${app.archive.max-merged-rows:10000}")
+    private int maxMergedRows;
+
+    public PageResult<Transaction> getAllTransactionsByUser(String email, PageQuery query) {
         User user = userService.getCurrentUser(email);
-        return transactionRepository.findByUser(user);
+        return paginationPolicy.list(query,
+                limit -> transactionRepository.findByUser(user, limit),
+                pageable -> transactionRepository.findSliceByUser(user, pageable),
+                () -> transactionRepository.countByUser(user));
     }
 
-    public PageResponse<Transaction> getAllTransactionsByUser(String email, int pageNo, int pageSize, String sortBy, String sortDir) {
+    public List<Transaction> getRecentTransactions(String email, int limit) {
         User user = userService.getCurrentUser(email);
-        Sort sort = sortDir.equalsIgnoreCase(Sort.Direction.ASC.name()) ?
-                Sort.by(sortBy).ascending() : Sort.by(sortBy).descending();
-        Pageable pageable = PageRequest.of(pageNo, pageSize, sort);
-        Page<Transaction> page = transactionRepository.findByUser(user, pageable);
-        return PageResponse.of(page);
+        return transactionRepository.findRecent(user.getId(), Limit.of(limit));
+    }
+
+    public TransactionSummary getSummary(String email, String currency) {
+        User user = userService.getCurrentUser(email);
+        return getSummaryByUserId(user.getId(), exchangeRateService.normalize(currency));
+    }
+
+    public TransactionSummary getSummaryByUserId(Long userId) {
+        return getSummaryByUserId(userId, exchangeRateService.getBaseCurrency());
+    }
+
+    // The database and the archive sum per type and currency, so only one conversion per currency happens here.
+    // The sums are cached per user until one of the writes below evicts them
+    private TransactionSummary getSummaryByUserId(Long userId, String currency) {
+        long income = 0;
+        long expense = 0;
+        List<Object[]> totals = cacheInvalidationBus.get(CacheConfig.SUMMARIES, userId, () -> Stream.concat(
+                transactionRepository.sumAmountByTypeAndCurrency(userId).stream(),
+                archiveService.sumByTypeAndCurrency(userId).stream()).toList());
+        for (Object[] row : totals) {
+            long amount = exchangeRateService.convert(Money.of((BigDecimal) row[2]), (String) row[1], currency).minorUnits();
+            if (row[0] == Transaction.TransactionType.INCOME) {
+                income = Money.add(income, amount);
+            } else {
+                expense = Money.add(expense, amount);
+            }
+        }
+        return new TransactionSummary(currency, Money.toBigDecimal(income), Money.toBigDecimal(expense),
+                Money.toBigDecimal(Math.subtractExact(income, expense)));
     }
 
     public Transaction getTransactionById(Long id, String email) {
@@ -51,6 +109,7 @@ public class TransactionService {
         return transaction;
     }
 
+    @Transactional
     public Transaction createTransaction(TransactionDto transactionDto, String email) {
         User user = userService.getCurrentUser(email);
         Category category = categoryService.getCategoryById(transactionDto.getCategoryId());
@@ -58,71 +117,151 @@ public class TransactionService {
         Transaction transaction = new Transaction();
         transaction.setDescription(transactionDto.getDescription());
         transaction.setAmount(transactionDto.getAmount());
+        transaction.setCurrency(exchangeRateService.normalizeConvertible(transactionDto.getCurrency()));
         transaction.setDate(transactionDto.getDate());
         transaction.setType(transactionDto.getType());
         transaction.setCategory(category);
         transaction.setUser(user);
+        transaction.setChangeSeq(syncService.nextChangeSeq(user.getId()));
+        transaction.setFingerprint(DuplicateDetectionService.fingerprint(transaction));
 
-        return transactionRepository.save(transaction);
+        // Looked up before the insert, so the new row can't match itself
+        List<Long> possibleDuplicates = duplicateDetectionService.findPossibleDuplicates(transaction);
+        Transaction saved = transactionRepository.save(transaction);
+        categoryRollupService.added(saved);
+        balanceCheckpointService.added(categoryRollupService.snapshot(saved));
+        outboxService.record(OutboxEvent.AggregateType.TRANSACTION, saved.getId(),
+                OutboxEvent.EventType.CREATED, user.getId(), saved);
+        cacheInvalidationBus.evict(CacheConfig.SUMMARIES, user.getId());
+        auditTrail.record(AuditLog.Action.CREATE, OutboxEvent.AggregateType.TRANSACTION, saved.getId());
+        saved.setPossibleDuplicateIds(possibleDuplicates);
+        return saved;
     }
 
-    public Transaction updateTransaction(Long id, TransactionDto transactionDto, String email) {
+    @Transactional
+    public Transaction updateTransaction(Long id, TransactionDto transactionDto, String email, Long expectedVersion) {
         Transaction transaction = getTransactionById(id, email);
+        if (expectedVersion != null && !expectedVersion.equals(transaction.getVersion())) {
+            throw new PreconditionFailedException("Transaction was modified, current version is " + transaction.getVersion(),
+                    transaction, transaction.getVersion());
+        }
         Category category = categoryService.getCategoryById(transactionDto.getCategoryId());
+        CategoryRollupService.Snapshot before = categoryRollupService.snapshot(transaction);
 
         transaction.setDescription(transactionDto.getDescription());
         transaction.setAmount(transactionDto.getAmount());
+        if (transactionDto.getCurrency() != null) {
+            transaction.setCurrency(exchangeRateService.normalizeConvertible(transactionDto.getCurrency()));
+        }
         transaction.setDate(transactionDto.getDate());
         transaction.setType(transactionDto.getType());
         transaction.setCategory(category);
+        transaction.setChangeSeq(syncService.nextChangeSeq(transaction.getUser().getId()));
+        transaction.setFingerprint(DuplicateDetectionService.fingerprint(transaction));
 
-        return transactionRepository.save(transaction);
+        // Flushed here so the version check runs now and the event carries the new version
+        Transaction saved = transactionRepository.saveAndFlush(transaction);
+        categoryRollupService.changed(before, saved);
+        balanceCheckpointService.changed(before, categoryRollupService.snapshot(saved));
+        outboxService.record(OutboxEvent.AggregateType.TRANSACTION, saved.getId(),
+                OutboxEvent.EventType.UPDATED, saved.getUser().getId(), saved);
+        cacheInvalidationBus.evict(CacheConfig.SUMMARIES, saved.getUser().getId());
+        auditTrail.record(AuditLog.Action.UPDATE, OutboxEvent.AggregateType.TRANSACTION, saved.getId());
+        return saved;
     }
 
+    @Transactional
     public void deleteTransaction(Long id, String email) {
         Transaction transaction = getTransactionById(id, email);
-        transactionRepository.delete(transaction);
+        transaction.setDeletedAt(LocalDateTime.now());
+        transaction.setChangeSeq(syncService.nextChangeSeq(transaction.getUser().getId()));
+        transactionRepository.save(transaction);
+        CategoryRollupService.Snapshot removed = categoryRollupService.snapshot(transaction);
+        categoryRollupService.removed(removed);
+        balanceCheckpointService.removed(removed);
+        outboxService.record(OutboxEvent.AggregateType.TRANSACTION, transaction.getId(),
+                OutboxEvent.EventType.DELETED, transaction.getUser().getId(), null);
+        cacheInvalidationBus.evict(CacheConfig.SUMMARIES, transaction.getUser().getId());
+        auditTrail.record(AuditLog.Action.DELETE, OutboxEvent.AggregateType.TRANSACTION, transaction.getId());
     }
 
-    public List<Transaction> getTransactionsByDateRange(LocalDateTime start, LocalDateTime end, String email) {
+    public List<Transaction> getDeletedTransactions(String email) {
         User user = userService.getCurrentUser(email);
-        return transactionRepository.findByUserAndDateBetween(user, start, end);
+        LocalDateTime since = trashService.undoWindowStart();
+        return paginationPolicy.unbounded(limit -> transactionRepository.findDeleted(user.getId(), since, limit.max()));
     }
 
-    public PageResponse<Transaction> getTransactionsByDateRange(LocalDateTime start, LocalDateTime end, String email, int pageNo, int pageSize, String sortBy, String sortDir) {
+    @Transactional
+    public Transaction restoreTransaction(Long id, String email) {
         User user = userService.getCurrentUser(email);
-        Sort sort = sortDir.equalsIgnoreCase(Sort.Direction.ASC.name()) ?
-                Sort.by(sortBy).ascending() : Sort.by(sortBy).descending();
-        Pageable pageable = PageRequest.of(pageNo, pageSize, sort);
-        Page<Transaction> page = transactionRepository.findByUserAndDateBetween(user, start, end, pageable);
-        return PageResponse.of(page);
+        long changeSeq = syncService.nextChangeSeq(user.getId());
+        if (transactionRepository.restore(id, user.getId(), trashService.undoWindowStart(), changeSeq) == 0) {
+            throw new ResourceNotFoundException("No deleted transaction with id " + id + " within the undo window");
+        }
+
+        Transaction restored = getTransactionById(id, email);
+        categoryRollupService.added(restored);
+        balanceCheckpointService.added(categoryRollupService.snapshot(restored));
+        outboxService.record(OutboxEvent.AggregateType.TRANSACTION, restored.getId(),
+                OutboxEvent.EventType.CREATED, user.getId(), restored);
+        cacheInvalidationBus.evict(CacheConfig.SUMMARIES, user.getId());
+        auditTrail.record(AuditLog.Action.RESTORE, OutboxEvent.AggregateType.TRANSACTION, restored.getId());
+        return restored;
     }
 
-    public List<Transaction> getTransactionsByType(Transaction.TransactionType type, String email) {
+    public PageResult<Transaction> getTransactionsByDateRange(LocalDateTime start, LocalDateTime end, String email, PageQuery query) {
         User user = userService.getCurrentUser(email);
-        return transactionRepository.findByUserAndType(user, type);
+        if (archiveService.hasArchived(user.getId(), start, end.plusNanos(1))) {
+            return getMergedTransactionsByDateRange(start, end, user, query);
+        }
+        return paginationPolicy.list(query,
+                limit -> transactionRepository.findByUserAndDateBetween(user, start, end, limit),
+                pageable -> transactionRepository.findSliceByUserAndDateBetween(user, start, end, pageable),
+                () -> transactionRepository.countByUserAndDateBetween(user, start, end));
     }
 
-    public PageResponse<Transaction> getTransactionsByType(Transaction.TransactionType type, String email, int pageNo, int pageSize, String sortBy, String sortDir) {
-        User user = userService.getCurrentUser(email);
-        Sort sort = sortDir.equalsIgnoreCase(Sort.Direction.ASC.name()) ?
-                Sort.by(sortBy).ascending() : Sort.by(sortBy).descending();
-        Pageable pageable = PageRequest.of(pageNo, pageSize, sort);
-        Page<Transaction> page = transactionRepository.findByUserAndType(user, type, pageable);
-        return PageResponse.of(page);
+    // Ranges reaching into archived years are sorted and paged in memory, up to app.archive.max-merged-rows
+    private PageResult<Transaction> getMergedTransactionsByDateRange(LocalDateTime start, LocalDateTime end, User user, PageQuery query) {
+        List<Transaction> rows = new ArrayList<>(
+                transactionRepository.findByUserAndDateBetween(user, start, end, Limit.of(maxMergedRows + 1)));
+        rows.addAll(archiveService.findTransactions(user, start, end.plusNanos(1)));
+        if (rows.size() > maxMergedRows) {
+            throw new ListLimitExceededException("More than " + maxMergedRows
+                    + " transactions in a range that includes archived years, narrow the date range");
+        }
+        rows.sort(comparator(query.isUnpaged() ? Sort.by("date").descending() : query.getPageable().getSort()));
+        return paginationPolicy.list(query, rows);
+    }
+
+    private static Comparator<Transaction> comparator(Sort sort) {
+        Comparator<Transaction> comparator = null;
+        for (Sort.Order order : sort) {
+            Comparator<Transaction> field = switch (order.getProperty()) {
+                case "date" -> Comparator.comparing(Transaction::getDate);
+                case "amount" -> Comparator.comparing(Transaction::getAmount);
+                case "description" -> Comparator.comparing(Transaction::getDescription);
+                case "type" -> Comparator.comparing(Transaction::getType);
+                default -> Comparator.comparing(Transaction::getId);
+            };
+            field = order.isDescending() ? field.reversed() : field;
+            comparator = comparator == null ? field : comparator.thenComparing(field);
+        }
+        return comparator == null ? Comparator.comparing(Transaction::getId) : comparator.thenComparing(Transaction::getId);
     }
 
-    public List<Transaction> getTransactionsByCategory(Long categoryId, String email) {
+    public PageResult<Transaction> getTransactionsByType(Transaction.TransactionType type, String email, PageQuery query) {
         User user = userService.getCurrentUser(email);
-        return transactionRepository.findByUserAndCategoryId(user, categoryId);
+        return paginationPolicy.list(query,
+                limit -> transactionRepository.findByUserAndType(user, type, limit),
+                pageable -> transactionRepository.findSliceByUserAndType(user, type, pageable),
+                () -> transactionRepository.countByUserAndType(user, type));
     }
 
-    public PageResponse<Transaction> getTransactionsByCategory(Long categoryId, String email, int pageNo, int pageSize, String sortBy, String sortDir) {
+    public PageResult<Transaction> getTransactionsByCategory(Long categoryId, String email, PageQuery query) {
         User user = userService.getCurrentUser(email);
-        Sort sort = sortDir.equalsIgnoreCase(Sort.Direction.ASC.name()) ?
-                Sort.by(sortBy).ascending() : Sort.by(sortBy).descending();
-        Pageable pageable = PageRequest.of(pageNo, pageSize, sort);
-        Page<Transaction> page = transactionRepository.findByUserAndCategoryId(user, categoryId, pageable);
-        return PageResponse.of(page);
+        return paginationPolicy.list(query,
+                limit -> transactionRepository.findByUserAndCategoryId(user, categoryId, limit),
+                pageable -> transactionRepository.findSliceByUserAndCategoryId(user, categoryId, pageable),
+                () -> transactionRepository.countByUserAndCategoryId(user, categoryId));
     }
 }
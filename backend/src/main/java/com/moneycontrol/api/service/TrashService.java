@@ -0,0 +1,106 @@
+package com.moneycontrol.api.service;
+
+import com.moneycontrol.api.audit.AuditTrail;
+import com.moneycontrol.api.model.AuditLog;
+import com.moneycontrol.api.model.OutboxEvent;
+import com.moneycontrol.api.repository.GoalRepository;
+import com.moneycontrol.api.repository.TransactionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TrashService {
+
+    private final TransactionRepository transactionRepository;
+    private final GoalRepository goalRepository;
+    private final AuditTrail auditTrail;
+    private final TransactionTemplate transactionTemplate;
+    private final JobLockService jobLockService;
+
+    @Value("${app.trash.retention-days:30}")
+    private long retentionDays;
+
+    @Value("${app.trash.purge-batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.trash.purge-max-batches:100}")
+    private int maxBatches;
+
+    @Value("${app.trash.purge-pause-ms:200}")
+    private long pauseMs;
+
+    @Value("${app.trash.lock-hours:1}")
+    private long lockHours;
+
+    // Deleted rows newer than this can still be listed and restored
+    public LocalDateTime undoWindowStart() {
+        return LocalDateTime.now().minusDays(retentionDays);
+    }
+
+    // One node purges per round, two would fetch and audit the same batches
+    @Scheduled(cron = "${app.trash.purge-cron:0 0 2 * * *}")
+    public void purgeExpired() {
+        jobLockService.runExclusively("trash-purge", Duration.ofHours(lockHours), this::purgeAll);
+    }
+
+    private void purgeAll() {
+        LocalDateTime cutoff = undoWindowStart();
+        int transactions = purge(OutboxEvent.AggregateType.TRANSACTION, cutoff,
+                transactionRepository::findPurgeable, transactionRepository::purge);
+        int goals = purge(OutboxEvent.AggregateType.GOAL, cutoff, goalRepository::findPurgeable, goalRepository::purge);
+        log.info("Purged {} transactions and {} goals deleted before {}", transactions, goals, cutoff);
+    }
+
+    // Small batches, each in its own short transaction with a pause in between, so the purge never
+    // holds locks for long or saturates the database; whatever is left waits for the next run.
+    // Every purged row is audited as a delete of its owner's data
+    private int purge(OutboxEvent.AggregateType type, LocalDateTime cutoff,
+                      BiFunction<LocalDateTime, Integer, List<Object[]>> findBatch, Function<List<Long>, Integer> delete) {
+        int total = 0;
+        for (int batch = 0; batch < maxBatches; batch++) {
+            Integer deleted = transactionTemplate.execute(status -> {
+                Map<Long, List<Long>> idsByUser = new HashMap<>();
+                List<Long> ids = new ArrayList<>();
+                for (Object[] row : findBatch.apply(cutoff, batchSize)) {
+                    Long id = ((Number) row[0]).longValue();
+                    ids.add(id);
+                    idsByUser.computeIfAbsent(((Number) row[1]).longValue(), key -> new ArrayList<>()).add(id);
+                }
+                if (ids.isEmpty()) {
+                    return 0;
+                }
+                delete.apply(ids);
+                idsByUser.forEach((userId, userIds) ->
+                        auditTrail.recordAllFor(userId, AuditLog.Action.DELETE, type, userIds, "purged"));
+                return ids.size();
+            });
+            total += deleted;
+            if (deleted < batchSize) {
+                return total;
+            }
+            try {
+                Thread.sleep(pauseMs);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return total;
+            }
+        }
+        log.warn("Purge of {} stopped after {} batches, continuing on the next run", type, maxBatches);
+        return total;
+    }
+}
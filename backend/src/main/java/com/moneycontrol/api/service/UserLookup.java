@@ -0,0 +1,37 @@
+package com.moneycontrol.api.service;
+
+import com.moneycontrol.api.cache.CacheConfig;
+import com.moneycontrol.api.exception.ResourceNotFoundException;
+import com.moneycontrol.api.model.User;
+import com.moneycontrol.api.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Component;
+
+// Users by email, behind UserService.getCurrentUser. Only the identity is cached, never the entity with its
+// password hash and lazy collections; concurrent misses for the same email wait for a single query
+@Component
+@RequiredArgsConstructor
+public class UserLookup {
+
+    private final UserRepository userRepository;
+
+    @Cacheable(cacheNames = CacheConfig.USERS, key = "#email", sync = true)
+    public CachedUser findByEmail(String email) {
+        return userRepository.findByEmail(email)
+                .map(user -> new CachedUser(user.getId(), user.getName(), user.getEmail()))
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with email: " + email));
+    }
+
+    public record CachedUser(Long id, String name, String email) {
+
+        // A new detached instance per call, enough to reference the user in queries and associations
+        User toUser() {
+            User user = new User();
+            user.setId(id);
+            user.setName(name);
+            user.setEmail(email);
+            return user;
+        }
+    }
+}
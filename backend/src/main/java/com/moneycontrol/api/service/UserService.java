@@ -1,5 +1,7 @@
 package com.moneycontrol.api.service;
 
+import com.moneycontrol.api.cache.CacheConfig;
+import com.moneycontrol.api.cache.CacheInvalidationBus;
 import com.moneycontrol.api.dto.RegisterRequest;
 import com.moneycontrol.api.exception.ResourceNotFoundException;
 import com.moneycontrol.api.model.User;
@@ -15,6 +17,8 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final UserLookup userLookup;
 
 
 
@@ -28,12 +32,14 @@ public class UserService {
         user.setEmail(registerRequest.getEmail());
         user.setPassword(passwordEncoder.encode(registerRequest.getPassword()));
 
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        cacheInvalidationBus.evict(CacheConfig.USERS, saved.getEmail());
+        return saved;
     }
 
+    // Looked up on almost every request; the User is detached and carries only id, name and email
     public User getCurrentUser(String email) {
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found with email: " + email));
+        return userLookup.findByEmail(email).toUser();
     }
 
     public User getUserById(Long id) {
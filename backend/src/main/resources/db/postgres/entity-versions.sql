@@ -0,0 +1,10 @@
+-- Adds the optimistic locking version to rows created before it existed.
+-- Run once after upgrading, before starting the application:
+--   psql -h localhost -p 5433 -U postgres -d moneycontrol -f entity-versions.sql
+--
+-- ddl-auto=update would add the column as nullable and leave old rows with a null version, which
+-- Hibernate can't compare on update.
+
+ALTER TABLE transactions ADD COLUMN IF NOT EXISTS version bigint NOT NULL DEFAULT 0;
+ALTER TABLE goals ADD COLUMN IF NOT EXISTS version bigint NOT NULL DEFAULT 0;
+ALTER TABLE categories ADD COLUMN IF NOT EXISTS version bigint NOT NULL DEFAULT 0;
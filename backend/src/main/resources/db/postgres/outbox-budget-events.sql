@@ -0,0 +1,6 @@
+-- Hibernate creates check constraints for enum columns but ddl-auto=update never widens them.
+-- Run once on databases created before budget alerts were added to the outbox:
+--   psql -h localhost -p 5433 -U postgres -d moneycontrol -f outbox-budget-events.sql
+
+ALTER TABLE outbox_events DROP CONSTRAINT IF EXISTS outbox_events_aggregate_type_check;
+ALTER TABLE outbox_events DROP CONSTRAINT IF EXISTS outbox_events_event_type_check;
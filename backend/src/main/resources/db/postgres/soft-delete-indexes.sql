@@ -0,0 +1,16 @@
+-- Turns the listing indexes into partial indexes over live (not soft-deleted) rows and adds the
+-- indexes used by the trash listing and the purge job.
+-- Run once after upgrading to the soft-delete version:
+--   psql -h localhost -p 5433 -U postgres -d moneycontrol -f soft-delete-indexes.sql
+--
+-- The partial indexes keep the names declared on the entities, so ddl-auto=update sees them as
+-- present and doesn't recreate the full versions. On a partitioned transactions table
+-- (transactions-partitioning.sql) CONCURRENTLY is not supported, drop it for those statements.
+
+DROP INDEX CONCURRENTLY IF EXISTS idx_transactions_user_date;
+CREATE INDEX CONCURRENTLY idx_transactions_user_date ON transactions (user_id, date) WHERE deleted_at IS NULL;
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_transactions_deleted_at ON transactions (deleted_at) WHERE deleted_at IS NOT NULL;
+
+DROP INDEX CONCURRENTLY IF EXISTS idx_goals_user_target_date;
+CREATE INDEX CONCURRENTLY idx_goals_user_target_date ON goals (user_id, target_date) WHERE deleted_at IS NULL;
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_goals_deleted_at ON goals (deleted_at) WHERE deleted_at IS NOT NULL;
@@ -0,0 +1,12 @@
+-- Adds the per-user change sequence used by /api/sync to rows created before it existed.
+-- Run once after upgrading, before starting the application:
+--   psql -h localhost -p 5433 -U postgres -d moneycontrol -f sync-change-sequence.sql
+--
+-- Existing rows get sequence 0, so the first sync of every client downloads them once. On a partitioned
+-- transactions table (transactions-partitioning.sql) drop CONCURRENTLY from the transactions index.
+
+ALTER TABLE transactions ADD COLUMN IF NOT EXISTS change_seq bigint NOT NULL DEFAULT 0;
+ALTER TABLE goals ADD COLUMN IF NOT EXISTS change_seq bigint NOT NULL DEFAULT 0;
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_transactions_user_change_seq ON transactions (user_id, change_seq, id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_goals_user_change_seq ON goals (user_id, change_seq, id);
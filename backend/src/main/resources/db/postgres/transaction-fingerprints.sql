@@ -0,0 +1,16 @@
+-- Fills the duplicate detection fingerprint for rows created before it existed.
+-- Run once after upgrading (the application may already be running):
+--   psql -h localhost -p 5433 -U postgres -d moneycontrol -f transaction-fingerprints.sql
+--
+-- The expression must match DuplicateDetectionService.fingerprint: the first 8 bytes of
+-- md5('TYPE|CUR|amount in cents|yyyy-MM-dd') as a signed bigint. Rows left null are only skipped by the
+-- duplicate checks. On a partitioned transactions table (transactions-partitioning.sql) drop CONCURRENTLY.
+
+ALTER TABLE transactions ADD COLUMN IF NOT EXISTS fingerprint bigint;
+
+UPDATE transactions
+SET fingerprint = ('x' || substr(md5(type || '|' || currency || '|' || (amount * 100)::bigint || '|'
+        || to_char(date, 'YYYY-MM-DD')), 1, 16))::bit(64)::bigint
+WHERE fingerprint IS NULL;
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_transactions_user_fingerprint ON transactions (user_id, fingerprint);
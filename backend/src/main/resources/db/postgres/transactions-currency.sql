@@ -0,0 +1,23 @@
+-- Adds the currency to existing transactions and category rollups.
+-- Run once before starting this version against an existing database, passing the base currency
+-- (app.currency.base) the existing rows are in:
+--   psql -h localhost -p 5433 -U postgres -d moneycontrol -v base_currency=BRL -f transactions-currency.sql
+
+\if :{?base_currency}
+\else
+    \echo 'Set the base currency of the existing rows with -v base_currency=<code>'
+    \quit
+\endif
+
+BEGIN;
+
+ALTER TABLE transactions ADD COLUMN IF NOT EXISTS currency varchar(3) NOT NULL DEFAULT :'base_currency';
+ALTER TABLE transactions ALTER COLUMN currency DROP DEFAULT;
+
+ALTER TABLE category_spend_rollups ADD COLUMN IF NOT EXISTS currency varchar(3) NOT NULL DEFAULT :'base_currency';
+ALTER TABLE category_spend_rollups ALTER COLUMN currency DROP DEFAULT;
+ALTER TABLE category_spend_rollups DROP CONSTRAINT IF EXISTS uk_category_spend_rollups_key;
+ALTER TABLE category_spend_rollups
+    ADD CONSTRAINT uk_category_spend_rollups_key UNIQUE (user_id, period_month, type, category_id, currency);
+
+COMMIT;
@@ -0,0 +1,83 @@
+-- Converts the "transactions" table into a table partitioned by month on "date".
+--
+-- Run once against an existing database, during a maintenance window, after the other scripts of
+-- this directory (the copy keeps their columns and the indexes are recreated in their final form):
+--   psql -h localhost -p 5433 -U postgres -d moneycontrol -f transactions-partitioning.sql
+--
+-- After the migration, TransactionPartitionService (app.partitioning.enabled=true)
+-- keeps creating the partitions for the upcoming months. Old partitions stay attached;
+-- closed years leave the table through the segment archive (app.archive.enabled).
+-- Queries filtering on "date" (findByUserAndDateBetween, analytics) are pruned to the
+-- touched months. If a single month ever gets too large, each monthly partition can be
+-- created with "PARTITION BY HASH (user_id)" and sub-partitioned by user.
+
+BEGIN;
+
+LOCK TABLE transactions IN ACCESS EXCLUSIVE MODE;
+
+ALTER TABLE transactions RENAME TO transactions_legacy;
+
+-- Index names are unique per schema, so the old table's indexes (primary key included) step aside
+-- for the ones created below under the names the entity declares.
+DO $$
+DECLARE
+    legacy record;
+BEGIN
+    FOR legacy IN
+        SELECT c.relname
+        FROM pg_index i
+        JOIN pg_class c ON c.oid = i.indexrelid
+        WHERE i.indrelid = 'transactions_legacy'::regclass
+    LOOP
+        EXECUTE format('ALTER INDEX %I RENAME TO %I', legacy.relname, legacy.relname || '_legacy');
+    END LOOP;
+END $$;
+
+-- The partition key has to be part of the primary key.
+CREATE TABLE transactions (
+    LIKE transactions_legacy INCLUDING DEFAULTS INCLUDING CONSTRAINTS INCLUDING IDENTITY,
+    CONSTRAINT transactions_pkey PRIMARY KEY (id, date)
+) PARTITION BY RANGE (date);
+
+ALTER TABLE transactions
+    ADD CONSTRAINT fk_transactions_user FOREIGN KEY (user_id) REFERENCES users (id),
+    ADD CONSTRAINT fk_transactions_category FOREIGN KEY (category_id) REFERENCES categories (id);
+
+-- One partition per month from the oldest row up to three months ahead, plus a default
+-- partition so that far-off dates never fail to insert.
+DO $$
+DECLARE
+    first_month date := date_trunc('month', coalesce((SELECT min(date) FROM transactions_legacy), now()));
+    last_month  date := date_trunc('month', now() + interval '3 months');
+    month       date;
+BEGIN
+    month := first_month;
+    WHILE month <= last_month LOOP
+        EXECUTE format(
+            'CREATE TABLE %I PARTITION OF transactions FOR VALUES FROM (%L) TO (%L)',
+            'transactions_p' || to_char(month, 'YYYY_MM'),
+            month,
+            month + interval '1 month');
+        month := month + interval '1 month';
+    END LOOP;
+END $$;
+
+CREATE TABLE transactions_default PARTITION OF transactions DEFAULT;
+
+INSERT INTO transactions SELECT * FROM transactions_legacy;
+
+-- Every index the entity and the other scripts of this directory define, built once after the copy
+CREATE INDEX idx_transactions_user_date ON transactions (user_id, date) WHERE deleted_at IS NULL;
+CREATE INDEX idx_transactions_deleted_at ON transactions (deleted_at) WHERE deleted_at IS NOT NULL;
+CREATE INDEX idx_transactions_user_change_seq ON transactions (user_id, change_seq, id);
+CREATE INDEX idx_transactions_user_fingerprint ON transactions (user_id, fingerprint);
+
+SELECT setval(pg_get_serial_sequence('transactions', 'id'),
+              coalesce((SELECT max(id) FROM transactions), 0) + 1,
+              false);
+
+DROP TABLE transactions_legacy;
+
+COMMIT;
+
+ANALYZE transactions;
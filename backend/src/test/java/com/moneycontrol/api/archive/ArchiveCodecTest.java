@@ -0,0 +1,57 @@
+package com.moneycontrol.api.archive;
+
+import com.moneycontrol.api.model.Transaction;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ArchiveCodecTest {
+
+    private static final List<ArchivedRow> ROWS = List.of(
+            new ArchivedRow(42, LocalDateTime.of(2023, 1, 1, 0, 0), 1, Transaction.TransactionType.EXPENSE,
+                    "BRL", null, ""),
+            new ArchivedRow(7, LocalDateTime.of(2023, 3, 10, 12, 0), 10025, Transaction.TransactionType.EXPENSE,
+                    "USD", 3L, "Mercado, São Paulo"),
+            new ArchivedRow(900, LocalDateTime.of(2023, 12, 31, 23, 59, 59), Long.MAX_VALUE / 2,
+                    Transaction.TransactionType.INCOME, "EUR", 0L, "Salário"));
+
+    @Test
+    void readsBackEveryColumn() throws IOException {
+        byte[] segment = ArchiveCodec.encode(ROWS);
+
+        assertEquals(ROWS, ArchiveCodec.decode(segment, LocalDateTime.MIN, LocalDateTime.MAX, true));
+    }
+
+    @Test
+    void filtersByDateAndSkipsDescriptions() throws IOException {
+        byte[] segment = ArchiveCodec.encode(ROWS);
+
+        List<ArchivedRow> march = ArchiveCodec.decode(segment, LocalDateTime.of(2023, 3, 1, 0, 0),
+                LocalDateTime.of(2023, 4, 1, 0, 0), false);
+        assertEquals(1, march.size());
+        assertEquals(7, march.get(0).id());
+        assertEquals(3L, march.get(0).categoryId());
+        assertNull(march.get(0).description());
+
+        // Bounds with a fraction of a second behave like the LocalDateTime comparison
+        assertEquals(1, ArchiveCodec.decode(segment, LocalDateTime.of(2023, 12, 31, 23, 59, 58, 1),
+                LocalDateTime.of(2023, 12, 31, 23, 59, 59, 1), false).size());
+    }
+
+    @Test
+    void rejectsCorruptSegments() throws IOException {
+        byte[] segment = ArchiveCodec.encode(ROWS);
+        segment[segment.length - 3] ^= 0x5A;
+
+        assertThrows(IOException.class, () -> ArchiveCodec.decode(segment, LocalDateTime.MIN, LocalDateTime.MAX, true));
+        byte[] truncated = Arrays.copyOf(ArchiveCodec.encode(ROWS), 100);
+        assertThrows(IOException.class, () -> ArchiveCodec.decode(truncated, LocalDateTime.MIN, LocalDateTime.MAX, true));
+    }
+}
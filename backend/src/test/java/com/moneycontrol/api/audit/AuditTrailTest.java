@@ -0,0 +1,133 @@
+package com.moneycontrol.api.audit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.moneycontrol.api.model.AuditLog;
+import com.moneycontrol.api.model.OutboxEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// No database: the writer stores into BlockingJdbcTemplate, which holds the first batch until released
+class AuditTrailTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper().findAndRegisterModules();
+
+    @TempDir
+    Path directory;
+
+    private final BlockingJdbcTemplate jdbcTemplate = new BlockingJdbcTemplate();
+    private AuditTrail auditTrail;
+
+    @AfterEach
+    void release() {
+        jdbcTemplate.release.countDown();
+    }
+
+    @Test
+    void eventsOfAFullBufferAreDroppedAndCountedInADroppedRow() throws Exception {
+        start(2, 60_000);
+        record(1L);
+        assertThat(jdbcTemplate.writing.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // The writer is stuck on event 1, two fit in the buffer and the other three are dropped
+        for (long id = 2; id <= 6; id++) {
+            record(id);
+        }
+        jdbcTemplate.release.countDown();
+        auditTrail.shutdown();
+
+        List<AuditLog> stored = jdbcTemplate.stored;
+        assertThat(stored).filteredOn(entry -> entry.getAction() == AuditLog.Action.DELETE)
+                .extracting(AuditLog::getEntityId).containsExactly(1L, 2L, 3L);
+        assertThat(stored).filteredOn(entry -> entry.getAction() == AuditLog.Action.DROPPED)
+                .extracting(AuditLog::getDetail).containsExactly("3 events dropped, buffer full");
+        assertThat(directory.resolve("audit.jsonl")).doesNotExist();
+    }
+
+    @Test
+    void whatTheWriterCantStoreBeforeTheShutdownTimeoutGoesToTheFallbackFile() throws Exception {
+        start(2, 200);
+        record(1L);
+        assertThat(jdbcTemplate.writing.await(5, TimeUnit.SECONDS)).isTrue();
+        for (long id = 2; id <= 4; id++) {
+            record(id);
+        }
+
+        auditTrail.shutdown();
+        // Events after the shutdown skip the buffer
+        record(5L);
+
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : Files.readAllLines(directory.resolve("audit.jsonl"))) {
+            lines.add(MAPPER.readTree(line));
+        }
+        assertThat(lines).extracting(line -> line.get("entityId").asLong()).containsExactly(2L, 3L, 0L, 5L);
+        assertThat(lines.get(2).get("action").asText()).isEqualTo("DROPPED");
+        assertThat(lines.get(2).get("detail").asText()).isEqualTo("1 events dropped, buffer full");
+        assertThat(jdbcTemplate.stored).isEmpty();
+    }
+
+    private void start(int bufferSize, long shutdownTimeoutMs) {
+        auditTrail = new AuditTrail(jdbcTemplate, new DirectTransactionTemplate(), MAPPER);
+        ReflectionTestUtils.setField(auditTrail, "bufferSize", bufferSize);
+        ReflectionTestUtils.setField(auditTrail, "batchSize", 1);
+        ReflectionTestUtils.setField(auditTrail, "flushIntervalMs", 10L);
+        ReflectionTestUtils.setField(auditTrail, "maxRetries", 0);
+        ReflectionTestUtils.setField(auditTrail, "retryDelayMs", 10L);
+        ReflectionTestUtils.setField(auditTrail, "shutdownTimeoutMs", shutdownTimeoutMs);
+        ReflectionTestUtils.setField(auditTrail, "fallbackFile", directory.resolve("audit.jsonl"));
+        auditTrail.init();
+    }
+
+    private void record(Long transactionId) {
+        auditTrail.recordAllFor(7L, AuditLog.Action.DELETE, OutboxEvent.AggregateType.TRANSACTION,
+                List.of(transactionId), "test");
+    }
+
+    static class BlockingJdbcTemplate extends JdbcTemplate {
+
+        private final CountDownLatch writing = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+        private final List<AuditLog> stored = new CopyOnWriteArrayList<>();
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> int[][] batchUpdate(String sql, Collection<T> batchArgs, int batchSize,
+                                       ParameterizedPreparedStatementSetter<T> pss) {
+            writing.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            stored.addAll((Collection<AuditLog>) batchArgs);
+            return new int[][]{new int[batchArgs.size()]};
+        }
+    }
+
+    static class DirectTransactionTemplate extends TransactionTemplate {
+
+        @Override
+        public <T> T execute(TransactionCallback<T> action) {
+            return action.doInTransaction((TransactionStatus) null);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.moneycontrol.api.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PostgresCacheNotifierTest {
+
+    @Test
+    void sendsEachKeyOnceAndClearsCachesWithTooManyKeys() {
+        List<String> entries = new ArrayList<>(List.of("summaries:1", "users:a@a.com", "summaries:2"));
+        IntStream.range(0, 5).forEach(i -> entries.add("categories:" + i));
+
+        List<String> payloads = PostgresCacheNotifier.payloads("node", entries, 3);
+
+        assertEquals(List.of("node\nsummaries:1\nsummaries:2\nusers:a@a.com\ncategories:*"), payloads);
+    }
+
+    @Test
+    void splitsLongPayloads() {
+        List<String> entries = IntStream.range(0, 2000).mapToObj(i -> "users:user" + i + "@example.com").toList();
+
+        List<String> payloads = PostgresCacheNotifier.payloads("node", entries, Integer.MAX_VALUE);
+
+        assertTrue(payloads.size() > 1);
+        payloads.forEach(payload -> assertTrue(payload.length() < 8000));
+        assertEquals(2000, payloads.stream().mapToInt(payload -> PostgresCacheNotifier.parse("other", payload).size()).sum());
+    }
+
+    @Test
+    void ignoresItsOwnNotifications() {
+        String payload = "node\nusers:a@a.com\ncategories:*";
+
+        assertEquals(0, PostgresCacheNotifier.parse("node", payload).size());
+        List<String[]> evictions = PostgresCacheNotifier.parse("other", payload);
+        assertArrayEquals(new String[]{"users", "a@a.com"}, evictions.get(0));
+        assertArrayEquals(new String[]{"categories", "*"}, evictions.get(1));
+    }
+}
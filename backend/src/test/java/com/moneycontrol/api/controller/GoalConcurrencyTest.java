@@ -0,0 +1,139 @@
+package com.moneycontrol.api.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "app.rate-limit.capacity=100000")
+@ActiveProfiles("test")
+class GoalConcurrencyTest {
+
+    private static final int THREADS = 8;
+    private static final int INCREMENTS_PER_THREAD = 10;
+    private static final int MAX_ATTEMPTS = 100;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void concurrentIncrementsWithIfMatchLoseNoUpdates() throws Exception {
+        HttpHeaders headers = authenticate();
+        ResponseEntity<Map> created = restTemplate.exchange("/api/goals", HttpMethod.POST,
+                new HttpEntity<>(goal(new BigDecimal("1.00")), headers), Map.class);
+        assertThat(created.getStatusCode()).isEqualTo(HttpStatus.OK);
+        Number goalId = (Number) created.getBody().get("id");
+
+        Set<HttpStatus> statuses = ConcurrentHashMap.newKeySet();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            workers.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < INCREMENTS_PER_THREAD; i++) {
+                    incrementWithRetry(goalId, headers, statuses);
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> worker : workers) {
+            worker.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        ResponseEntity<Map> result = restTemplate.exchange("/api/goals/" + goalId, HttpMethod.GET,
+                new HttpEntity<>(headers), Map.class);
+        BigDecimal expected = new BigDecimal("1.00").add(BigDecimal.valueOf(THREADS * INCREMENTS_PER_THREAD));
+        assertThat(new BigDecimal(result.getBody().get("currentAmount").toString())).isEqualByComparingTo(expected);
+        assertThat(result.getHeaders().getETag()).isEqualTo("\"" + result.getBody().get("version") + "\"");
+        assertThat(statuses).allMatch(status -> status == HttpStatus.OK || status == HttpStatus.PRECONDITION_FAILED);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void weakIfMatchIsRejected() {
+        HttpHeaders headers = authenticate();
+        ResponseEntity<Map> created = restTemplate.exchange("/api/goals", HttpMethod.POST,
+                new HttpEntity<>(goal(new BigDecimal("1.00")), headers), Map.class);
+        Number goalId = (Number) created.getBody().get("id");
+
+        HttpHeaders conditional = new HttpHeaders();
+        conditional.putAll(headers);
+        conditional.setIfMatch("W/\"" + created.getBody().get("version") + "\"");
+        ResponseEntity<Map> updated = restTemplate.exchange("/api/goals/" + goalId, HttpMethod.PUT,
+                new HttpEntity<>(goal(new BigDecimal("2.00")), conditional), Map.class);
+
+        assertThat(updated.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void incrementWithRetry(Number goalId, HttpHeaders headers, Set<HttpStatus> statuses) {
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            ResponseEntity<Map> current = restTemplate.exchange("/api/goals/" + goalId, HttpMethod.GET,
+                    new HttpEntity<>(headers), Map.class);
+            assertThat(current.getStatusCode()).isEqualTo(HttpStatus.OK);
+            BigDecimal amount = new BigDecimal(current.getBody().get("currentAmount").toString());
+
+            HttpHeaders conditional = new HttpHeaders();
+            conditional.putAll(headers);
+            conditional.setIfMatch(current.getHeaders().getETag());
+            ResponseEntity<Map> updated = restTemplate.exchange("/api/goals/" + goalId, HttpMethod.PUT,
+                    new HttpEntity<>(goal(amount.add(BigDecimal.ONE)), conditional), Map.class);
+            statuses.add((HttpStatus) updated.getStatusCode());
+            if (updated.getStatusCode() == HttpStatus.OK) {
+                return;
+            }
+            // Only a lost race is worth another round, anything else is a failure of its own
+            assertThat(updated.getStatusCode()).isEqualTo(HttpStatus.PRECONDITION_FAILED);
+        }
+        fail("Goal " + goalId + " was not updated after " + MAX_ATTEMPTS + " attempts");
+    }
+
+    private HttpHeaders authenticate() {
+        String email = "goal-" + UUID.randomUUID().toString().substring(0, 8) + "@test.com";
+        Map<String, String> credentials = Map.of("name", "Concurrency", "email", email, "password", "secret1");
+        restTemplate.postForEntity("/api/auth/register", credentials, String.class);
+        ResponseEntity<Map> login = restTemplate.postForEntity("/api/auth/login", credentials, Map.class);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth((String) login.getBody().get("token"));
+        return headers;
+    }
+
+    private static Map<String, Object> goal(BigDecimal currentAmount) {
+        Map<String, Object> goal = new HashMap<>();
+        goal.put("name", "Emergency fund");
+        goal.put("targetAmount", new BigDecimal("10000.00"));
+        goal.put("currentAmount", currentAmount);
+        goal.put("targetDate", LocalDate.now().plusYears(1).toString());
+        return goal;
+    }
+}
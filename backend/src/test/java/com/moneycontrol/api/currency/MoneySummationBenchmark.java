@@ -0,0 +1,70 @@
+package com.moneycontrol.api.currency;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Summation of a million amounts: BigDecimal as loaded by JPA versus long minor units (see README)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneySummationBenchmark {
+
+    @Param("1000000")
+    private int rows;
+
+    private BigDecimal[] decimals;
+    private long[] minorUnits;
+
+    @Setup
+    public void setup() {
+        SplittableRandom random = new SplittableRandom(42);
+        decimals = new BigDecimal[rows];
+        minorUnits = new long[rows];
+        for (int i = 0; i < rows; i++) {
+            long cents = random.nextLong(1, 1_000_000);
+            decimals[i] = BigDecimal.valueOf(cents, Money.SCALE);
+            minorUnits[i] = cents;
+        }
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimalSum() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (BigDecimal amount : decimals) {
+            total = total.add(amount);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long minorUnitsSum() {
+        long total = 0;
+        for (long amount : minorUnits) {
+            total = Money.add(total, amount);
+        }
+        return total;
+    }
+
+    // Includes the boundary conversion, as when summing amounts straight from entities
+    @Benchmark
+    public long convertAndSum() {
+        long total = 0;
+        for (BigDecimal amount : decimals) {
+            total = Money.add(total, Money.toMinorUnits(amount));
+        }
+        return total;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(MoneySummationBenchmark.class.getSimpleName()).build()).run();
+    }
+}
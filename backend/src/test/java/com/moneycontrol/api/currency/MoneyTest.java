@@ -0,0 +1,51 @@
+package com.moneycontrol.api.currency;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Currency;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MoneyTest {
+
+    @Test
+    void convertsExactlyAtTheBoundaries() {
+        assertEquals(123456, Money.toMinorUnits(new BigDecimal("1234.56")));
+        assertEquals(100, Money.toMinorUnits(new BigDecimal("1")));
+        assertEquals(new BigDecimal("1234.56"), Money.toBigDecimal(123456));
+        assertEquals(new BigDecimal("-0.01"), Money.of(new BigDecimal("-0.010")).toBigDecimal());
+    }
+
+    @Test
+    void rejectsAmountsThatWouldBeRounded() {
+        assertThrows(ArithmeticException.class, () -> Money.toMinorUnits(new BigDecimal("0.005")));
+        assertThrows(ArithmeticException.class, () -> Money.toMinorUnits(new BigDecimal("1e30")));
+    }
+
+    @Test
+    void detectsOverflow() {
+        assertThrows(ArithmeticException.class, () -> Money.add(Long.MAX_VALUE, 1));
+        assertThrows(ArithmeticException.class, () -> new Money(Long.MIN_VALUE).minus(new Money(1)));
+        assertThrows(ArithmeticException.class, () -> new Money(Long.MAX_VALUE / 2).times(new BigDecimal("3")));
+    }
+
+    @Test
+    void roundsConversionsHalfEven() {
+        assertEquals(new Money(1002), new Money(200).times(new BigDecimal("5.01")));
+        assertEquals(new Money(2), new Money(5).times(new BigDecimal("0.5")));
+        assertEquals(new Money(4), new Money(7).times(new BigDecimal("0.5")));
+    }
+
+    @Test
+    void supportsOnlyCurrenciesWithTwoDecimals() {
+        assertTrue(Money.supports(Currency.getInstance("BRL")));
+        assertTrue(Money.supports(Currency.getInstance("USD")));
+        assertFalse(Money.supports(Currency.getInstance("JPY")));
+        assertFalse(Money.supports(Currency.getInstance("KWD")));
+        assertFalse(Money.supports(Currency.getInstance("XAU")));
+    }
+}
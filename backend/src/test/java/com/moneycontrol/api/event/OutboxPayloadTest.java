@@ -0,0 +1,158 @@
+package com.moneycontrol.api.event;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.moneycontrol.api.dto.BulkTransactionRequest;
+import com.moneycontrol.api.dto.CategoryDto;
+import com.moneycontrol.api.dto.RegisterRequest;
+import com.moneycontrol.api.dto.TransactionDto;
+import com.moneycontrol.api.importer.ImportService;
+import com.moneycontrol.api.importer.StatementFormat;
+import com.moneycontrol.api.model.ImportJob;
+import com.moneycontrol.api.model.OutboxEvent;
+import com.moneycontrol.api.model.Transaction;
+import com.moneycontrol.api.repository.OutboxEventRepository;
+import com.moneycontrol.api.service.CategoryService;
+import com.moneycontrol.api.service.TransactionBulkService;
+import com.moneycontrol.api.service.TransactionService;
+import com.moneycontrol.api.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+// Bulk writes must give consumers the same events as the single writes they stand for
+@SpringBootTest(properties = "app.outbox.relay-interval-ms=3600000")
+@ActiveProfiles("test")
+class OutboxPayloadTest {
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private TransactionBulkService transactionBulkService;
+
+    @Autowired
+    private ImportService importService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private String email;
+    private Long userId;
+    private Long categoryId;
+
+    @BeforeEach
+    void register() {
+        email = "outbox-" + UUID.randomUUID().toString().substring(0, 8) + "@test.com";
+        RegisterRequest registration = new RegisterRequest();
+        registration.setName("Outbox");
+        registration.setEmail(email);
+        registration.setPassword("secret1");
+        userId = userService.registerUser(registration).getId();
+        categoryId = category("Outbox " + email);
+    }
+
+    @Test
+    void bulkRecategorizeEventsCarryTheUpdatedTransaction() throws Exception {
+        Transaction first = create("10.00");
+        Transaction second = create("20.00");
+        Long target = category("Outbox target " + email);
+
+        BulkTransactionRequest request = new BulkTransactionRequest();
+        request.setIds(List.of(first.getId(), second.getId()));
+        request.setTargetCategoryId(target);
+        transactionBulkService.recategorize(request, email);
+
+        List<OutboxEvent> events = events(OutboxEvent.EventType.UPDATED);
+        assertThat(events).extracting(OutboxEvent::getAggregateId).containsExactly(first.getId(), second.getId());
+        for (OutboxEvent event : events) {
+            JsonNode payload = objectMapper.readTree(event.getPayload());
+            assertThat(payload.get("id").asLong()).isEqualTo(event.getAggregateId());
+            assertThat(payload.get("category").get("id").asLong()).isEqualTo(target);
+            assertThat(payload.get("version").asLong()).isEqualTo(1L);
+        }
+    }
+
+    @Test
+    void bulkDeleteEventsCarryNoPayloadLikeSingleDeletes() {
+        Transaction single = create("10.00");
+        Transaction bulk = create("20.00");
+        transactionService.deleteTransaction(single.getId(), email);
+
+        BulkTransactionRequest request = new BulkTransactionRequest();
+        request.setIds(List.of(bulk.getId()));
+        transactionBulkService.delete(request, email);
+
+        assertThat(events(OutboxEvent.EventType.DELETED))
+                .extracting(OutboxEvent::getAggregateId, OutboxEvent::getPayload)
+                .containsExactly(tuple(single.getId(), null),
+                        tuple(bulk.getId(), null));
+    }
+
+    @Test
+    void importedRowsAreCreatedWithTheirPayload() throws Exception {
+        String qif = "!Type:Bank\nD05/02/2024\nT-12.50\nPPadaria\n^\nD06/02/2024\nT100\nPSalario\n^\n";
+        ImportJob job = importService.submit(new ByteArrayInputStream(qif.getBytes(StandardCharsets.UTF_8)),
+                StatementFormat.QIF, "BRL", categoryId, email);
+        for (int i = 0; i < 100 && !done(job); i++) {
+            Thread.sleep(100);
+        }
+        assertThat(importService.getJob(job.getId(), email).getStatus()).isEqualTo(ImportJob.Status.DONE);
+
+        List<OutboxEvent> events = events(OutboxEvent.EventType.CREATED);
+        assertThat(events).hasSize(2);
+        assertThat(events).extracting(event -> objectMapper.readTree(event.getPayload()).get("description").asText())
+                .containsExactly("Padaria", "Salario");
+    }
+
+    private boolean done(ImportJob job) {
+        ImportJob.Status status = importService.getJob(job.getId(), email).getStatus();
+        return status == ImportJob.Status.DONE || status == ImportJob.Status.FAILED;
+    }
+
+    private Long category(String name) {
+        CategoryDto category = new CategoryDto();
+        category.setName(name);
+        return categoryService.createCategory(category).getId();
+    }
+
+    private Transaction create(String amount) {
+        TransactionDto dto = new TransactionDto();
+        dto.setDescription("Outbox test");
+        dto.setAmount(new BigDecimal(amount));
+        dto.setCurrency("BRL");
+        dto.setDate(LocalDateTime.of(2025, 3, 5, 9, 0));
+        dto.setType(Transaction.TransactionType.EXPENSE);
+        dto.setCategoryId(categoryId);
+        return transactionService.createTransaction(dto, email);
+    }
+
+    private List<OutboxEvent> events(OutboxEvent.EventType type) {
+        return outboxEventRepository.findAll().stream()
+                .filter(event -> userId.equals(event.getUserId()) && event.getEventType() == type)
+                .sorted(Comparator.comparing(OutboxEvent::getId))
+                .toList();
+    }
+}
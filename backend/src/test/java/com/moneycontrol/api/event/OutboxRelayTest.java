@@ -0,0 +1,150 @@
+package com.moneycontrol.api.event;
+
+import com.moneycontrol.api.model.OutboxEvent;
+import com.moneycontrol.api.repository.OutboxEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// The scheduled run is pushed out of the way, each test calls the relay itself
+@SpringBootTest(properties = "app.outbox.relay-interval-ms=3600000")
+@ActiveProfiles("test")
+class OutboxRelayTest {
+
+    @Autowired
+    private OutboxRelay relay;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private RecordingSink sink;
+
+    @BeforeEach
+    void clean() {
+        outboxEventRepository.deleteAll();
+        sink.published.clear();
+        sink.failures.set(0);
+    }
+
+    @Test
+    void publishesClaimableEventsAndMarksThem() {
+        OutboxEvent first = save(null, null);
+        OutboxEvent second = save(null, null);
+
+        relay.relay();
+
+        assertThat(sink.published).containsExactly(first.getId(), second.getId());
+        assertThat(outboxEventRepository.findAll()).allSatisfy(event -> {
+            assertThat(event.getPublishedAt()).isNotNull();
+            assertThat(event.getClaimedUntil()).isNull();
+        });
+    }
+
+    @Test
+    void skipsEventsClaimedByAnotherRelayUntilTheClaimExpires() {
+        OutboxEvent claimed = save(null, LocalDateTime.now().plusMinutes(5));
+        OutboxEvent expired = save(null, LocalDateTime.now().minusSeconds(1));
+
+        relay.relay();
+
+        assertThat(sink.published).containsExactly(expired.getId());
+        assertThat(outboxEventRepository.findById(claimed.getId()).orElseThrow().getPublishedAt()).isNull();
+    }
+
+    @Test
+    void releasesTheBatchWhenASinkFailsAndRetriesItOnTheNextRun() {
+        OutboxEvent event = save(null, null);
+        sink.failures.set(1);
+
+        relay.relay();
+
+        OutboxEvent afterFailure = outboxEventRepository.findById(event.getId()).orElseThrow();
+        assertThat(afterFailure.getPublishedAt()).isNull();
+        assertThat(afterFailure.getClaimedUntil()).isNull();
+        assertThat(sink.published).isEmpty();
+
+        relay.relay();
+
+        assertThat(sink.published).containsExactly(event.getId());
+        assertThat(outboxEventRepository.findById(event.getId()).orElseThrow().getPublishedAt()).isNotNull();
+    }
+
+    @Test
+    void positionsEventsInTheOrderTheyBecomeClaimableAndKeepsThePositionOfReleasedOnes() {
+        // The lower id stands for a transaction that committed after the next one
+        OutboxEvent late = save(null, LocalDateTime.now().plusMinutes(5));
+        OutboxEvent early = save(null, null);
+        sink.failures.set(1);
+
+        relay.relay();
+        long earlySeq = outboxEventRepository.findById(early.getId()).orElseThrow().getStreamSeq();
+
+        late.setClaimedUntil(null);
+        outboxEventRepository.save(late);
+        relay.relay();
+
+        assertThat(sink.published).containsExactly(early.getId(), late.getId());
+        assertThat(outboxEventRepository.findById(early.getId()).orElseThrow().getStreamSeq()).isEqualTo(earlySeq);
+        assertThat(outboxEventRepository.findById(late.getId()).orElseThrow().getStreamSeq()).isEqualTo(earlySeq + 1);
+    }
+
+    @Test
+    void purgesOnlyEventsPublishedBeforeTheRetention() {
+        OutboxEvent old = save(LocalDateTime.now().minusDays(2), null);
+        OutboxEvent recent = save(LocalDateTime.now(), null);
+        OutboxEvent unpublished = save(null, LocalDateTime.now().plusMinutes(5));
+
+        relay.purgePublished();
+
+        assertThat(outboxEventRepository.findAll()).extracting(OutboxEvent::getId)
+                .containsExactlyInAnyOrder(recent.getId(), unpublished.getId())
+                .doesNotContain(old.getId());
+    }
+
+    private OutboxEvent save(LocalDateTime publishedAt, LocalDateTime claimedUntil) {
+        OutboxEvent event = new OutboxEvent();
+        event.setAggregateType(OutboxEvent.AggregateType.CATEGORY);
+        event.setAggregateId(1L);
+        event.setEventType(OutboxEvent.EventType.CREATED);
+        event.setCreatedAt(LocalDateTime.now().minusDays(3));
+        event.setPublishedAt(publishedAt);
+        event.setClaimedUntil(claimedUntil);
+        return outboxEventRepository.save(event);
+    }
+
+    static class RecordingSink implements EventSink {
+
+        private final List<Long> published = new CopyOnWriteArrayList<>();
+        private final AtomicInteger failures = new AtomicInteger();
+
+        @Override
+        public void publish(List<ChangeEvent> events) throws IOException {
+            if (failures.getAndUpdate(remaining -> Math.max(0, remaining - 1)) > 0) {
+                throw new IOException("Sink unavailable");
+            }
+            events.forEach(event -> published.add(event.id()));
+        }
+    }
+
+    @TestConfiguration
+    static class SinkConfig {
+
+        @Bean
+        RecordingSink recordingSink() {
+            return new RecordingSink();
+        }
+    }
+}
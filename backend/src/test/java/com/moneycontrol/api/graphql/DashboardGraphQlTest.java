@@ -0,0 +1,137 @@
+package com.moneycontrol.api.graphql;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Scheduled jobs are pushed out of the way so the statement count only sees the dashboard requests
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "app.rate-limit.capacity=100000",
+        "app.outbox.relay-interval-ms=3600000",
+        "app.reports.heartbeat-ms=3600000",
+        "app.imports.heartbeat-ms=3600000",
+        "app.events.ticket-cleanup-ms=3600000",
+        "app.events.poll-interval-ms=3600000",
+        "spring.jpa.properties.hibernate.generate_statistics=true"})
+@ActiveProfiles("test")
+class DashboardGraphQlTest {
+
+    // Statements of a dashboard request once the user, categories and forecast are cached
+    private static final long MAX_STATEMENTS = 9;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private HttpHeaders headers;
+
+    @BeforeEach
+    void authenticate() {
+        String email = "graphql-" + UUID.randomUUID().toString().substring(0, 8) + "@test.com";
+        Map<String, String> credentials = Map.of("name", "GraphQL", "email", email, "password", "secret1");
+        restTemplate.postForEntity("/api/auth/register", credentials, String.class);
+        ResponseEntity<Map> login = restTemplate.postForEntity("/api/auth/login", credentials, Map.class);
+
+        headers = new HttpHeaders();
+        headers.setBearerAuth((String) login.getBody().get("token"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void persistedDashboardRunsABoundedNumberOfStatements() throws IOException {
+        for (int i = 0; i < 3; i++) {
+            Number categoryId = (Number) post("/api/categories", Map.of("name", "Dashboard " + UUID.randomUUID())).get("id");
+            post("/api/budgets", Map.of("categoryId", categoryId, "amount", new BigDecimal("500.00")));
+            for (int j = 0; j < 4; j++) {
+                post("/api/transactions", Map.of("description", "Row " + j, "amount", new BigDecimal("12.50"),
+                        "type", "EXPENSE", "date", LocalDateTime.now().withNano(0).toString(), "categoryId", categoryId));
+            }
+            post("/api/goals", Map.of("name", "Goal " + i, "targetAmount", new BigDecimal("1000.00"),
+                    "currentAmount", new BigDecimal("10.00"), "targetDate", LocalDate.now().plusYears(1).toString()));
+        }
+        String hash = PersistedQueries.sha256(new ClassPathResource("graphql/persisted/dashboard.graphql")
+                .getContentAsString(StandardCharsets.UTF_8));
+        // Spring GraphQL 1.2 wants a query field, hash-only requests send it empty
+        Map<String, Object> request = Map.of("query", "", "variables", Map.of("currency", "BRL"),
+                "extensions", Map.of("persistedQuery", Map.of("version", 1, "sha256Hash", hash)));
+
+        // First run fills the caches and stores the forecast
+        Map<String, Object> warmUp = graphQl(request);
+        assertThat(warmUp).doesNotContainKey("errors");
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        Map<String, Object> response = graphQl(request);
+
+        assertThat(response).doesNotContainKey("errors");
+        Map<String, Object> data = (Map<String, Object>) response.get("data");
+        assertThat((List<?>) data.get("transactions")).hasSize(10);
+        assertThat((List<?>) data.get("goals")).hasSize(3);
+        assertThat((List<?>) data.get("budgets")).hasSize(3);
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(MAX_STATEMENTS);
+    }
+
+    @Test
+    void queriesDeeperThanTheLimitAreRejected() {
+        // 10 levels counting id, past app.graphql.max-depth
+        Map<String, Object> response = graphQl(Map.of("query",
+                "{ goals(limit: 1) { forecast { goal { forecast { goal { forecast { goal { forecast { goal { id } } } } } } } } } }"));
+
+        assertThat(response).containsKey("errors");
+        assertThat(response.get("errors").toString()).contains("maximum query depth exceeded");
+    }
+
+    @Test
+    void queriesOverTheComplexityLimitAreRejected() {
+        // Each list costs 1 + 100 * 9, three of them are over app.graphql.max-complexity
+        String rows = "(limit: 100) { id description amount currency date type category { id name } }";
+        Map<String, Object> response = graphQl(Map.of("query",
+                "{ a: transactions" + rows + " b: transactions" + rows + " c: transactions" + rows + " }"));
+
+        assertThat(response).containsKey("errors");
+        assertThat(response.get("errors").toString()).contains("maximum query complexity exceeded");
+        assertThat(response.get("data")).isNull();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> graphQl(Map<String, Object> request) {
+        ResponseEntity<Map> response = restTemplate.exchange("/graphql", HttpMethod.POST,
+                new HttpEntity<>(request, headers), Map.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        return response.getBody();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> post(String path, Map<String, Object> body) {
+        ResponseEntity<Map> response = restTemplate.exchange(path, HttpMethod.POST,
+                new HttpEntity<>(new HashMap<>(body), headers), Map.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        return response.getBody();
+    }
+}
@@ -0,0 +1,73 @@
+package com.moneycontrol.api.graphql;
+
+import graphql.ExecutionInput;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.execution.preparsed.persisted.PersistedQueryNotFound;
+import graphql.parser.Parser;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PersistedQueriesTest {
+
+    private final PersistedQueries persistedQueries = new PersistedQueries();
+    private final List<String> parsed = new ArrayList<>();
+
+    @BeforeEach
+    void load() throws Exception {
+        ReflectionTestUtils.setField(persistedQueries, "location", "classpath:graphql/persisted/*.graphql");
+        ReflectionTestUtils.setField(persistedQueries, "maxEntries", 2);
+        persistedQueries.load();
+    }
+
+    @Test
+    void adHocQueriesAreEvictedLeastRecentlyUsedFirst() throws PersistedQueryNotFound {
+        get("{ a: goals { id } }");
+        get("{ b: goals { id } }");
+        get("{ a: goals { id } }");
+        get("{ c: goals { id } }");
+        parsed.clear();
+
+        // b was the least recently used when c came in
+        get("{ a: goals { id } }");
+        get("{ c: goals { id } }");
+        get("{ b: goals { id } }");
+
+        assertThat(parsed).containsExactly("{ b: goals { id } }");
+    }
+
+    @Test
+    void knownQueriesStayCachedWhateverTheAdHocTraffic() throws Exception {
+        String dashboard = new ClassPathResource("graphql/persisted/dashboard.graphql").getContentAsString(StandardCharsets.UTF_8);
+        String hash = PersistedQueries.sha256(dashboard);
+        persistedQueries.getPersistedQueryDocumentAsync(hash, input(""), this::parse).join();
+        for (int i = 0; i < 10; i++) {
+            get("{ q" + i + ": goals { id } }");
+        }
+        parsed.clear();
+
+        persistedQueries.getPersistedQueryDocumentAsync(hash, input(""), this::parse).join();
+
+        assertThat(parsed).isEmpty();
+    }
+
+    private void get(String query) throws PersistedQueryNotFound {
+        persistedQueries.getPersistedQueryDocumentAsync(PersistedQueries.sha256(query), input(query), this::parse).join();
+    }
+
+    private PreparsedDocumentEntry parse(String query) {
+        parsed.add(query);
+        return new PreparsedDocumentEntry(Parser.parse(query));
+    }
+
+    private static ExecutionInput input(String query) {
+        return ExecutionInput.newExecutionInput().query(query).build();
+    }
+}
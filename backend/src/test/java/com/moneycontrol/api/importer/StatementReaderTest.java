@@ -0,0 +1,98 @@
+package com.moneycontrol.api.importer;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class StatementReaderTest {
+
+    private static final String SGML = """
+            OFXHEADER:100
+            DATA:OFXSGML
+            CHARSET:1252
+
+            <OFX><BANKMSGSRSV1><STMTTRNRS><STMTRS>
+            <CURDEF>BRL
+            <BANKTRANLIST>
+            <STMTTRN>
+            <TRNTYPE>DEBIT
+            <DTPOSTED>20240105123000[-3:BRT]
+            <TRNAMT>-1.234,56
+            <NAME>Padaria São João
+            <MEMO>Compra
+            </STMTTRN>
+            <STMTTRN>
+            <DTPOSTED>20240110
+            <TRNAMT>1000.00
+            <NAME>Salario ACME &amp; Co
+            </STMTTRN>
+            </BANKTRANLIST></STMTRS></STMTTRNRS></BANKMSGSRSV1></OFX>
+            """;
+
+    @Test
+    void readsSgmlOfxInWindows1252() {
+        StatementReader reader = reader(StatementFormat.OFX, SGML, Charset.forName("windows-1252"));
+
+        assertEquals(new StatementRow(LocalDateTime.of(2024, 1, 5, 12, 30), new BigDecimal("-1234.56"),
+                "Padaria São João", "Compra", null, "BRL"), reader.next());
+        assertEquals(new StatementRow(LocalDateTime.of(2024, 1, 10, 0, 0), new BigDecimal("1000.00"),
+                "Salario ACME & Co", null, null, "BRL"), reader.next());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void readsXmlOfx() {
+        String xml = "<?xml version=\"1.0\" encoding=\"UTF-8\"?><OFX><CCSTMTRS><CURDEF>USD</CURDEF><BANKTRANLIST>"
+                + "<STMTTRN><DTPOSTED>20240201</DTPOSTED><TRNAMT>-9.99</TRNAMT><NAME>Café</NAME></STMTTRN>"
+                + "</BANKTRANLIST></CCSTMTRS></OFX>";
+        StatementReader reader = reader(StatementFormat.OFX, xml, StandardCharsets.UTF_8);
+
+        assertEquals(new StatementRow(LocalDateTime.of(2024, 2, 1, 0, 0), new BigDecimal("-9.99"), "Café", null,
+                null, "USD"), reader.next());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void readsQifTransactionsAndSkipsLists() {
+        String qif = "!Type:Bank\r\nD05/02/2024\r\nT-1,234.56\r\nPMercado\r\nLAlimentação:Feira\r\n^\r\n"
+                + "D7/2'24\r\nT20\r\nPTransferencia\r\nL[Poupança]\r\n^\r\n"
+                + "!Type:Cat\r\nNAlimentação\r\n^\r\n";
+        StatementReader reader = reader(StatementFormat.QIF, qif, StandardCharsets.UTF_8);
+
+        assertEquals(new StatementRow(LocalDateTime.of(2024, 2, 5, 0, 0), new BigDecimal("-1234.56"), "Mercado",
+                null, "Alimentação", null), reader.next());
+        assertEquals(new StatementRow(LocalDateTime.of(2024, 2, 7, 0, 0), new BigDecimal("20"), "Transferencia",
+                null, null, null), reader.next());
+        assertNull(reader.next());
+        assertEquals(qif.getBytes(StandardCharsets.UTF_8).length, reader.position());
+    }
+
+    @Test
+    void rejectsAnEntryAndGoesOn() {
+        String qif = "D31/31/2024\nT-1\n^\nD01/03/2024\nT-2\n^\n";
+        StatementReader reader = reader(StatementFormat.QIF, qif, StandardCharsets.UTF_8);
+
+        assertThrows(IllegalArgumentException.class, reader::next);
+        assertEquals(new BigDecimal("-2"), reader.next().amount());
+    }
+
+    @Test
+    void parsesAmountsWithEitherDecimalSeparator() {
+        assertEquals(new BigDecimal("1234.5"), StatementReader.parseAmount("1.234,5"));
+        assertEquals(new BigDecimal("-1234"), StatementReader.parseAmount("-1,234"));
+        assertEquals(new BigDecimal("0.75"), StatementReader.parseAmount("+0.75"));
+        assertThrows(IllegalArgumentException.class, () -> StatementReader.parseAmount("abc"));
+    }
+
+    private static StatementReader reader(StatementFormat format, String content, Charset charset) {
+        return StatementReader.of(format, ByteBuffer.wrap(content.getBytes(charset)), "d/M/yyyy");
+    }
+}
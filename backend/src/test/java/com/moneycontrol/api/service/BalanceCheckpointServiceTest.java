@@ -0,0 +1,155 @@
+package com.moneycontrol.api.service;
+
+import com.moneycontrol.api.dto.CategoryDto;
+import com.moneycontrol.api.dto.RegisterRequest;
+import com.moneycontrol.api.dto.TransactionDto;
+import com.moneycontrol.api.model.BalanceCheckpoint;
+import com.moneycontrol.api.model.Transaction;
+import com.moneycontrol.api.repository.BalanceCheckpointRepository;
+import com.moneycontrol.api.repository.SyncSequenceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class BalanceCheckpointServiceTest {
+
+    @Autowired
+    private BalanceCheckpointService balanceCheckpointService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private BalanceCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private SyncSequenceRepository syncSequenceRepository;
+
+    private String email;
+    private Long userId;
+    private Long categoryId;
+
+    @BeforeEach
+    void register() {
+        email = "balance-" + UUID.randomUUID().toString().substring(0, 8) + "@test.com";
+        RegisterRequest registration = new RegisterRequest();
+        registration.setName("Balance");
+        registration.setEmail(email);
+        registration.setPassword("secret1");
+        userId = userService.registerUser(registration).getId();
+
+        CategoryDto category = new CategoryDto();
+        category.setName("Balance " + email);
+        categoryId = categoryService.createCategory(category).getId();
+    }
+
+    @Test
+    void balanceIsTheLatestCheckpointBeforeTheMonthPlusTheMonthItself() {
+        create(Transaction.TransactionType.INCOME, "1000.00", LocalDateTime.of(2025, 1, 10, 9, 0));
+        create(Transaction.TransactionType.EXPENSE, "300.00", LocalDateTime.of(2025, 3, 5, 9, 0));
+        create(Transaction.TransactionType.EXPENSE, "100.00", LocalDateTime.of(2025, 3, 20, 9, 0));
+
+        assertBalance(LocalDate.of(2024, 12, 31), "0.00");
+        assertBalance(LocalDate.of(2025, 1, 9), "0.00");
+        assertBalance(LocalDate.of(2025, 1, 10), "1000.00");
+        assertBalance(LocalDate.of(2025, 2, 15), "1000.00");
+        assertBalance(LocalDate.of(2025, 3, 10), "700.00");
+        assertBalance(LocalDate.of(2025, 3, 31), "600.00");
+        assertBalance(LocalDate.of(2026, 1, 1), "600.00");
+    }
+
+    @Test
+    void aChangeInAnEarlierMonthShiftsEveryLaterCheckpoint() {
+        create(Transaction.TransactionType.INCOME, "500.00", LocalDateTime.of(2025, 3, 5, 9, 0));
+        Transaction earlier = create(Transaction.TransactionType.EXPENSE, "200.00", LocalDateTime.of(2025, 1, 5, 9, 0));
+
+        assertBalance(LocalDate.of(2025, 1, 31), "-200.00");
+        assertBalance(LocalDate.of(2025, 2, 28), "-200.00");
+        assertBalance(LocalDate.of(2025, 3, 31), "300.00");
+
+        transactionService.updateTransaction(earlier.getId(),
+                dto(Transaction.TransactionType.EXPENSE, "50.00", LocalDateTime.of(2025, 1, 5, 9, 0)), email, null);
+        assertBalance(LocalDate.of(2025, 1, 31), "-50.00");
+        assertBalance(LocalDate.of(2025, 3, 31), "450.00");
+
+        // Moved past the later month: January empties and March carries both rows
+        transactionService.updateTransaction(earlier.getId(),
+                dto(Transaction.TransactionType.EXPENSE, "50.00", LocalDateTime.of(2025, 4, 5, 9, 0)), email, null);
+        assertBalance(LocalDate.of(2025, 1, 31), "0.00");
+        assertBalance(LocalDate.of(2025, 3, 31), "500.00");
+        assertBalance(LocalDate.of(2025, 4, 30), "450.00");
+
+        transactionService.deleteTransaction(earlier.getId(), email);
+        assertBalance(LocalDate.of(2025, 4, 30), "500.00");
+    }
+
+    @Test
+    void rebuildMatchesTheIncrementalCheckpointsWithoutUsingAChangeSeq() {
+        create(Transaction.TransactionType.INCOME, "1000.00", LocalDateTime.of(2025, 2, 10, 9, 0));
+        create(Transaction.TransactionType.EXPENSE, "250.50", LocalDateTime.of(2025, 1, 10, 9, 0));
+        Transaction removed = create(Transaction.TransactionType.EXPENSE, "99.99", LocalDateTime.of(2025, 5, 1, 9, 0));
+        transactionService.deleteTransaction(removed.getId(), email);
+        List<String> incremental = checkpoints();
+        long seq = syncSequenceRepository.findLastSeq(userId).orElseThrow();
+
+        balanceCheckpointService.rebuild(userId);
+
+        // The deleted row's month keeps an incremental checkpoint at the previous balance, the rebuild has none
+        assertThat(incremental).contains("BRL 2025-05-01 749.50");
+        assertThat(checkpoints()).containsExactly("BRL 2025-01-01 -250.50", "BRL 2025-02-01 749.50");
+        assertThat(incremental).containsAll(checkpoints());
+        assertThat(syncSequenceRepository.findLastSeq(userId)).contains(seq);
+        assertBalance(LocalDate.of(2025, 6, 1), "749.50");
+    }
+
+    private Transaction create(Transaction.TransactionType type, String amount, LocalDateTime date) {
+        return transactionService.createTransaction(dto(type, amount, date), email);
+    }
+
+    private TransactionDto dto(Transaction.TransactionType type, String amount, LocalDateTime date) {
+        TransactionDto dto = new TransactionDto();
+        dto.setDescription("Balance test");
+        dto.setAmount(new BigDecimal(amount));
+        dto.setCurrency("BRL");
+        dto.setDate(date);
+        dto.setType(type);
+        dto.setCategoryId(categoryId);
+        return dto;
+    }
+
+    private void assertBalance(LocalDate date, String expected) {
+        assertThat(balanceCheckpointService.balanceAt(email, date, "BRL").getBalance())
+                .isEqualByComparingTo(expected);
+    }
+
+    private List<String> checkpoints() {
+        return checkpointRepository.findAll().stream()
+                .filter(checkpoint -> checkpoint.getUserId().equals(userId))
+                .sorted(Comparator.comparing(BalanceCheckpoint::getPeriodMonth))
+                .map(BalanceCheckpointServiceTest::describe)
+                .toList();
+    }
+
+    private static String describe(BalanceCheckpoint checkpoint) {
+        return checkpoint.getCurrency() + " " + checkpoint.getPeriodMonth() + " " + checkpoint.getBalance().toPlainString();
+    }
+}
@@ -0,0 +1,40 @@
+package com.moneycontrol.api.service;
+
+import com.moneycontrol.api.model.Transaction;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DuplicateDetectionServiceTest {
+
+    @Test
+    void fingerprintMatchesTheSqlBackfill() {
+        // md5('EXPENSE|BRL|2340|2025-05-05'), first 8 bytes, as computed by transaction-fingerprints.sql
+        assertEquals(-7183899923389602735L, DuplicateDetectionService.fingerprint(Transaction.TransactionType.EXPENSE,
+                "BRL", new BigDecimal("23.4"), LocalDateTime.of(2025, 5, 5, 10, 0)));
+    }
+
+    @Test
+    void fingerprintIgnoresTimeOfDayOnly() {
+        long morning = DuplicateDetectionService.fingerprint(Transaction.TransactionType.EXPENSE, "BRL",
+                new BigDecimal("23.40"), LocalDateTime.of(2025, 5, 5, 8, 0));
+        assertEquals(morning, DuplicateDetectionService.fingerprint(Transaction.TransactionType.EXPENSE, "BRL",
+                new BigDecimal("23.40"), LocalDateTime.of(2025, 5, 5, 22, 30)));
+        assertNotEquals(morning, DuplicateDetectionService.fingerprint(Transaction.TransactionType.EXPENSE, "BRL",
+                new BigDecimal("23.41"), LocalDateTime.of(2025, 5, 5, 8, 0)));
+        assertNotEquals(morning, DuplicateDetectionService.fingerprint(Transaction.TransactionType.INCOME, "BRL",
+                new BigDecimal("23.40"), LocalDateTime.of(2025, 5, 5, 8, 0)));
+    }
+
+    @Test
+    void similarityIgnoresCaseAccentsAndPunctuation() {
+        assertEquals(1.0, DuplicateDetectionService.similarity("Padaria São João", "PADARIA sao-joao"));
+        assertTrue(DuplicateDetectionService.similarity("Uber *Trip", "UBER TRIP 1234") >= 0.5);
+        assertTrue(DuplicateDetectionService.similarity("Uber trip", "Padaria") < 0.1);
+    }
+}